@@ -0,0 +1,5 @@
+-- #database_version=1.1
+-- Version columns for optimistic locking on mutable entities (see META-INF/orm.xml)
+ALTER TABLE "family" ADD COLUMN "version" BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE "user_subscription" ADD COLUMN "version" BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE "user_share" ADD COLUMN "version" BIGINT NOT NULL DEFAULT 0;
@@ -105,14 +105,14 @@ module "apigateway" {
   api_gateway_log_retention_days = var.api_gateway_log_retention_days
   enable_cloudwatch_dashboard   = var.api_gateway_enable_cloudwatch_dashboard
   
-  # Lambda integration ARNs
-  create_entry_lambda_invoke_arn       = module.lambda.create_entry_lambda_arn
-  bulk_create_entry_lambda_invoke_arn  = module.lambda.bulk_create_entry_lambda_arn
-  retrieve_entry_lambda_invoke_arn     = module.lambda.retrieve_entry_lambda_arn
-  bulk_retrieve_entry_lambda_invoke_arn = module.lambda.bulk_retrieve_entry_lambda_arn
-  delete_entry_lambda_invoke_arn       = module.lambda.delete_entry_lambda_arn
-  bulk_delete_entry_lambda_invoke_arn  = module.lambda.bulk_delete_entry_lambda_arn
-  cognito_authorizer_lambda_invoke_arn = module.lambda.cognito_authorizer_lambda_arn
+  # Lambda integration ARNs (all routes go to the single router when it is enabled)
+  create_entry_lambda_invoke_arn       = var.enable_single_router ? module.lambda.router_lambda_arn : module.lambda.create_entry_lambda_arn
+  bulk_create_entry_lambda_invoke_arn  = var.enable_single_router ? module.lambda.router_lambda_arn : module.lambda.bulk_create_entry_lambda_arn
+  retrieve_entry_lambda_invoke_arn     = var.enable_single_router ? module.lambda.router_lambda_arn : module.lambda.retrieve_entry_lambda_arn
+  bulk_retrieve_entry_lambda_invoke_arn = var.enable_single_router ? module.lambda.router_lambda_arn : module.lambda.bulk_retrieve_entry_lambda_arn
+  delete_entry_lambda_invoke_arn       = var.enable_single_router ? module.lambda.router_lambda_arn : module.lambda.delete_entry_lambda_arn
+  bulk_delete_entry_lambda_invoke_arn  = var.enable_single_router ? module.lambda.router_lambda_arn : module.lambda.bulk_delete_entry_lambda_arn
+  cognito_authorizer_lambda_invoke_arn = var.enable_single_router ? module.lambda.router_lambda_arn : module.lambda.cognito_authorizer_lambda_arn
   
   depends_on = [module.lambda]
 }
@@ -129,6 +129,7 @@ module "lambda" {
   dynamodb_table_arn        = module.dynamodb.table_arn
   api_gateway_execution_arn = module.apigateway.execution_arn
   cognito_user_pool_id      = module.apigateway.user_pool_id
+  enable_single_router      = var.enable_single_router
   
   depends_on = [module.dynamodb, module.apigateway]
 } 
\ No newline at end of file
@@ -26,6 +26,15 @@ resource "aws_dynamodb_table" "user_locations" {
     type = "S"
   }
   
+  # Narrow Global Secondary Index for track reads (fields=dateTime,latitude,longitude)
+  global_secondary_index {
+    name               = "user_track_index"
+    hash_key           = "user_id"
+    range_key          = "date_time"
+    projection_type    = "INCLUDE"
+    non_key_attributes = ["latitude", "longitude"]
+  }
+  
   # Global Secondary Index for location queries
   global_secondary_index {
     name            = "lat_long_index"
@@ -60,6 +60,29 @@ resource "aws_iam_role_policy" "lambda_policy" {
   })
 }
 
+# IAM Policy for the async ingest queue (only when async ingest is enabled)
+resource "aws_iam_role_policy" "lambda_ingest_queue_policy" {
+  count = var.enable_async_ingest ? 1 : 0
+  name  = "IAMPolicy-LambdaIngestQueue-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  role  = aws_iam_role.lambda_role.id
+
+  policy = jsonencode({
+    Version = "2012-10-17"
+    Statement = [
+      {
+        Effect = "Allow"
+        Action = [
+          "sqs:SendMessage",
+          "sqs:ReceiveMessage",
+          "sqs:DeleteMessage",
+          "sqs:GetQueueAttributes"
+        ]
+        Resource = aws_sqs_queue.ingest_queue[0].arn
+      }
+    ]
+  })
+}
+
 # CloudWatch Log Groups for each Lambda function
 resource "aws_cloudwatch_log_group" "create_entry_logs" {
   name              = "/aws/lambda/Lambda-CreateEntry-MTKBackend-${var.aws_region}-${var.availability_zone}"
@@ -139,6 +162,8 @@ resource "aws_lambda_function" "create_entry" {
       DYNAMODB_TABLE_NAME = var.dynamodb_table_name
       ENVIRONMENT         = var.environment
       AWS_REGION          = var.aws_region
+      INGEST_MODE         = var.enable_async_ingest ? "async" : "sync"
+      INGEST_QUEUE_URL    = var.enable_async_ingest ? aws_sqs_queue.ingest_queue[0].url : ""
     }
   }
 
@@ -149,6 +174,77 @@ resource "aws_lambda_function" "create_entry" {
   depends_on = [aws_cloudwatch_log_group.create_entry_logs]
 }
 
+# Async ingest queue - CreateEntry enqueues, IngestConsumer drains in batches
+resource "aws_sqs_queue" "ingest_dead_letter_queue" {
+  count                     = var.enable_async_ingest ? 1 : 0
+  name                      = "SQS-IngestDLQ-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  message_retention_seconds = 1209600
+
+  tags = {
+    Name = "SQS-IngestDLQ-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  }
+}
+
+resource "aws_sqs_queue" "ingest_queue" {
+  count                      = var.enable_async_ingest ? 1 : 0
+  name                       = "SQS-Ingest-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  visibility_timeout_seconds = 360
+  message_retention_seconds  = 345600
+
+  redrive_policy = jsonencode({
+    deadLetterTargetArn = aws_sqs_queue.ingest_dead_letter_queue[0].arn
+    maxReceiveCount     = 5
+  })
+
+  tags = {
+    Name = "SQS-Ingest-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  }
+}
+
+resource "aws_cloudwatch_log_group" "ingest_consumer_logs" {
+  count             = var.enable_async_ingest ? 1 : 0
+  name              = "/aws/lambda/Lambda-IngestConsumer-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  retention_in_days = 14
+
+  tags = {
+    Name = "LogGroup-IngestConsumer-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  }
+}
+
+# Lambda Function - Ingest Consumer
+resource "aws_lambda_function" "ingest_consumer" {
+  count            = var.enable_async_ingest ? 1 : 0
+  filename         = var.lambda_jar_path
+  function_name    = "Lambda-IngestConsumer-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  role            = aws_iam_role.lambda_role.arn
+  handler         = "com.mindthekid.geo.cqrs.commands.IngestConsumerHandler::handleRequest"
+  runtime         = "java11"
+  timeout         = 60
+  memory_size     = 1024
+
+  environment {
+    variables = {
+      DYNAMODB_TABLE_NAME = var.dynamodb_table_name
+      ENVIRONMENT         = var.environment
+      AWS_REGION          = var.aws_region
+    }
+  }
+
+  tags = {
+    Name = "Lambda-IngestConsumer-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  }
+
+  depends_on = [aws_cloudwatch_log_group.ingest_consumer_logs]
+}
+
+resource "aws_lambda_event_source_mapping" "ingest_consumer_mapping" {
+  count                              = var.enable_async_ingest ? 1 : 0
+  event_source_arn                   = aws_sqs_queue.ingest_queue[0].arn
+  function_name                      = aws_lambda_function.ingest_consumer[0].arn
+  batch_size                         = var.ingest_batch_size
+  maximum_batching_window_in_seconds = var.ingest_batching_window_seconds
+}
+
 # Lambda Function - Bulk Create Entry
 resource "aws_lambda_function" "bulk_create_entry" {
   filename         = var.lambda_jar_path
@@ -299,6 +395,45 @@ resource "aws_lambda_function" "cognito_authorizer" {
   depends_on = [aws_cloudwatch_log_group.cognito_authorizer_logs]
 }
 
+# Single router - every API route and the authorizer in one function (only when enabled)
+resource "aws_cloudwatch_log_group" "router_logs" {
+  count             = var.enable_single_router ? 1 : 0
+  name              = "/aws/lambda/Lambda-Router-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  retention_in_days = 14
+
+  tags = {
+    Name = "LogGroup-Router-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  }
+}
+
+resource "aws_lambda_function" "router" {
+  count            = var.enable_single_router ? 1 : 0
+  filename         = var.lambda_jar_path
+  function_name    = "Lambda-Router-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  role            = aws_iam_role.lambda_role.arn
+  handler         = "com.mindthekid.geo.cqrs.infrastructure.RouterHandler::handleRequest"
+  runtime         = "java11"
+  timeout         = 60
+  memory_size     = 1024
+
+  environment {
+    variables = {
+      DYNAMODB_TABLE_NAME  = var.dynamodb_table_name
+      COGNITO_USER_POOL_ID = var.cognito_user_pool_id
+      ENVIRONMENT          = var.environment
+      AWS_REGION           = var.aws_region
+      INGEST_MODE          = var.enable_async_ingest ? "async" : "sync"
+      INGEST_QUEUE_URL     = var.enable_async_ingest ? aws_sqs_queue.ingest_queue[0].url : ""
+    }
+  }
+
+  tags = {
+    Name = "Lambda-Router-MTKBackend-${var.aws_region}-${var.availability_zone}"
+  }
+
+  depends_on = [aws_cloudwatch_log_group.router_logs]
+}
+
 # Lambda Permission for API Gateway integration
 resource "aws_lambda_permission" "create_entry_permission" {
   statement_id  = "AllowExecutionFromAPIGateway"
@@ -354,4 +489,13 @@ resource "aws_lambda_permission" "cognito_authorizer_permission" {
   function_name = aws_lambda_function.cognito_authorizer.function_name
   principal     = "apigateway.amazonaws.com"
   source_arn    = "${var.api_gateway_execution_arn}/*/*"
-} 
\ No newline at end of file
+}
+
+resource "aws_lambda_permission" "router_permission" {
+  count         = var.enable_single_router ? 1 : 0
+  statement_id  = "AllowExecutionFromAPIGateway"
+  action        = "lambda:InvokeFunction"
+  function_name = aws_lambda_function.router[0].function_name
+  principal     = "apigateway.amazonaws.com"
+  source_arn    = "${var.api_gateway_execution_arn}/*/*"
+}
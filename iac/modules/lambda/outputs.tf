@@ -71,4 +71,19 @@ output "cognito_authorizer_lambda_arn" {
 output "cognito_authorizer_lambda_name" {
   description = "Name of the Cognito Authorizer Lambda function"
   value       = aws_lambda_function.cognito_authorizer.function_name
-} 
\ No newline at end of file
+}
+
+output "ingest_queue_url" {
+  description = "URL of the async ingest SQS queue (empty when async ingest is disabled)"
+  value       = var.enable_async_ingest ? aws_sqs_queue.ingest_queue[0].url : ""
+}
+
+output "router_lambda_arn" {
+  description = "Invoke ARN of the single router Lambda function (empty when the router is disabled)"
+  value       = var.enable_single_router ? aws_lambda_function.router[0].invoke_arn : ""
+}
+
+output "router_lambda_name" {
+  description = "Name of the single router Lambda function (empty when the router is disabled)"
+  value       = var.enable_single_router ? aws_lambda_function.router[0].function_name : ""
+}
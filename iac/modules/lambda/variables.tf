@@ -37,4 +37,28 @@ variable "api_gateway_execution_arn" {
 variable "cognito_user_pool_id" {
   description = "ID of the Cognito User Pool"
   type        = string
-} 
\ No newline at end of file
+}
+
+variable "enable_async_ingest" {
+  description = "Route single location creates through the SQS ingest queue and a batching consumer"
+  type        = bool
+  default     = false
+}
+
+variable "ingest_batch_size" {
+  description = "Maximum number of queued locations delivered to one ingest consumer invocation"
+  type        = number
+  default     = 1000
+}
+
+variable "ingest_batching_window_seconds" {
+  description = "Maximum time SQS waits to fill an ingest consumer batch"
+  type        = number
+  default     = 5
+}
+
+variable "enable_single_router" {
+  description = "Deploy one router function that serves every API route and the authorizer from a shared warm pool"
+  type        = bool
+  default     = false
+}
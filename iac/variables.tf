@@ -208,6 +208,12 @@ variable "lambda_jar_path" {
   type        = string
   default     = "src/lambda/cqrs/target/cqrs-lambda-1.0.0.jar"
 }
+
+variable "enable_single_router" {
+  description = "Serve every API route and the authorizer from one router Lambda instead of one function per handler"
+  type        = bool
+  default     = false
+}
   type        = bool
   default     = true
 } 
\ No newline at end of file
@@ -4,24 +4,28 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mindthekid.models.UserLocation;
-import com.mindthekid.cqrs.shared.dto.ApiResponse;
-import com.mindthekid.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
+import com.mindthekid.geo.cqrs.shared.services.LocationReconciler;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
 public class BulkCreateEntryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     
-    private final DynamoDBService dynamoDBService;
-    private final ObjectMapper objectMapper;
+    private final LocationStore locationStore;
+    private final LocationReconciler locationReconciler;
     
     public BulkCreateEntryHandler() {
-        this.dynamoDBService = new DynamoDBService();
-        this.objectMapper = new ObjectMapper();
+        this(new DynamoDBService());
+    }
+    
+    public BulkCreateEntryHandler(LocationStore locationStore) {
+        this.locationStore = locationStore;
+        this.locationReconciler = LocationReconciler.fromEnvironment();
     }
     
     @Override
@@ -33,45 +37,21 @@ public class BulkCreateEntryHandler implements RequestHandler<APIGatewayProxyReq
                 return createErrorResponse("Request body is required", 400);
             }
             
-            // Parse as array of UserLocation objects
-            UserLocation[] userLocations = objectMapper.readValue(requestBody, UserLocation[].class);
+            // Parse straight into columns; the batch carries the rows through reconciliation and the save
+            LocationBatch userLocations = LocationJsonCodec.readBatch(requestBody);
             
-            if (userLocations == null || userLocations.length == 0) {
+            if (userLocations == null || userLocations.isEmpty()) {
                 return createErrorResponse("At least one user location is required", 400);
             }
             
-            // Validate and prepare user locations
-            List<UserLocation> validLocations = new ArrayList<>();
+            // Validate user locations
             List<String> validationErrors = new ArrayList<>();
             
-            Instant now = Instant.now();
-            
-            for (int i = 0; i < userLocations.length; i++) {
-                UserLocation location = userLocations[i];
-                String validationError = validateUserLocation(location, i);
+            for (int i = 0; i < userLocations.size(); i++) {
+                String validationError = validateUserLocation(userLocations, i);
                 
                 if (validationError != null) {
                     validationErrors.add(validationError);
-                } else {
-                    // Set timestamps
-                    location.setCreatedAt(now);
-                    location.setUpdatedAt(now);
-                    
-                    // Generate lat_long index value if coordinates are provided
-                    if (location.getLatitude() != null && location.getLongitude() != null) {
-                        location.setLatLong(location.getLatitude() + "," + location.getLongitude());
-                    }
-                    
-                    // Set default values if not provided
-                    if (location.getIsPrivate() == null) {
-                        location.setIsPrivate(false);
-                    }
-                    
-                    if (location.getIsReal() == null) {
-                        location.setIsReal(true);
-                    }
-                    
-                    validLocations.add(location);
                 }
             }
             
@@ -79,12 +59,19 @@ public class BulkCreateEntryHandler implements RequestHandler<APIGatewayProxyReq
                 return createErrorResponse("Validation errors: " + String.join("; ", validationErrors), 400);
             }
             
-            // Save to DynamoDB in batches
-            List<UserLocation> savedLocations = dynamoDBService.bulkSaveUserLocations(validLocations);
+            // Set timestamps and default values if not provided; lat_long is derived from the coordinates
+            userLocations.stamp(Instant.now());
+            userLocations.applyDefaults(false, true);
+            
+            // Drop duplicates within the upload, then skip points that are already stored
+            LocationBatch reconciled = locationReconciler.reconcile(userLocations);
+            LocationBatch savedLocations = locationStore.bulkSaveNewLocations(reconciled);
+            int duplicatesSkipped = userLocations.size() - savedLocations.size();
             
             // Return success response
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("createdCount", savedLocations.size());
+            responseData.put("duplicatesSkipped", duplicatesSkipped);
             responseData.put("locations", savedLocations);
             
             ApiResponse<Map<String, Object>> response = ApiResponse.success(
@@ -92,7 +79,7 @@ public class BulkCreateEntryHandler implements RequestHandler<APIGatewayProxyReq
                 responseData
             );
             
-            String responseBody = objectMapper.writeValueAsString(response);
+            String responseBody = LocationJsonCodec.writeResponse(response);
             
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(201)
@@ -105,22 +92,29 @@ public class BulkCreateEntryHandler implements RequestHandler<APIGatewayProxyReq
         }
     }
     
-    private String validateUserLocation(UserLocation location, int index) {
-        if (location.getUserId() == null || location.getUserId().trim().isEmpty()) {
+    // The batch holds date_time as epoch millis, so a valid value is already canonical
+    private String validateUserLocation(LocationBatch locations, int index) {
+        String userId = locations.getUserId(index);
+        if (userId == null || userId.trim().isEmpty()) {
             return "Item " + index + ": user_id is required";
         }
         
-        if (location.getDateTime() == null || location.getDateTime().trim().isEmpty()) {
+        long dateTime = locations.getDateTimeMillis(index);
+        if (dateTime == LocationBatch.NO_TIME) {
             return "Item " + index + ": date_time is required";
         }
         
+        if (dateTime == LocationBatch.INVALID_TIME) {
+            return "Item " + index + ": date_time must be an ISO-8601 timestamp or epoch milliseconds";
+        }
+        
         return null;
     }
     
     private APIGatewayProxyResponseEvent createErrorResponse(String message, int statusCode) {
         try {
             ApiResponse<String> errorResponse = ApiResponse.error(message);
-            String responseBody = objectMapper.writeValueAsString(errorResponse);
+            String responseBody = LocationJsonCodec.writeResponse(errorResponse);
             
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(statusCode)
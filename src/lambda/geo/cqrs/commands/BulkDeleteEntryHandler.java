@@ -6,19 +6,25 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindthekid.models.UserLocation;
-import com.mindthekid.cqrs.shared.dto.ApiResponse;
-import com.mindthekid.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
+import com.mindthekid.utils.TimeKeys;
 
 import java.util.List;
 import java.util.Map;
 
 public class BulkDeleteEntryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     
-    private final DynamoDBService dynamoDBService;
+    private final LocationStore locationStore;
     private final ObjectMapper objectMapper;
     
     public BulkDeleteEntryHandler() {
-        this.dynamoDBService = new DynamoDBService();
+        this(new DynamoDBService());
+    }
+    
+    public BulkDeleteEntryHandler(LocationStore locationStore) {
+        this.locationStore = locationStore;
         this.objectMapper = new ObjectMapper();
     }
     
@@ -46,21 +52,28 @@ public class BulkDeleteEntryHandler implements RequestHandler<APIGatewayProxyReq
                 String startTime = queryParameters.get("startTime");
                 String endTime = queryParameters.get("endTime");
                 
+                try {
+                    startTime = startTime != null ? TimeKeys.normalize(startTime) : null;
+                    endTime = endTime != null ? TimeKeys.normalize(endTime) : null;
+                } catch (IllegalArgumentException e) {
+                    return createErrorResponse("startTime and endTime must be ISO-8601 timestamps or epoch milliseconds", 400);
+                }
+                
                 if (startTime != null && endTime != null) {
                     // Delete by time range
-                    deletedLocations = dynamoDBService.deleteUserLocationsByTimeRange(userId, startTime, endTime);
+                    deletedLocations = locationStore.deleteUserLocationsByTimeRange(userId, startTime, endTime);
                 } else if (startTime != null) {
                     // Delete from start time onwards
-                    deletedLocations = dynamoDBService.deleteUserLocationsFromTime(userId, startTime);
+                    deletedLocations = locationStore.deleteUserLocationsFromTime(userId, startTime);
                 } else if (endTime != null) {
                     // Delete up to end time
-                    deletedLocations = dynamoDBService.deleteUserLocationsUpToTime(userId, endTime);
+                    deletedLocations = locationStore.deleteUserLocationsUpToTime(userId, endTime);
                 } else {
                     return createErrorResponse("Invalid time range parameters", 400);
                 }
             } else {
                 // Delete all entries for the user
-                deletedLocations = dynamoDBService.deleteAllUserLocations(userId);
+                deletedLocations = locationStore.deleteAllUserLocations(userId);
             }
             
             // Return success response
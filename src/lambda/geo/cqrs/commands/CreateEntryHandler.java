@@ -4,23 +4,30 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindthekid.models.UserLocation;
-import com.mindthekid.cqrs.shared.dto.ApiResponse;
-import com.mindthekid.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
+import com.mindthekid.geo.cqrs.shared.services.IngestQueue;
+import com.mindthekid.utils.TimeKeys;
 
 import java.time.Instant;
 import java.util.Map;
 
 public class CreateEntryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     
-    private final DynamoDBService dynamoDBService;
-    private final ObjectMapper objectMapper;
+    private final LocationStore locationStore;
+    // Null unless INGEST_MODE=async, in which case writes are deferred to IngestConsumerHandler
+    private final IngestQueue ingestQueue;
     
     public CreateEntryHandler() {
-        this.dynamoDBService = new DynamoDBService();
-        this.objectMapper = new ObjectMapper();
+        this(new DynamoDBService(), IngestQueue.isAsyncModeEnabled() ? IngestQueue.fromEnvironment() : null);
+    }
+    
+    public CreateEntryHandler(LocationStore locationStore, IngestQueue ingestQueue) {
+        this.locationStore = locationStore;
+        this.ingestQueue = ingestQueue;
     }
     
     @Override
@@ -32,7 +39,7 @@ public class CreateEntryHandler implements RequestHandler<APIGatewayProxyRequest
                 return createErrorResponse("Request body is required", 400);
             }
             
-            UserLocation userLocation = objectMapper.readValue(requestBody, UserLocation.class);
+            UserLocation userLocation = LocationJsonCodec.readLocation(requestBody);
             
             // Validate required fields
             if (userLocation.getUserId() == null || userLocation.getUserId().trim().isEmpty()) {
@@ -43,10 +50,12 @@ public class CreateEntryHandler implements RequestHandler<APIGatewayProxyRequest
                 return createErrorResponse("date_time is required", 400);
             }
             
-            // Set timestamps
-            Instant now = Instant.now();
-            userLocation.setCreatedAt(now);
-            userLocation.setUpdatedAt(now);
+            // Store a canonical UTC key so range queries compare correctly
+            try {
+                userLocation.setDateTime(TimeKeys.normalize(userLocation.getDateTime()));
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse("date_time must be an ISO-8601 timestamp or epoch milliseconds", 400);
+            }
             
             // Generate lat_long index value if coordinates are provided
             if (userLocation.getLatitude() != null && userLocation.getLongitude() != null) {
@@ -62,12 +71,41 @@ public class CreateEntryHandler implements RequestHandler<APIGatewayProxyRequest
                 userLocation.setIsReal(true);
             }
             
-            // Save to DynamoDB
-            dynamoDBService.saveUserLocation(userLocation);
+            if (ingestQueue != null) {
+                // Acknowledge now; the consumer stamps timestamps and writes in batches
+                ingestQueue.enqueue(userLocation);
+                
+                ApiResponse<UserLocation> response = ApiResponse.success("User location accepted for processing", userLocation);
+                String responseBody = LocationJsonCodec.writeResponse(response);
+                
+                return new APIGatewayProxyResponseEvent()
+                        .withStatusCode(202)
+                        .withBody(responseBody)
+                        .withHeaders(Map.of("Content-Type", "application/json"));
+            }
+            
+            // Set timestamps
+            Instant now = Instant.now();
+            userLocation.setCreatedAt(now);
+            userLocation.setUpdatedAt(now);
+            
+            // Conditional write so a re-uploaded point never rewrites the stored copy
+            if (!locationStore.saveUserLocationIfAbsent(userLocation)) {
+                ApiResponse<Map<String, Object>> response = ApiResponse.success(
+                    "User location already exists, duplicate skipped",
+                    Map.of("createdCount", 0, "duplicatesSkipped", 1)
+                );
+                String responseBody = LocationJsonCodec.writeResponse(response);
+                
+                return new APIGatewayProxyResponseEvent()
+                        .withStatusCode(200)
+                        .withBody(responseBody)
+                        .withHeaders(Map.of("Content-Type", "application/json"));
+            }
             
             // Return success response
             ApiResponse<UserLocation> response = ApiResponse.success("User location created successfully", userLocation);
-            String responseBody = objectMapper.writeValueAsString(response);
+            String responseBody = LocationJsonCodec.writeResponse(response);
             
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(201)
@@ -83,7 +121,7 @@ public class CreateEntryHandler implements RequestHandler<APIGatewayProxyRequest
     private APIGatewayProxyResponseEvent createErrorResponse(String message, int statusCode) {
         try {
             ApiResponse<String> errorResponse = ApiResponse.error(message);
-            String responseBody = objectMapper.writeValueAsString(errorResponse);
+            String responseBody = LocationJsonCodec.writeResponse(errorResponse);
             
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(statusCode)
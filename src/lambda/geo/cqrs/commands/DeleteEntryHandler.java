@@ -6,18 +6,24 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindthekid.models.UserLocation;
-import com.mindthekid.cqrs.shared.dto.ApiResponse;
-import com.mindthekid.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
+import com.mindthekid.utils.TimeKeys;
 
 import java.util.Map;
 
 public class DeleteEntryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     
-    private final DynamoDBService dynamoDBService;
+    private final LocationStore locationStore;
     private final ObjectMapper objectMapper;
     
     public DeleteEntryHandler() {
-        this.dynamoDBService = new DynamoDBService();
+        this(new DynamoDBService());
+    }
+    
+    public DeleteEntryHandler(LocationStore locationStore) {
+        this.locationStore = locationStore;
         this.objectMapper = new ObjectMapper();
     }
     
@@ -40,14 +46,20 @@ public class DeleteEntryHandler implements RequestHandler<APIGatewayProxyRequest
                 return createErrorResponse("date_time is required in path", 400);
             }
             
+            try {
+                dateTime = TimeKeys.normalize(dateTime);
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse("date_time must be an ISO-8601 timestamp or epoch milliseconds", 400);
+            }
+            
             // Check if the entry exists before deleting
-            UserLocation existingLocation = dynamoDBService.getUserLocation(userId, dateTime);
+            UserLocation existingLocation = locationStore.getUserLocation(userId, dateTime);
             if (existingLocation == null) {
                 return createErrorResponse("User location not found", 404);
             }
             
             // Delete the user location
-            dynamoDBService.deleteUserLocation(userId, dateTime);
+            locationStore.deleteUserLocation(userId, dateTime);
             
             // Return success response
             Map<String, Object> responseData = Map.of(
@@ -0,0 +1,96 @@
+package com.mindthekid.geo.cqrs.commands;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.models.UserLocation;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
+import com.mindthekid.geo.cqrs.shared.services.LocationReconciler;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind consumer for the async ingest queue.
+ *
+ * Drains a batch of queued user locations, collapses duplicates on (user_id, date_time)
+ * keeping the most recently enqueued copy, drops near-duplicates via {@link LocationReconciler}
+ * and writes the points that are not already stored through the columnar bulk save, which
+ * retries unprocessed items with backoff. Items still unprocessed after the retries fail the
+ * invocation, so SQS redelivers the whole batch; redelivered points are skipped as already stored.
+ */
+public class IngestConsumerHandler implements RequestHandler<SQSEvent, Void> {
+    
+    private final LocationStore locationStore;
+    private final LocationReconciler locationReconciler;
+    
+    public IngestConsumerHandler() {
+        this(new DynamoDBService());
+    }
+    
+    public IngestConsumerHandler(LocationStore locationStore) {
+        this.locationStore = locationStore;
+        this.locationReconciler = LocationReconciler.fromEnvironment();
+    }
+    
+    @Override
+    public Void handleRequest(SQSEvent event, Context context) {
+        List<SQSEvent.SQSMessage> messages = event.getRecords();
+        if (messages == null || messages.isEmpty()) {
+            return null;
+        }
+        
+        List<UserLocation> userLocations = new ArrayList<>(messages.size());
+        for (SQSEvent.SQSMessage message : messages) {
+            try {
+                userLocations.add(LocationJsonCodec.readLocation(message.getBody()));
+            } catch (IOException e) {
+                // A malformed message can never succeed; drop it rather than poison the batch
+                context.getLogger().log("Skipping unreadable ingest message " + message.getMessageId() + ": " + e.getMessage());
+            }
+        }
+        
+        int written = process(userLocations);
+        context.getLogger().log("Ingested " + written + " user locations from " + messages.size() + " queued messages");
+        return null;
+    }
+    
+    /**
+     * Deduplicates and writes a drained batch of user locations.
+     *
+     * @param userLocations Queued user locations in enqueue order
+     * @return Number of user locations written
+     */
+    public int process(List<UserLocation> userLocations) {
+        if (userLocations.isEmpty()) {
+            return 0;
+        }
+        
+        LocationBatch queued = LocationBatch.of(userLocations);
+        
+        // Keep the most recently enqueued copy of each key; rows without a valid date_time can never be stored
+        Map<String, Integer> latestRowByKey = new HashMap<>();
+        for (int row = 0; row < queued.size(); row++) {
+            if (queued.hasValidDateTime(row)) {
+                latestRowByKey.put(queued.getUserId(row) + '\n' + queued.getDateTimeMillis(row), row);
+            }
+        }
+        BitSet latestRows = new BitSet(queued.size());
+        for (int row : latestRowByKey.values()) {
+            latestRows.set(row);
+        }
+        
+        LocationBatch batch = locationReconciler.reconcile(queued.select(latestRows));
+        batch.stamp(Instant.now());
+        
+        return locationStore.bulkSaveNewLocations(batch).size();
+    }
+}
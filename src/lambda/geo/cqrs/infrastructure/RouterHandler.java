@@ -0,0 +1,170 @@
+package com.mindthekid.geo.cqrs.infrastructure;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.mindthekid.geo.cqrs.commands.BulkCreateEntryHandler;
+import com.mindthekid.geo.cqrs.commands.BulkDeleteEntryHandler;
+import com.mindthekid.geo.cqrs.commands.CreateEntryHandler;
+import com.mindthekid.geo.cqrs.commands.DeleteEntryHandler;
+import com.mindthekid.geo.cqrs.queries.BulkRetrieveEntryHandler;
+import com.mindthekid.geo.cqrs.queries.RetrieveEntryHandler;
+import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.IngestQueue;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single Lambda entry point for every geo CQRS route.
+ *
+ * Dispatches by HTTP method and path template to the same handler classes the per-route
+ * functions use. All of them share one {@link LocationStore} (by default one
+ * {@code DynamoDBService}, and so one DynamoDB client and mapper), so one warm pool
+ * serves the whole API. Authorizer invocations, which carry no HTTP method, go to
+ * {@link CognitoAuthorizer}.
+ *
+ * The template is taken from the event's {@code resource} when API Gateway routes per
+ * resource, and otherwise matched against {@code path} (e.g. behind a {@code {proxy+}}
+ * resource), in which case missing path parameters are filled in from the match.
+ */
+public class RouterHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    public static final String LOCATIONS = "/api/v1/locations";
+    public static final String BULK_LOCATIONS = LOCATIONS + "/bulk";
+    public static final String USER_LOCATIONS = LOCATIONS + "/{userId}";
+    public static final String USER_LOCATION = USER_LOCATIONS + "/{dateTime}";
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, Route> routesByKey = new HashMap<>();
+    private final CognitoAuthorizer authorizer;
+
+    public RouterHandler() {
+        this(new DynamoDBService());
+    }
+
+    public RouterHandler(LocationStore locationStore) {
+        // Literal templates first, so /locations/bulk is not read as a user id
+        addRoute("POST", BULK_LOCATIONS, new BulkCreateEntryHandler(locationStore));
+        addRoute("POST", LOCATIONS, new CreateEntryHandler(locationStore,
+            IngestQueue.isAsyncModeEnabled() ? IngestQueue.fromEnvironment() : null));
+        addRoute("GET", USER_LOCATION, new RetrieveEntryHandler(locationStore));
+        addRoute("DELETE", USER_LOCATION, new DeleteEntryHandler(locationStore));
+        addRoute("GET", USER_LOCATIONS, new BulkRetrieveEntryHandler(locationStore));
+        addRoute("DELETE", USER_LOCATIONS, new BulkDeleteEntryHandler(locationStore));
+        this.authorizer = new CognitoAuthorizer();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String method = request.getHttpMethod();
+        if (method == null) {
+            return authorizer.handleRequest(request, context);
+        }
+
+        // Per-resource integrations name the template directly
+        Route route = request.getResource() != null ? routesByKey.get(method + " " + request.getResource()) : null;
+        if (route != null) {
+            return route.handler.handleRequest(request, context);
+        }
+
+        String path = request.getPath();
+        if (path == null) {
+            return createErrorResponse("Not found", 404);
+        }
+
+        String[] segments = split(path);
+        boolean pathMatched = false;
+        for (Route candidate : routes) {
+            Map<String, String> pathParameters = candidate.match(segments);
+            if (pathParameters == null) {
+                continue;
+            }
+            if (!candidate.method.equals(method)) {
+                pathMatched = true;
+                continue;
+            }
+            if (request.getPathParameters() == null || request.getPathParameters().isEmpty()) {
+                request.setPathParameters(pathParameters);
+            }
+            return candidate.handler.handleRequest(request, context);
+        }
+
+        return pathMatched
+            ? createErrorResponse("Method " + method + " not allowed for " + path, 405)
+            : createErrorResponse("Not found", 404);
+    }
+
+    private void addRoute(String method, String template, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+        Route route = new Route(method, template, handler);
+        routes.add(route);
+        routesByKey.put(method + " " + template, route);
+    }
+
+    private static String[] split(String path) {
+        String trimmed = path;
+        while (trimmed.startsWith("/")) {
+            trimmed = trimmed.substring(1);
+        }
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    private APIGatewayProxyResponseEvent createErrorResponse(String message, int statusCode) {
+        try {
+            ApiResponse<String> errorResponse = ApiResponse.error(message);
+            String responseBody = LocationJsonCodec.writeResponse(errorResponse);
+
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(statusCode)
+                    .withBody(responseBody)
+                    .withHeaders(Map.of("Content-Type", "application/json"));
+        } catch (Exception e) {
+            return new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody("{\"success\":false,\"message\":\"Error serializing response\"}")
+                    .withHeaders(Map.of("Content-Type", "application/json"));
+        }
+    }
+
+    private static final class Route {
+        private final String method;
+        private final String[] segments;
+        private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler;
+
+        private Route(String method, String template, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+            this.method = method;
+            this.segments = split(template);
+            this.handler = handler;
+        }
+
+        // Path parameters for a matching path, or null
+        private Map<String, String> match(String[] pathSegments) {
+            if (pathSegments.length != segments.length) {
+                return null;
+            }
+            Map<String, String> pathParameters = new HashMap<>();
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    // Keep '+' literal: it appears in ISO-8601 offsets
+                    String value = URLDecoder.decode(pathSegments[i].replace("+", "%2B"), StandardCharsets.UTF_8);
+                    pathParameters.put(segment.substring(1, segment.length() - 1), value);
+                } else if (!segment.equals(pathSegments[i])) {
+                    return null;
+                }
+            }
+            return pathParameters;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mindthekid.geo.cqrs.jmh;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of {@code benchmarks.jar}: runs JMH with the GC profiler on by default, so every
+ * result also reports its allocation rate ({@code gc.alloc.rate.norm} is bytes per operation).
+ *
+ * All JMH options apply as usual. Passing {@code -prof} replaces the default, so add
+ * {@code -prof gc} next to any other profiler to keep allocation figures.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        String[] jmhArgs = args;
+        if (!Arrays.asList(args).contains("-prof")) {
+            jmhArgs = new String[args.length + 2];
+            jmhArgs[0] = "-prof";
+            jmhArgs[1] = "gc";
+            System.arraycopy(args, 0, jmhArgs, 2, args.length);
+        }
+        org.openjdk.jmh.Main.main(jmhArgs);
+    }
+}
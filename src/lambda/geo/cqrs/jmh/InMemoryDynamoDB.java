@@ -0,0 +1,109 @@
+package com.mindthekid.geo.cqrs.jmh;
+
+import com.amazonaws.services.dynamodbv2.AbstractAmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.InMemoryLocationStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Single-table {@code AmazonDynamoDB} held in maps, for benchmarking {@link DynamoDBService}
+ * without a network.
+ *
+ * Only the calls made by the columnar paths of {@code DynamoDBService} are implemented:
+ * BatchGetItem, BatchWriteItem and Query on the key conditions it builds (everything else
+ * throws {@code UnsupportedOperationException}). Items are stored as given; projections and
+ * indexes are ignored. The numbers therefore isolate DynamoDBService's own request building
+ * and attribute conversion.
+ */
+final class InMemoryDynamoDB extends AbstractAmazonDynamoDB {
+
+    private final Map<String, TreeMap<String, Map<String, AttributeValue>>> partitions = new HashMap<>();
+
+    void clear() {
+        partitions.clear();
+    }
+
+    @Override
+    public BatchGetItemResult batchGetItem(BatchGetItemRequest request) {
+        Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+        for (Map.Entry<String, KeysAndAttributes> table : request.getRequestItems().entrySet()) {
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            for (Map<String, AttributeValue> key : table.getValue().getKeys()) {
+                TreeMap<String, Map<String, AttributeValue>> partition = partitions.get(key.get("user_id").getS());
+                Map<String, AttributeValue> item = partition != null ? partition.get(key.get("date_time").getS()) : null;
+                if (item != null) {
+                    found.add(item);
+                }
+            }
+            responses.put(table.getKey(), found);
+        }
+        return new BatchGetItemResult().withResponses(responses).withUnprocessedKeys(Collections.emptyMap());
+    }
+
+    @Override
+    public BatchWriteItemResult batchWriteItem(BatchWriteItemRequest request) {
+        for (List<WriteRequest> writes : request.getRequestItems().values()) {
+            for (WriteRequest write : writes) {
+                if (write.getPutRequest() != null) {
+                    Map<String, AttributeValue> item = write.getPutRequest().getItem();
+                    partitions.computeIfAbsent(item.get("user_id").getS(), userId -> new TreeMap<>())
+                            .put(item.get("date_time").getS(), item);
+                } else if (write.getDeleteRequest() != null) {
+                    Map<String, AttributeValue> key = write.getDeleteRequest().getKey();
+                    TreeMap<String, Map<String, AttributeValue>> partition = partitions.get(key.get("user_id").getS());
+                    if (partition != null) {
+                        partition.remove(key.get("date_time").getS());
+                    }
+                }
+            }
+        }
+        return new BatchWriteItemResult().withUnprocessedItems(Collections.emptyMap());
+    }
+
+    // Understands "user_id = :userId" with an optional BETWEEN, >= or <= on date_time, as DynamoDBService builds them
+    @Override
+    public QueryResult query(QueryRequest request) {
+        Map<String, AttributeValue> values = request.getExpressionAttributeValues();
+        NavigableMap<String, Map<String, AttributeValue>> range =
+                partitions.getOrDefault(values.get(":userId").getS(), new TreeMap<>());
+        if (values.containsKey(":startTime")) {
+            range = range.tailMap(values.get(":startTime").getS(), true);
+        }
+        if (values.containsKey(":endTime")) {
+            range = range.headMap(values.get(":endTime").getS(), true);
+        }
+        if (request.getExclusiveStartKey() != null) {
+            range = range.tailMap(request.getExclusiveStartKey().get("date_time").getS(), false);
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        for (Map<String, AttributeValue> item : range.values()) {
+            if (items.size() == InMemoryLocationStore.PAGE_SIZE) {
+                Map<String, AttributeValue> last = items.get(items.size() - 1);
+                lastEvaluatedKey = new HashMap<>();
+                lastEvaluatedKey.put("user_id", last.get("user_id"));
+                lastEvaluatedKey.put("date_time", last.get("date_time"));
+                break;
+            }
+            items.add(item);
+        }
+        return new QueryResult().withItems(items).withCount(items.size()).withLastEvaluatedKey(lastEvaluatedKey);
+    }
+}
@@ -0,0 +1,146 @@
+package com.mindthekid.geo.cqrs.jmh;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mindthekid.geo.cqrs.commands.BulkCreateEntryHandler;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.geo.cqrs.shared.services.InMemoryLocationStore;
+import com.mindthekid.geo.cqrs.shared.services.LocationReconciler;
+import com.mindthekid.models.UserLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk create, step by step and end to end: parsing the body, enrichment and
+ * reconciliation, {@code lat_long} construction, and {@link BulkCreateEntryHandler} against
+ * an {@link InMemoryLocationStore}.
+ *
+ * The handler runs are the only place validation is measured, since it is private to the
+ * handler; compare them with {@code parseBodyBatch} plus {@code enrichBatch} to see its share.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    @Param({"100", "1000"})
+    public int count;
+
+    private ObjectMapper objectMapper;
+    private List<UserLocation> locations;
+    private String requestBody;
+    private LocationBatch parsed;
+    private BitSet allRows;
+    private LocationReconciler reconciler;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        locations = ResponseSerializationBenchmark.createLocations(count);
+        requestBody = objectMapper.writeValueAsString(locations);
+        parsed = LocationJsonCodec.readBatch(requestBody);
+        allRows = new BitSet(count);
+        allRows.set(0, count);
+        reconciler = LocationReconciler.fromEnvironment();
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyStore {
+        private BulkCreateEntryHandler handler;
+        private APIGatewayProxyRequestEvent request;
+
+        // A 100-point bulk create takes far longer than a per-invocation setup costs
+        @Setup(Level.Invocation)
+        public void reset(IngestBenchmark benchmark) {
+            handler = new BulkCreateEntryHandler(new InMemoryLocationStore());
+            request = new APIGatewayProxyRequestEvent();
+            request.setBody(benchmark.requestBody);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FilledStore {
+        private BulkCreateEntryHandler handler;
+        private APIGatewayProxyRequestEvent request;
+
+        @Setup
+        public void fill(IngestBenchmark benchmark) {
+            handler = new BulkCreateEntryHandler(new InMemoryLocationStore());
+            request = new APIGatewayProxyRequestEvent();
+            request.setBody(benchmark.requestBody);
+            handler.handleRequest(request, null);
+        }
+    }
+
+    @Benchmark
+    public UserLocation[] parseBodyArray() throws Exception {
+        return objectMapper.readValue(requestBody, UserLocation[].class);
+    }
+
+    @Benchmark
+    public LocationBatch parseBodyBatch() throws Exception {
+        return LocationJsonCodec.readBatch(requestBody);
+    }
+
+    // The handler's steps between parsing and the save, on a fresh copy of the parsed rows
+    @Benchmark
+    public LocationBatch enrichBatch() {
+        LocationBatch batch = parsed.select(allRows);
+        batch.stamp(Instant.now());
+        batch.applyDefaults(false, true);
+        return reconciler.reconcile(batch);
+    }
+
+    // As CreateEntryHandler builds it from the bean
+    @Benchmark
+    public void latLongFromBeans(Blackhole blackhole) {
+        for (UserLocation location : locations) {
+            blackhole.consume(location.getLatitude() + "," + location.getLongitude());
+        }
+    }
+
+    @Benchmark
+    public void latLongFromBatch(Blackhole blackhole) {
+        for (int row = 0; row < parsed.size(); row++) {
+            blackhole.consume(parsed.getLatLong(row));
+        }
+    }
+
+    // The context is only used to log failures, and these requests succeed
+    @Benchmark
+    public APIGatewayProxyResponseEvent bulkCreateNew(EmptyStore store) {
+        return store.handler.handleRequest(store.request, null);
+    }
+
+    // Every point is already stored, as when a device re-sends its backlog
+    @Benchmark
+    public APIGatewayProxyResponseEvent bulkCreateReupload(FilledStore store) {
+        return store.handler.handleRequest(store.request, null);
+    }
+}
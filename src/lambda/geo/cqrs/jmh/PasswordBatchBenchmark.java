@@ -0,0 +1,88 @@
+package com.mindthekid.geo.cqrs.jmh;
+
+import com.mindthekid.utils.EncryptionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk provisioning with {@link EncryptionManager}: a serial loop against the fork-join
+ * {@code generateHashes}/{@code verifyHashes}, and salt generation from all cores at once.
+ *
+ * The batch speed-up should approach the core count. The work factor is kept low so a batch
+ * fits in an iteration; the ratio, not the absolute time, is the figure to read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBatchBenchmark {
+
+    private static final String SCHEME = "pbkdf2-sha256";
+
+    @Param({"256"})
+    public int count;
+
+    @Param({"10000"})
+    public int iterations;
+
+    private List<String> userKeys;
+    private List<String> storedHashes;
+
+    @Setup
+    public void setUp() {
+        userKeys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userKeys.add("imported-user-password-" + i);
+        }
+        storedHashes = EncryptionManager.generateHashes(userKeys, SCHEME, iterations);
+    }
+
+    @Benchmark
+    public void generateSerial(Blackhole blackhole) {
+        for (String userKey : userKeys) {
+            blackhole.consume(EncryptionManager.generateHash(userKey, SCHEME, iterations));
+        }
+    }
+
+    @Benchmark
+    public List<String> generateBatch() {
+        return EncryptionManager.generateHashes(userKeys, SCHEME, iterations);
+    }
+
+    @Benchmark
+    public void verifySerial(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(EncryptionManager.verifyHash(userKeys.get(i), storedHashes.get(i)));
+        }
+    }
+
+    @Benchmark
+    public List<Boolean> verifyBatch() {
+        return EncryptionManager.verifyHashes(userKeys, storedHashes);
+    }
+
+    // Every thread draws from its own generator, so this should scale with the thread count
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String secureKeyAllThreads() {
+        return EncryptionManager.generateSecureKey(32);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mindthekid.geo.cqrs.jmh;
+
+import com.mindthekid.utils.EncryptionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EncryptionManager} hashing per scheme and work factor, for choosing
+ * {@code PASSWORD_HASH_SCHEME} and {@code PASSWORD_HASH_ITERATIONS} against the sign-in
+ * latency budget. Verification costs the same as generation apart from the salt, and is the
+ * figure that lands on every sign-in; run on the instance type that serves it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private static final String USER_KEY = "correct horse battery staple";
+
+    @Param({"pbkdf2-sha256", "pbkdf2-sha512"})
+    public String scheme;
+
+    @Param({"100000", "310000", "600000"})
+    public int iterations;
+
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        storedHash = EncryptionManager.generateHash(USER_KEY, scheme, iterations);
+    }
+
+    @Benchmark
+    public String generateHash() {
+        return EncryptionManager.generateHash(USER_KEY, scheme, iterations);
+    }
+
+    @Benchmark
+    public boolean verifyHash() {
+        return EncryptionManager.verifyHash(USER_KEY, storedHash);
+    }
+}
@@ -0,0 +1,127 @@
+package com.mindthekid.geo.cqrs.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.models.UserLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk retrieve response and bulk create body: databind versus {@link LocationJsonCodec}.
+ *
+ * The databind baseline is configured with the JSR-310 module and ISO dates so that both
+ * sides produce the same JSON; the handlers' plain {@code ObjectMapper} cannot serialize
+ * the {@code Instant} fields at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1", "100", "1000", "10000"})
+    public int count;
+
+    private ObjectMapper objectMapper;
+    private List<UserLocation> locations;
+    private ApiResponse<Map<String, Object>> response;
+    private String requestBody;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        locations = createLocations(count);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", locations.size());
+        data.put("locations", locations);
+        response = ApiResponse.success("Successfully retrieved " + count + " user locations", data);
+        requestBody = objectMapper.writeValueAsString(locations);
+    }
+
+    @Benchmark
+    public String writeResponseDatabind() throws Exception {
+        return objectMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public String writeResponseCodec() throws Exception {
+        return LocationJsonCodec.writeLocationsResponse(response.getMessage(), locations, null);
+    }
+
+    @Benchmark
+    public UserLocation[] readBodyDatabind() throws Exception {
+        return objectMapper.readValue(requestBody, UserLocation[].class);
+    }
+
+    @Benchmark
+    public List<UserLocation> readBodyCodec() throws Exception {
+        return LocationJsonCodec.readLocations(requestBody);
+    }
+
+    // First response in a fresh JVM, which is what a cold Lambda invocation pays
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public String firstResponseDatabind() throws Exception {
+        ObjectMapper coldMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return coldMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public String firstResponseCodec() throws Exception {
+        return LocationJsonCodec.writeLocationsResponse(response.getMessage(), locations, null);
+    }
+
+    static List<UserLocation> createLocations(int count) {
+        List<UserLocation> locations = new ArrayList<>(count);
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < count; i++) {
+            Instant at = start.plusSeconds(i * 30L);
+            UserLocation location = new UserLocation();
+            location.setUserId("user-" + (i % 10));
+            location.setDateTime(at.toString());
+            location.setLatitude(51.5 + i * 0.0001);
+            location.setLongitude(-0.12 - i * 0.0001);
+            location.setIsPrivate(i % 7 == 0);
+            location.setIsReal(true);
+            location.setLatLong(location.getLatitude() + "," + location.getLongitude());
+            location.setCreatedAt(at);
+            location.setUpdatedAt(at);
+            locations.add(location);
+        }
+        return locations;
+    }
+}
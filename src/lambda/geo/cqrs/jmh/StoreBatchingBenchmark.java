@@ -0,0 +1,107 @@
+package com.mindthekid.geo.cqrs.jmh;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.InMemoryLocationStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk save and paged query through {@link DynamoDBService} and {@link InMemoryLocationStore}.
+ *
+ * {@code DynamoDBService} runs against {@link InMemoryDynamoDB}, so the figures cover its
+ * BatchGetItem/BatchWriteItem chunking and attribute-map conversion but no network. Saves
+ * start from an empty table on every invocation; re-uploads and queries use a filled one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StoreBatchingBenchmark {
+
+    private static final String TABLE_NAME = "user_locations";
+
+    @Param({"100", "1000"})
+    public int count;
+
+    private LocationBatch batch;
+
+    @Setup
+    public void setUp() {
+        batch = LocationBatch.of(ResponseSerializationBenchmark.createLocations(count));
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyStores {
+        private final InMemoryDynamoDB dynamoDB = new InMemoryDynamoDB();
+        private final DynamoDBService dynamoDBService = new DynamoDBService(dynamoDB, TABLE_NAME);
+        private InMemoryLocationStore inMemoryStore;
+
+        // A save takes far longer than a per-invocation setup costs at these sizes
+        @Setup(Level.Invocation)
+        public void reset() {
+            dynamoDB.clear();
+            inMemoryStore = new InMemoryLocationStore();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FilledStores {
+        private final InMemoryDynamoDB dynamoDB = new InMemoryDynamoDB();
+        private final DynamoDBService dynamoDBService = new DynamoDBService(dynamoDB, TABLE_NAME);
+        private final InMemoryLocationStore inMemoryStore = new InMemoryLocationStore();
+
+        @Setup
+        public void fill(StoreBatchingBenchmark benchmark) {
+            dynamoDBService.bulkSaveNewLocations(benchmark.batch);
+            inMemoryStore.bulkSaveNewLocations(benchmark.batch);
+        }
+    }
+
+    @Benchmark
+    public LocationBatch bulkSaveNewDynamoDBService(EmptyStores stores) {
+        return stores.dynamoDBService.bulkSaveNewLocations(batch);
+    }
+
+    @Benchmark
+    public LocationBatch bulkSaveNewInMemory(EmptyStores stores) {
+        return stores.inMemoryStore.bulkSaveNewLocations(batch);
+    }
+
+    // Every key already exists: only the BatchGetItem filtering runs
+    @Benchmark
+    public LocationBatch bulkSaveReuploadDynamoDBService(FilledStores stores) {
+        return stores.dynamoDBService.bulkSaveNewLocations(batch);
+    }
+
+    @Benchmark
+    public LocationBatch bulkSaveReuploadInMemory(FilledStores stores) {
+        return stores.inMemoryStore.bulkSaveNewLocations(batch);
+    }
+
+    // createLocations spreads the points over ten users
+    @Benchmark
+    public void queryPagesDynamoDBService(FilledStores stores, Blackhole blackhole) throws Exception {
+        stores.dynamoDBService.forEachLocationPage("user-0", null, null, null, page -> blackhole.consume(page.size()));
+    }
+
+    @Benchmark
+    public void queryPagesInMemory(FilledStores stores, Blackhole blackhole) throws Exception {
+        stores.inMemoryStore.forEachLocationPage("user-0", null, null, null, page -> blackhole.consume(page.size()));
+    }
+}
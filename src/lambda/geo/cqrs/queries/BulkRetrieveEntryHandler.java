@@ -4,26 +4,60 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mindthekid.models.UserLocation;
 import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
 import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.LocationResponseWriter;
+import com.mindthekid.geo.cqrs.shared.dto.RangeVersion;
+import com.mindthekid.utils.ETags;
+import com.mindthekid.utils.TimeKeys;
 
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class BulkRetrieveEntryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     
-    private final DynamoDBService dynamoDBService;
-    private final ObjectMapper objectMapper;
+    // Clients may keep the response but must revalidate it with If-None-Match
+    private static final String CACHE_CONTROL = "private, no-cache";
+    
+    // Response bodies are encoded into a per-thread buffer that is reused across invocations
+    // of a warm container; one that grew past this is dropped rather than kept
+    private static final int MAX_RETAINED_BUFFER_BYTES = 1 << 20;
+    private static final ThreadLocal<ByteArrayOutputStream> RESPONSE_BUFFER =
+        ThreadLocal.withInitial(() -> new ByteArrayOutputStream(8192));
+    
+    private final LocationStore locationStore;
     
     public BulkRetrieveEntryHandler() {
-        this.dynamoDBService = new DynamoDBService();
-        this.objectMapper = new ObjectMapper();
+        this(new DynamoDBService());
+    }
+    
+    public BulkRetrieveEntryHandler(LocationStore locationStore) {
+        this.locationStore = locationStore;
     }
     
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        return handleRequest(request, context, null);
+    }
+    
+    /**
+     * With a body sink (Lambda response streaming), a successful response's status and headers
+     * go to the sink and the locations are written to the stream it opens, and null is returned.
+     * Headers precede the body there, so the tag comes from the store's range version up front.
+     * Errors and 304s are returned as usual.
+     */
+    APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context, BodySink sink) {
+        boolean streaming = false;
         try {
             Map<String, String> pathParameters = request.getPathParameters();
             Map<String, String> queryParameters = request.getQueryStringParameters();
@@ -53,60 +87,137 @@ public class BulkRetrieveEntryHandler implements RequestHandler<APIGatewayProxyR
                 return createErrorResponse("Unauthorized access to user location data", 403);
             }
             
-            List<UserLocation> userLocations;
+            // Optional sparse field selection (e.g. fields=dateTime,latitude,longitude)
+            Set<LocationField> fields;
+            try {
+                fields = LocationField.parse(queryParameters != null ? queryParameters.get("fields") : null);
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse("Invalid fields parameter: " + e.getMessage(), 400);
+            }
             
-            // Check if we're retrieving all entries or by time range
-            if (queryParameters != null && 
-                (queryParameters.containsKey("startTime") || queryParameters.containsKey("endTime"))) {
-                
-                String startTime = queryParameters.get("startTime");
-                String endTime = queryParameters.get("endTime");
+            String startTime = queryParameters != null ? queryParameters.get("startTime") : null;
+            String endTime = queryParameters != null ? queryParameters.get("endTime") : null;
+            
+            try {
+                startTime = startTime != null ? TimeKeys.normalize(startTime) : null;
+                endTime = endTime != null ? TimeKeys.normalize(endTime) : null;
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse("startTime and endTime must be ISO-8601 timestamps or epoch milliseconds", 400);
+            }
+            
+            // Conditional GET: compare the client's tag with the range version before reading the locations
+            String etag = null;
+            String ifNoneMatch = getHeader(request, "If-None-Match");
+            if (ifNoneMatch != null) {
+                etag = createETag(userId, startTime, endTime, fields, locationStore.getRangeVersion(userId, startTime, endTime));
                 
-                if (startTime != null && endTime != null) {
-                    // Retrieve by time range
-                    userLocations = dynamoDBService.getUserLocationsByTimeRange(userId, startTime, endTime);
-                } else if (startTime != null) {
-                    // Retrieve from start time onwards
-                    userLocations = dynamoDBService.getUserLocationsFromTime(userId, startTime);
-                } else if (endTime != null) {
-                    // Retrieve up to end time
-                    userLocations = dynamoDBService.getUserLocationsUpToTime(userId, endTime);
-                } else {
-                    return createErrorResponse("Invalid time range parameters", 400);
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return new APIGatewayProxyResponseEvent()
+                            .withStatusCode(304)
+                            .withHeaders(Map.of("ETag", etag, "Cache-Control", CACHE_CONTROL));
                 }
-            } else {
-                // Retrieve all entries for the user
-                userLocations = dynamoDBService.getAllUserLocations(userId);
             }
             
-            // Return success response
-            Map<String, Object> responseData = Map.of(
-                "count", userLocations.size(),
-                "locations", userLocations
-            );
-            
-            ApiResponse<Map<String, Object>> response = ApiResponse.success(
-                "Successfully retrieved " + userLocations.size() + " user locations", 
-                responseData
-            );
+            boolean timeRangeRequested = queryParameters != null &&
+                (queryParameters.containsKey("startTime") || queryParameters.containsKey("endTime"));
+            if (timeRangeRequested && startTime == null && endTime == null) {
+                return createErrorResponse("Invalid time range parameters", 400);
+            }
             
-            String responseBody = objectMapper.writeValueAsString(response);
+            if (sink != null) {
+                if (etag == null) {
+                    etag = createETag(userId, startTime, endTime, fields, locationStore.getRangeVersion(userId, startTime, endTime));
+                }
+                streaming = true;
+                OutputStream body = sink.open(200, Map.of("Content-Type", "application/json", "ETag", etag, "Cache-Control", CACHE_CONTROL));
+                writeLocations(userId, startTime, endTime, fields, body);
+                return null;
+            }
             
-            return new APIGatewayProxyResponseEvent()
-                    .withStatusCode(200)
-                    .withBody(responseBody)
-                    .withHeaders(Map.of("Content-Type", "application/json"));
+            ByteArrayOutputStream buffer = RESPONSE_BUFFER.get();
+            buffer.reset();
+            try {
+                RangeVersion written = writeLocations(userId, startTime, endTime, fields, buffer);
+                
+                if (etag == null) {
+                    // Full records carry updated_at, so the rows just written give the version; projections may omit it
+                    etag = createETag(userId, startTime, endTime, fields,
+                        fields == null ? written : locationStore.getRangeVersion(userId, startTime, endTime));
+                }
+                
+                return new APIGatewayProxyResponseEvent()
+                        .withStatusCode(200)
+                        .withBody(buffer.toString(StandardCharsets.UTF_8))
+                        .withHeaders(Map.of("Content-Type", "application/json", "ETag", etag, "Cache-Control", CACHE_CONTROL));
+            } finally {
+                if (buffer.size() > MAX_RETAINED_BUFFER_BYTES) {
+                    RESPONSE_BUFFER.remove();
+                }
+            }
                     
         } catch (Exception e) {
             context.getLogger().log("Error bulk retrieving user locations: " + e.getMessage());
+            if (streaming) {
+                // Status and headers are already out; fail the invocation rather than start a second response
+                throw new IllegalStateException("Error streaming user locations", e);
+            }
             return createErrorResponse("Internal server error: " + e.getMessage(), 500);
         }
     }
     
+    /**
+     * Streams every page of the range through a {@link LocationResponseWriter}. Pages are
+     * written as DynamoDB returns them, so only one page of locations is held at a time.
+     *
+     * @return The count and newest updated_at of the rows written, the same summary the store's
+     *         {@link LocationStore#getRangeVersion} gives for the range
+     */
+    private RangeVersion writeLocations(String userId, String startTime, String endTime, Set<LocationField> fields,
+                                        OutputStream out) throws IOException {
+        long[] latestUpdatedAt = {LocationBatch.NO_TIME};
+        try (LocationResponseWriter writer = new LocationResponseWriter(out, fields)) {
+            locationStore.forEachLocationPage(userId, startTime, endTime, fields, page -> {
+                writer.writePage(page);
+                for (int row = 0; row < page.size(); row++) {
+                    latestUpdatedAt[0] = Math.max(latestUpdatedAt[0], page.getUpdatedAtNanos(row));
+                }
+            });
+            writer.finish("Successfully retrieved " + writer.getCount() + " user locations");
+            return new RangeVersion(writer.getCount(), LocationBatch.toInstant(latestUpdatedAt[0]));
+        }
+    }
+    
+    /**
+     * Version tag for a user's range: its item count and newest updated_at, plus the request
+     * shape. Any insert, update or delete in the range changes the tag, including late or
+     * out-of-order points older than the newest one.
+     */
+    private String createETag(String userId, String startTime, String endTime, Set<LocationField> fields, RangeVersion version) {
+        String selection = fields == null ? null
+            : fields.stream().map(LocationField::name).collect(Collectors.joining(","));
+        Instant latestUpdatedAt = version.getLatestUpdatedAt();
+        
+        return ETags.weak(userId, startTime, endTime, selection, Long.toString(version.getCount()),
+            latestUpdatedAt != null ? latestUpdatedAt.toString() : null);
+    }
+    
+    private String getHeader(APIGatewayProxyRequestEvent request, String name) {
+        Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+    
     private APIGatewayProxyResponseEvent createErrorResponse(String message, int statusCode) {
         try {
             ApiResponse<String> errorResponse = ApiResponse.error(message);
-            String responseBody = objectMapper.writeValueAsString(errorResponse);
+            String responseBody = LocationJsonCodec.writeResponse(errorResponse);
             
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(statusCode)
@@ -119,4 +230,9 @@ public class BulkRetrieveEntryHandler implements RequestHandler<APIGatewayProxyR
                     .withHeaders(Map.of("Content-Type", "application/json"));
         }
     }
-} 
\ No newline at end of file
+    
+    // Where a streamed response goes: takes the status and headers, returns the body stream
+    interface BodySink {
+        OutputStream open(int statusCode, Map<String, String> headers) throws IOException;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.mindthekid.geo.cqrs.queries;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.utils.Codecs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Bulk retrieve for Lambda response streaming (InvokeWithResponseStream behind a streaming
+ * API Gateway integration or function URL).
+ *
+ * The event is the proxy request {@link BulkRetrieveEntryHandler} receives, and the same
+ * validation and caching rules apply. The response uses the HTTP integration format: a JSON
+ * prelude with the status code and headers, eight NUL bytes, then the body. Locations are
+ * flushed page by page as DynamoDB returns them.
+ */
+public class BulkRetrieveStreamHandler implements RequestStreamHandler {
+
+    private static final byte[] PRELUDE_DELIMITER = new byte[8];
+
+    // Proxy events carry properties the event classes don't model
+    private static final ObjectReader EVENT_READER = Codecs.reader(APIGatewayProxyRequestEvent.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final BulkRetrieveEntryHandler handler;
+
+    public BulkRetrieveStreamHandler() {
+        this.handler = new BulkRetrieveEntryHandler();
+    }
+
+    @Override
+    public void handleRequest(InputStream input, OutputStream output, Context context) throws IOException {
+        APIGatewayProxyRequestEvent request = EVENT_READER.readValue(input);
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(request, context, (statusCode, headers) -> {
+            writePrelude(output, statusCode, headers);
+            return output;
+        });
+
+        // Errors and 304s are not streamed; send them whole
+        if (response != null) {
+            writePrelude(output, response.getStatusCode(), response.getHeaders());
+            if (response.getBody() != null) {
+                output.write(response.getBody().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        output.flush();
+    }
+
+    private static void writePrelude(OutputStream output, int statusCode, Map<String, String> headers) throws IOException {
+        try (JsonGenerator generator = LocationJsonCodec.getJsonFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeNumberField("statusCode", statusCode);
+            if (headers != null) {
+                generator.writeObjectFieldStart("headers");
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    generator.writeStringField(header.getKey(), header.getValue());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        output.write(PRELUDE_DELIMITER);
+    }
+}
@@ -4,21 +4,25 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindthekid.models.UserLocation;
 import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
 import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.utils.TimeKeys;
 
 import java.util.Map;
 
 public class RetrieveEntryHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
     
-    private final DynamoDBService dynamoDBService;
-    private final ObjectMapper objectMapper;
+    private final LocationStore locationStore;
     
     public RetrieveEntryHandler() {
-        this.dynamoDBService = new DynamoDBService();
-        this.objectMapper = new ObjectMapper();
+        this(new DynamoDBService());
+    }
+    
+    public RetrieveEntryHandler(LocationStore locationStore) {
+        this.locationStore = locationStore;
     }
     
     @Override
@@ -42,6 +46,12 @@ public class RetrieveEntryHandler implements RequestHandler<APIGatewayProxyReque
                 return createErrorResponse("date_time is required in path", 400);
             }
             
+            try {
+                dateTime = TimeKeys.normalize(dateTime);
+            } catch (IllegalArgumentException e) {
+                return createErrorResponse("date_time must be an ISO-8601 timestamp or epoch milliseconds", 400);
+            }
+            
             // Get the requesting user ID from authorizer context
             String requestingUserId = null;
             if (authorizerContext != null) {
@@ -58,7 +68,7 @@ public class RetrieveEntryHandler implements RequestHandler<APIGatewayProxyReque
             }
             
             // Retrieve the specific user location
-            UserLocation userLocation = dynamoDBService.getUserLocation(userId, dateTime);
+            UserLocation userLocation = locationStore.getUserLocation(userId, dateTime);
             
             if (userLocation == null) {
                 return createErrorResponse("User location not found", 404);
@@ -66,7 +76,7 @@ public class RetrieveEntryHandler implements RequestHandler<APIGatewayProxyReque
             
             // Return success response
             ApiResponse<UserLocation> response = ApiResponse.success("User location retrieved successfully", userLocation);
-            String responseBody = objectMapper.writeValueAsString(response);
+            String responseBody = LocationJsonCodec.writeResponse(response);
             
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(200)
@@ -82,7 +92,7 @@ public class RetrieveEntryHandler implements RequestHandler<APIGatewayProxyReque
     private APIGatewayProxyResponseEvent createErrorResponse(String message, int statusCode) {
         try {
             ApiResponse<String> errorResponse = ApiResponse.error(message);
-            String responseBody = objectMapper.writeValueAsString(errorResponse);
+            String responseBody = LocationJsonCodec.writeResponse(errorResponse);
             
             return new APIGatewayProxyResponseEvent()
                     .withStatusCode(statusCode)
@@ -0,0 +1,376 @@
+package com.mindthekid.geo.cqrs.shared.dto;
+
+import com.mindthekid.models.UserLocation;
+import com.mindthekid.utils.TimeKeys;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar, mostly primitive storage for many {@link UserLocation}s.
+ *
+ * A list of {@code UserLocation}s costs about eight objects per point (the bean, boxed
+ * coordinates and flags, the key string and two {@code Instant}s). A batch keeps each
+ * attribute in a parallel array instead: {@code date_time} as epoch milliseconds,
+ * coordinates as {@code double}s ({@code NaN} when absent), flags as bit sets and
+ * {@code created_at}/{@code updated_at} as epoch nanoseconds. User ids are interned
+ * into a per-batch dictionary, so a single-user batch holds one string.
+ *
+ * Bulk handlers parse into a batch, pass it through reconciliation and
+ * {@code DynamoDBService}, and serialize it directly; {@link #toUserLocation(int)} and
+ * {@link #of(Collection)} exist for the edges that still work with beans. {@code lat_long}
+ * is not stored: it is derived from the coordinates, as the create handlers do.
+ *
+ * Batches are not thread-safe.
+ */
+public final class LocationBatch {
+
+    /** Marks an absent {@code date_time} or instant */
+    public static final long NO_TIME = Long.MIN_VALUE;
+    /** Marks a {@code date_time} that was present but could not be parsed */
+    public static final long INVALID_TIME = Long.MIN_VALUE + 1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final List<String> userDictionary = new ArrayList<>();
+    private final Map<String, Integer> userRefsById = new HashMap<>();
+
+    private int size;
+    private int[] userRefs;
+    private long[] dateTimes;
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] createdAts;
+    private long[] updatedAts;
+    private final BitSet privatePresent = new BitSet();
+    private final BitSet privateValues = new BitSet();
+    private final BitSet realPresent = new BitSet();
+    private final BitSet realValues = new BitSet();
+
+    public LocationBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LocationBatch(int capacity) {
+        int initial = Math.max(capacity, 1);
+        userRefs = new int[initial];
+        dateTimes = new long[initial];
+        latitudes = new double[initial];
+        longitudes = new double[initial];
+        createdAts = new long[initial];
+        updatedAts = new long[initial];
+    }
+
+    /**
+     * Copies beans into a new batch. Unparseable {@code date_time} values are kept as
+     * {@link #INVALID_TIME} so callers can still report them.
+     */
+    public static LocationBatch of(Collection<UserLocation> locations) {
+        LocationBatch batch = new LocationBatch(locations.size());
+        for (UserLocation location : locations) {
+            int row = batch.add(location.getUserId(), parseDateTime(location.getDateTime()));
+            if (location.getLatitude() != null) {
+                batch.latitudes[row] = location.getLatitude();
+            }
+            if (location.getLongitude() != null) {
+                batch.longitudes[row] = location.getLongitude();
+            }
+            batch.setPrivate(row, location.getIsPrivate());
+            batch.setReal(row, location.getIsReal());
+            batch.setCreatedAt(row, location.getCreatedAt());
+            batch.setUpdatedAt(row, location.getUpdatedAt());
+        }
+        return batch;
+    }
+
+    /**
+     * Parses a client {@code date_time} the way the create handlers validate it.
+     *
+     * @return Epoch milliseconds, {@link #NO_TIME} for a null or blank value, or {@link #INVALID_TIME}
+     */
+    public static long parseDateTime(String dateTime) {
+        if (dateTime == null || dateTime.trim().isEmpty()) {
+            return NO_TIME;
+        }
+        try {
+            return TimeKeys.parseEpochMillis(dateTime);
+        } catch (IllegalArgumentException e) {
+            return INVALID_TIME;
+        }
+    }
+
+    /**
+     * Appends a row with no coordinates, flags or timestamps.
+     *
+     * @return The new row's index
+     */
+    public int add(String userId, long dateTimeMillis) {
+        if (size == dateTimes.length) {
+            grow();
+        }
+        int row = size++;
+        userRefs[row] = internUserId(userId);
+        dateTimes[row] = dateTimeMillis;
+        latitudes[row] = Double.NaN;
+        longitudes[row] = Double.NaN;
+        createdAts[row] = NO_TIME;
+        updatedAts[row] = NO_TIME;
+        return row;
+    }
+
+    /**
+     * Removes all rows but keeps the arrays, so one batch can be refilled page after page.
+     */
+    public void clear() {
+        size = 0;
+        userDictionary.clear();
+        userRefsById.clear();
+        privatePresent.clear();
+        privateValues.clear();
+        realPresent.clear();
+        realValues.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getUserId(int row) {
+        int ref = userRefs[checkRow(row)];
+        return ref < 0 ? null : userDictionary.get(ref);
+    }
+
+    /**
+     * Returns an id shared by all rows of the same user within this batch, or -1 for a null user id.
+     */
+    public int getUserRef(int row) {
+        return userRefs[checkRow(row)];
+    }
+
+    public long getDateTimeMillis(int row) {
+        return dateTimes[checkRow(row)];
+    }
+
+    public boolean hasValidDateTime(int row) {
+        long dateTime = getDateTimeMillis(row);
+        return dateTime != NO_TIME && dateTime != INVALID_TIME;
+    }
+
+    /**
+     * Returns the canonical {@code date_time} key, or null when it is absent or invalid.
+     */
+    public String getDateTime(int row) {
+        return hasValidDateTime(row) ? TimeKeys.format(dateTimes[row]) : null;
+    }
+
+    public boolean hasLatitude(int row) {
+        return !Double.isNaN(latitudes[checkRow(row)]);
+    }
+
+    public double getLatitude(int row) {
+        return latitudes[checkRow(row)];
+    }
+
+    public void setLatitude(int row, double latitude) {
+        latitudes[checkRow(row)] = latitude;
+    }
+
+    public boolean hasLongitude(int row) {
+        return !Double.isNaN(longitudes[checkRow(row)]);
+    }
+
+    public double getLongitude(int row) {
+        return longitudes[checkRow(row)];
+    }
+
+    public void setLongitude(int row, double longitude) {
+        longitudes[checkRow(row)] = longitude;
+    }
+
+    /**
+     * Returns {@code latitude,longitude} when both are present, as stored in the {@code lat_long} index.
+     */
+    public String getLatLong(int row) {
+        return hasLatitude(row) && hasLongitude(row) ? latitudes[row] + "," + longitudes[row] : null;
+    }
+
+    public Boolean getIsPrivate(int row) {
+        return privatePresent.get(checkRow(row)) ? Boolean.valueOf(privateValues.get(row)) : null;
+    }
+
+    public void setPrivate(int row, Boolean isPrivate) {
+        setFlag(privatePresent, privateValues, checkRow(row), isPrivate);
+    }
+
+    public Boolean getIsReal(int row) {
+        return realPresent.get(checkRow(row)) ? Boolean.valueOf(realValues.get(row)) : null;
+    }
+
+    public void setReal(int row, Boolean isReal) {
+        setFlag(realPresent, realValues, checkRow(row), isReal);
+    }
+
+    /**
+     * Returns {@code created_at} as epoch nanoseconds, or {@link #NO_TIME}.
+     */
+    public long getCreatedAtNanos(int row) {
+        return createdAts[checkRow(row)];
+    }
+
+    public Instant getCreatedAt(int row) {
+        return toInstant(getCreatedAtNanos(row));
+    }
+
+    public void setCreatedAt(int row, Instant createdAt) {
+        createdAts[checkRow(row)] = toNanos(createdAt);
+    }
+
+    /**
+     * Returns {@code updated_at} as epoch nanoseconds, or {@link #NO_TIME}.
+     */
+    public long getUpdatedAtNanos(int row) {
+        return updatedAts[checkRow(row)];
+    }
+
+    public Instant getUpdatedAt(int row) {
+        return toInstant(getUpdatedAtNanos(row));
+    }
+
+    public void setUpdatedAt(int row, Instant updatedAt) {
+        updatedAts[checkRow(row)] = toNanos(updatedAt);
+    }
+
+    /**
+     * Sets {@code created_at} and {@code updated_at} of every row.
+     */
+    public void stamp(Instant now) {
+        long nanos = toNanos(now);
+        Arrays.fill(createdAts, 0, size, nanos);
+        Arrays.fill(updatedAts, 0, size, nanos);
+    }
+
+    /**
+     * Fills in {@code is_private} and {@code is_real} on rows that do not specify them.
+     */
+    public void applyDefaults(boolean isPrivate, boolean isReal) {
+        for (int row = privatePresent.nextClearBit(0); row < size; row = privatePresent.nextClearBit(row + 1)) {
+            setFlag(privatePresent, privateValues, row, isPrivate);
+        }
+        for (int row = realPresent.nextClearBit(0); row < size; row = realPresent.nextClearBit(row + 1)) {
+            setFlag(realPresent, realValues, row, isReal);
+        }
+    }
+
+    /**
+     * Copies the selected rows, in row order, into a new batch.
+     */
+    public LocationBatch select(BitSet rows) {
+        LocationBatch selected = new LocationBatch(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0 && row < size; row = rows.nextSetBit(row + 1)) {
+            int target = selected.add(getUserId(row), dateTimes[row]);
+            selected.latitudes[target] = latitudes[row];
+            selected.longitudes[target] = longitudes[row];
+            selected.createdAts[target] = createdAts[row];
+            selected.updatedAts[target] = updatedAts[row];
+            copyFlag(privatePresent, privateValues, row, selected.privatePresent, selected.privateValues, target);
+            copyFlag(realPresent, realValues, row, selected.realPresent, selected.realValues, target);
+        }
+        return selected;
+    }
+
+    public UserLocation toUserLocation(int row) {
+        UserLocation location = new UserLocation();
+        location.setUserId(getUserId(row));
+        location.setDateTime(getDateTime(row));
+        location.setLatitude(hasLatitude(row) ? latitudes[row] : null);
+        location.setLongitude(hasLongitude(row) ? longitudes[row] : null);
+        location.setIsPrivate(getIsPrivate(row));
+        location.setIsReal(getIsReal(row));
+        location.setLatLong(getLatLong(row));
+        location.setCreatedAt(getCreatedAt(row));
+        location.setUpdatedAt(getUpdatedAt(row));
+        return location;
+    }
+
+    public List<UserLocation> toUserLocations() {
+        List<UserLocation> locations = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            locations.add(toUserLocation(row));
+        }
+        return locations;
+    }
+
+    /**
+     * Converts an instant to epoch nanoseconds (covers the years 1677 to 2262).
+     *
+     * @return Epoch nanoseconds, or {@link #NO_TIME} for null
+     */
+    public static long toNanos(Instant instant) {
+        if (instant == null) {
+            return NO_TIME;
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Instant out of supported range: " + instant, e);
+        }
+    }
+
+    public static Instant toInstant(long epochNanos) {
+        if (epochNanos == NO_TIME) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND), Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    }
+
+    private int internUserId(String userId) {
+        if (userId == null) {
+            return -1;
+        }
+        Integer ref = userRefsById.get(userId);
+        if (ref == null) {
+            ref = userDictionary.size();
+            userDictionary.add(userId);
+            userRefsById.put(userId, ref);
+        }
+        return ref;
+    }
+
+    private void grow() {
+        int capacity = dateTimes.length * 2;
+        userRefs = Arrays.copyOf(userRefs, capacity);
+        dateTimes = Arrays.copyOf(dateTimes, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        createdAts = Arrays.copyOf(createdAts, capacity);
+        updatedAts = Arrays.copyOf(updatedAts, capacity);
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for batch of " + size);
+        }
+        return row;
+    }
+
+    private static void setFlag(BitSet present, BitSet values, int row, Boolean value) {
+        present.set(row, value != null);
+        values.set(row, value != null && value);
+    }
+
+    private static void copyFlag(BitSet present, BitSet values, int row, BitSet targetPresent, BitSet targetValues, int target) {
+        targetPresent.set(target, present.get(row));
+        targetValues.set(target, values.get(row));
+    }
+}
@@ -0,0 +1,123 @@
+package com.mindthekid.geo.cqrs.shared.dto;
+
+import com.mindthekid.models.UserLocation;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Selectable {@link UserLocation} fields for sparse responses ({@code fields=} query parameter).
+ *
+ * Each field knows its JSON property name and its DynamoDB attribute name, so the same
+ * selection drives both the query ProjectionExpression and the serialized response.
+ */
+public enum LocationField {
+    
+    USER_ID("userId", "user_id", UserLocation::getUserId),
+    DATE_TIME("dateTime", "date_time", UserLocation::getDateTime),
+    LATITUDE("latitude", "latitude", UserLocation::getLatitude),
+    LONGITUDE("longitude", "longitude", UserLocation::getLongitude),
+    IS_PRIVATE("isPrivate", "is_private", UserLocation::getIsPrivate),
+    IS_REAL("isReal", "is_real", UserLocation::getIsReal),
+    LAT_LONG("latLong", "lat_long", UserLocation::getLatLong),
+    CREATED_AT("createdAt", "created_at", location -> toIsoString(location.getCreatedAt())),
+    UPDATED_AT("updatedAt", "updated_at", location -> toIsoString(location.getUpdatedAt()));
+    
+    /** Fields available from the narrow {@code user_track_index} GSI */
+    public static final Set<LocationField> TRACK_INDEX_FIELDS =
+        Collections.unmodifiableSet(EnumSet.of(USER_ID, DATE_TIME, LATITUDE, LONGITUDE));
+    
+    private final String jsonName;
+    private final String attributeName;
+    private final Function<UserLocation, Object> accessor;
+    
+    LocationField(String jsonName, String attributeName, Function<UserLocation, Object> accessor) {
+        this.jsonName = jsonName;
+        this.attributeName = attributeName;
+        this.accessor = accessor;
+    }
+    
+    public String getJsonName() {
+        return jsonName;
+    }
+    
+    public String getAttributeName() {
+        return attributeName;
+    }
+    
+    public Object valueOf(UserLocation location) {
+        return accessor.apply(location);
+    }
+    
+    /**
+     * Parses a comma-separated field list. Both JSON names ({@code dateTime}) and attribute
+     * names ({@code date_time}) are accepted.
+     *
+     * @return The selected fields, or null when no selection was requested
+     * @throws IllegalArgumentException if a field name is unknown
+     */
+    public static Set<LocationField> parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        
+        Set<LocationField> selected = EnumSet.noneOf(LocationField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(fromName(trimmed));
+        }
+        
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return selected;
+    }
+    
+    /**
+     * Builds the DynamoDB ProjectionExpression for the selection, registering a
+     * placeholder per attribute so reserved words never need special casing.
+     */
+    public static String projectionExpression(Set<LocationField> fields, Map<String, String> expressionAttributeNames) {
+        StringBuilder expression = new StringBuilder();
+        for (LocationField field : fields) {
+            String placeholder = "#" + field.attributeName;
+            expressionAttributeNames.put(placeholder, field.attributeName);
+            if (expression.length() > 0) {
+                expression.append(", ");
+            }
+            expression.append(placeholder);
+        }
+        return expression.toString();
+    }
+    
+    /**
+     * Copies only the selected fields into a JSON-ready map, in declaration order.
+     */
+    public static Map<String, Object> project(UserLocation location, Set<LocationField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (LocationField field : fields) {
+            projected.put(field.jsonName, field.valueOf(location));
+        }
+        return projected;
+    }
+    
+    private static LocationField fromName(String name) {
+        for (LocationField field : values()) {
+            if (field.jsonName.equals(name) || field.attributeName.equals(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+    
+    private static Object toIsoString(Object instant) {
+        return instant != null ? instant.toString() : null;
+    }
+}
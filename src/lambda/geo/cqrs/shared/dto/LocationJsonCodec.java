@@ -0,0 +1,551 @@
+package com.mindthekid.geo.cqrs.shared.dto;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.mindthekid.models.UserLocation;
+import com.mindthekid.utils.TimeKeys;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reflection-free JSON for {@link UserLocation} and {@link ApiResponse}, written directly
+ * against the jackson-core streaming API.
+ *
+ * Property names and order match what databind produces for these classes, with two
+ * differences: {@code Instant} values are written as ISO-8601 strings (plain databind
+ * cannot serialize them without the JSR-310 module), and unknown properties are rejected
+ * with a parse error instead of a mapping error. Response {@code data} may be a
+ * {@link UserLocation}, a {@link LocationBatch}, a map, a collection, a string, a number,
+ * a boolean or an {@code Instant}; anything else is rejected rather than introspected.
+ */
+public final class LocationJsonCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Pre-quoted property names, as databind uses for bean properties
+    private static final SerializedString USER_ID = new SerializedString("userId");
+    private static final SerializedString DATE_TIME = new SerializedString("dateTime");
+    private static final SerializedString LATITUDE = new SerializedString("latitude");
+    private static final SerializedString LONGITUDE = new SerializedString("longitude");
+    private static final SerializedString IS_PRIVATE = new SerializedString("isPrivate");
+    private static final SerializedString IS_REAL = new SerializedString("isReal");
+    private static final SerializedString LAT_LONG = new SerializedString("latLong");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+
+    private LocationJsonCodec() {}
+
+    public static JsonFactory getJsonFactory() {
+        return JSON_FACTORY;
+    }
+
+    public static UserLocation readLocation(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            UserLocation location = readLocation(parser, parser.nextToken());
+            expectEnd(parser);
+            return location;
+        }
+    }
+
+    /**
+     * Reads a JSON array of locations, e.g. a bulk create body.
+     */
+    public static List<UserLocation> readLocations(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                expectEnd(parser);
+                return null;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of user locations");
+            }
+            List<UserLocation> locations = new ArrayList<>();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                locations.add(readLocation(parser, token));
+            }
+            expectEnd(parser);
+            return locations;
+        }
+    }
+
+    /**
+     * Reads a JSON array of locations straight into columns, without a bean per point.
+     * {@code date_time} is parsed here; blank or unparseable values are kept as
+     * {@link LocationBatch#NO_TIME} or {@link LocationBatch#INVALID_TIME} for the caller to report.
+     */
+    public static LocationBatch readBatch(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                expectEnd(parser);
+                return null;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of user locations");
+            }
+            LocationBatch batch = new LocationBatch();
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                readRow(parser, token, batch);
+            }
+            expectEnd(parser);
+            return batch;
+        }
+    }
+
+    /**
+     * Writes one location as a JSON document, e.g. an ingest queue message.
+     */
+    public static String writeLocation(UserLocation location) throws IOException {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            writeLocation(generator, location);
+        }
+        return out.toString();
+    }
+
+    public static String writeResponse(ApiResponse<?> response) throws IOException {
+        StringWriter out = new StringWriter(256);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            writeResponseStart(generator, response.isSuccess(), response.getMessage());
+            if (response.getData() != null) {
+                generator.writeFieldName("data");
+                writeValue(generator, response.getData());
+            }
+            writeResponseEnd(generator, response.getErrorCode(), response.getTimestamp());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the bulk retrieve envelope ({@code data.count} and {@code data.locations})
+     * straight from the query result, projecting to the selected fields when given.
+     */
+    public static String writeLocationsResponse(String message, List<UserLocation> locations, Set<LocationField> fields) throws IOException {
+        StringWriter out = new StringWriter(128 + locations.size() * 256);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            writeResponseStart(generator, true, message);
+            generator.writeFieldName("data");
+            generator.writeStartObject();
+            generator.writeNumberField("count", locations.size());
+            generator.writeFieldName("locations");
+            generator.writeStartArray();
+            for (UserLocation location : locations) {
+                if (fields == null) {
+                    writeLocation(generator, location);
+                } else {
+                    writeLocation(generator, location, fields);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            writeResponseEnd(generator, null, Instant.now());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Columnar variant of {@link #writeLocationsResponse(String, List, Set)}.
+     */
+    public static String writeLocationsResponse(String message, LocationBatch batch, Set<LocationField> fields) throws IOException {
+        StringWriter out = new StringWriter(128 + batch.size() * 256);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            writeResponseStart(generator, true, message);
+            generator.writeFieldName("data");
+            generator.writeStartObject();
+            generator.writeNumberField("count", batch.size());
+            generator.writeFieldName("locations");
+            writeBatch(generator, batch, fields);
+            generator.writeEndObject();
+            writeResponseEnd(generator, null, Instant.now());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the batch as a JSON array of location objects, projected to the fields when given.
+     */
+    public static void writeBatch(JsonGenerator generator, LocationBatch batch, Set<LocationField> fields) throws IOException {
+        generator.writeStartArray();
+        writeRows(generator, batch, fields);
+        generator.writeEndArray();
+    }
+
+    /**
+     * Writes the batch's location objects into an array the caller has already started.
+     */
+    public static void writeRows(JsonGenerator generator, LocationBatch batch, Set<LocationField> fields) throws IOException {
+        // date_time keys are formatted into one buffer instead of a String per row
+        char[] timeBuffer = new char[TimeKeys.CANONICAL_LENGTH];
+        for (int row = 0; row < batch.size(); row++) {
+            generator.writeStartObject();
+            if (fields == null) {
+                writeRowField(generator, batch, row, LocationField.USER_ID, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.DATE_TIME, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.LATITUDE, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.LONGITUDE, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.IS_PRIVATE, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.IS_REAL, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.LAT_LONG, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.CREATED_AT, timeBuffer);
+                writeRowField(generator, batch, row, LocationField.UPDATED_AT, timeBuffer);
+            } else {
+                for (LocationField field : fields) {
+                    writeRowField(generator, batch, row, field, timeBuffer);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    public static void writeLocation(JsonGenerator generator, UserLocation location) throws IOException {
+        generator.writeStartObject();
+        writeStringField(generator, USER_ID, location.getUserId());
+        writeStringField(generator, DATE_TIME, location.getDateTime());
+        writeNumberField(generator, LATITUDE, location.getLatitude());
+        writeNumberField(generator, LONGITUDE, location.getLongitude());
+        writeBooleanField(generator, IS_PRIVATE, location.getIsPrivate());
+        writeBooleanField(generator, IS_REAL, location.getIsReal());
+        writeStringField(generator, LAT_LONG, location.getLatLong());
+        writeInstantField(generator, CREATED_AT, location.getCreatedAt());
+        writeInstantField(generator, UPDATED_AT, location.getUpdatedAt());
+        generator.writeEndObject();
+    }
+
+    public static void writeLocation(JsonGenerator generator, UserLocation location, Set<LocationField> fields) throws IOException {
+        generator.writeStartObject();
+        for (LocationField field : fields) {
+            generator.writeFieldName(field.getJsonName());
+            writeValue(generator, field.valueOf(location));
+        }
+        generator.writeEndObject();
+    }
+
+    public static void writeResponseStart(JsonGenerator generator, boolean success, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("success", success);
+        if (message != null) {
+            generator.writeStringField("message", message);
+        }
+    }
+
+    public static void writeResponseEnd(JsonGenerator generator, String errorCode, Instant timestamp) throws IOException {
+        if (errorCode != null) {
+            generator.writeStringField("errorCode", errorCode);
+        }
+        if (timestamp != null) {
+            generator.writeStringField("timestamp", timestamp.toString());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof UserLocation) {
+            writeLocation(generator, (UserLocation) value);
+        } else if (value instanceof LocationBatch) {
+            writeBatch(generator, (LocationBatch) value, null);
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Instant) {
+            generator.writeString(value.toString());
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Collection) {
+            generator.writeStartArray();
+            for (Object item : (Collection<?>) value) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else {
+            throw new IllegalArgumentException("Unsupported response value: " + value.getClass().getName());
+        }
+    }
+
+    // UserLocation has no @JsonInclude, so null properties are written like databind does
+
+    private static void writeStringField(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeNumberField(JsonGenerator generator, SerializableString name, Double value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void writeBooleanField(JsonGenerator generator, SerializableString name, Boolean value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(value);
+        }
+    }
+
+    private static void writeInstantField(JsonGenerator generator, SerializableString name, Instant value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static void writeRowField(JsonGenerator generator, LocationBatch batch, int row, LocationField field, char[] timeBuffer) throws IOException {
+        switch (field) {
+            case USER_ID:
+                writeStringField(generator, USER_ID, batch.getUserId(row));
+                break;
+            case DATE_TIME:
+                generator.writeFieldName(DATE_TIME);
+                if (batch.hasValidDateTime(row)) {
+                    TimeKeys.formatTo(batch.getDateTimeMillis(row), timeBuffer, 0);
+                    generator.writeString(timeBuffer, 0, TimeKeys.CANONICAL_LENGTH);
+                } else {
+                    generator.writeNull();
+                }
+                break;
+            case LATITUDE:
+                generator.writeFieldName(LATITUDE);
+                writeCoordinate(generator, batch.getLatitude(row));
+                break;
+            case LONGITUDE:
+                generator.writeFieldName(LONGITUDE);
+                writeCoordinate(generator, batch.getLongitude(row));
+                break;
+            case IS_PRIVATE:
+                writeBooleanField(generator, IS_PRIVATE, batch.getIsPrivate(row));
+                break;
+            case IS_REAL:
+                writeBooleanField(generator, IS_REAL, batch.getIsReal(row));
+                break;
+            case LAT_LONG:
+                writeStringField(generator, LAT_LONG, batch.getLatLong(row));
+                break;
+            case CREATED_AT:
+                writeInstantField(generator, CREATED_AT, batch.getCreatedAt(row));
+                break;
+            case UPDATED_AT:
+                writeInstantField(generator, UPDATED_AT, batch.getUpdatedAt(row));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported field: " + field);
+        }
+    }
+
+    private static void writeCoordinate(JsonGenerator generator, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void readRow(JsonParser parser, JsonToken token, LocationBatch batch) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a user location object");
+        }
+        // Properties may come in any order, so collect them before appending the row
+        String userId = null;
+        long dateTime = LocationBatch.NO_TIME;
+        double latitude = Double.NaN;
+        double longitude = Double.NaN;
+        Boolean isPrivate = null;
+        Boolean isReal = null;
+        long createdAt = LocationBatch.NO_TIME;
+        long updatedAt = LocationBatch.NO_TIME;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "userId":
+                    userId = readString(parser, value);
+                    break;
+                case "dateTime":
+                    dateTime = LocationBatch.parseDateTime(readString(parser, value));
+                    break;
+                case "latitude":
+                    latitude = readCoordinate(parser, value);
+                    break;
+                case "longitude":
+                    longitude = readCoordinate(parser, value);
+                    break;
+                case "isPrivate":
+                    isPrivate = readBoolean(parser, value);
+                    break;
+                case "isReal":
+                    isReal = readBoolean(parser, value);
+                    break;
+                case "latLong":
+                    // Derived from the coordinates
+                    readString(parser, value);
+                    break;
+                case "createdAt":
+                    createdAt = LocationBatch.toNanos(readInstant(parser, value));
+                    break;
+                case "updatedAt":
+                    updatedAt = LocationBatch.toNanos(readInstant(parser, value));
+                    break;
+                default:
+                    throw new JsonParseException(parser, "Unrecognized field \"" + name + "\" for user location");
+            }
+        }
+        int row = batch.add(userId, dateTime);
+        batch.setLatitude(row, latitude);
+        batch.setLongitude(row, longitude);
+        batch.setPrivate(row, isPrivate);
+        batch.setReal(row, isReal);
+        batch.setCreatedAt(row, LocationBatch.toInstant(createdAt));
+        batch.setUpdatedAt(row, LocationBatch.toInstant(updatedAt));
+    }
+
+    private static UserLocation readLocation(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a user location object");
+        }
+        UserLocation location = new UserLocation();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "userId":
+                    location.setUserId(readString(parser, value));
+                    break;
+                case "dateTime":
+                    location.setDateTime(readString(parser, value));
+                    break;
+                case "latitude":
+                    location.setLatitude(readDouble(parser, value));
+                    break;
+                case "longitude":
+                    location.setLongitude(readDouble(parser, value));
+                    break;
+                case "isPrivate":
+                    location.setIsPrivate(readBoolean(parser, value));
+                    break;
+                case "isReal":
+                    location.setIsReal(readBoolean(parser, value));
+                    break;
+                case "latLong":
+                    location.setLatLong(readString(parser, value));
+                    break;
+                case "createdAt":
+                    location.setCreatedAt(readInstant(parser, value));
+                    break;
+                case "updatedAt":
+                    location.setUpdatedAt(readInstant(parser, value));
+                    break;
+                default:
+                    throw new JsonParseException(parser, "Unrecognized field \"" + name + "\" for user location");
+            }
+        }
+        return location;
+    }
+
+    private static String readString(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string for \"" + parser.getCurrentName() + "\"");
+        }
+        return parser.getText();
+    }
+
+    private static Double readDouble(JsonParser parser, JsonToken token) throws IOException {
+        double value = readCoordinate(parser, token);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    // NaN for null, so columnar reads stay primitive
+    private static double readCoordinate(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return Double.NaN;
+        }
+        if (token.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        throw new JsonParseException(parser, "Expected a number for \"" + parser.getCurrentName() + "\"");
+    }
+
+    private static Boolean readBoolean(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isBoolean()) {
+            return token == JsonToken.VALUE_TRUE;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            if ("true".equalsIgnoreCase(text) || "false".equalsIgnoreCase(text)) {
+                return Boolean.valueOf(text);
+            }
+        }
+        throw new JsonParseException(parser, "Expected a boolean for \"" + parser.getCurrentName() + "\"");
+    }
+
+    // ISO-8601 strings as written by this codec, or epoch milliseconds
+    private static Instant readInstant(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return Instant.ofEpochMilli(parser.getLongValue());
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Instant.parse(parser.getText().trim());
+            } catch (DateTimeParseException e) {
+                // Reported below
+            }
+        }
+        throw new JsonParseException(parser, "Expected an ISO-8601 instant for \"" + parser.getCurrentName() + "\"");
+    }
+
+    private static void expectEnd(JsonParser parser) throws IOException {
+        if (parser.nextToken() != null) {
+            throw new JsonParseException(parser, "Unexpected content after JSON value");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mindthekid.geo.cqrs.shared.dto;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Streams the bulk retrieve envelope to an output stream one page of locations at a time.
+ *
+ * Each page is encoded as UTF-8 into the generator's recycled byte buffer and flushed to
+ * the stream before the next page is read, so memory stays bounded by one page however
+ * many locations the response holds. The count and message depend on the total, so
+ * they follow the locations:
+ * {@code {"success":true,"data":{"locations":[...],"count":N},"message":"...","timestamp":"..."}}
+ *
+ * The stream is not closed by the writer; it belongs to the caller.
+ */
+public final class LocationResponseWriter implements Closeable {
+
+    private final JsonGenerator generator;
+    private final Set<LocationField> fields;
+    private int count;
+    private boolean finished;
+
+    public LocationResponseWriter(OutputStream out, Set<LocationField> fields) throws IOException {
+        this.generator = LocationJsonCodec.getJsonFactory().createGenerator(out, JsonEncoding.UTF8);
+        // Leave the stream open, and don't close the JSON of a failed response as if it were complete
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        this.fields = fields;
+
+        LocationJsonCodec.writeResponseStart(generator, true, null);
+        generator.writeFieldName("data");
+        generator.writeStartObject();
+        generator.writeFieldName("locations");
+        generator.writeStartArray();
+    }
+
+    /**
+     * Writes a page of locations and flushes it to the stream. The page may be reused
+     * once this returns.
+     */
+    public void writePage(LocationBatch page) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Response already finished");
+        }
+        LocationJsonCodec.writeRows(generator, page, fields);
+        count += page.size();
+        generator.flush();
+    }
+
+    /**
+     * Returns the number of locations written so far.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Closes the locations array and writes the trailing count, message and timestamp.
+     */
+    public void finish(String message) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Response already finished");
+        }
+        finished = true;
+        generator.writeEndArray();
+        generator.writeNumberField("count", count);
+        generator.writeEndObject();
+        if (message != null) {
+            generator.writeStringField("message", message);
+        }
+        LocationJsonCodec.writeResponseEnd(generator, null, Instant.now());
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
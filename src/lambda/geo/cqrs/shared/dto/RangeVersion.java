@@ -0,0 +1,36 @@
+package com.mindthekid.geo.cqrs.shared.dto;
+
+import java.time.Instant;
+
+/**
+ * Version marker of a user's location range for conditional GETs: how many items the range
+ * holds and the newest {@code updated_at} among them. Inserting or deleting a point anywhere
+ * in the range changes the count, and every write stamps {@code updated_at}, so late,
+ * out-of-order and edited points move the marker as well as new newest ones.
+ */
+public final class RangeVersion {
+
+    private final long count;
+    private final Instant latestUpdatedAt;
+
+    public RangeVersion(long count, Instant latestUpdatedAt) {
+        this.count = count;
+        this.latestUpdatedAt = latestUpdatedAt;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The newest updated_at in the range, or null if no item carries one
+     */
+    public Instant getLatestUpdatedAt() {
+        return latestUpdatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeVersion{count=" + count + ", latestUpdatedAt=" + latestUpdatedAt + "}";
+    }
+}
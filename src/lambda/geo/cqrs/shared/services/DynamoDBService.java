@@ -3,39 +3,91 @@ package com.mindthekid.geo.cqrs.shared.services;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
 import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
 import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.RangeVersion;
 import com.mindthekid.models.UserLocation;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
-public class DynamoDBService {
+public class DynamoDBService implements LocationStore {
+    
+    // Narrow GSI (user_id, date_time) projecting only latitude/longitude, for track-style reads
+    public static final String USER_TRACK_INDEX = "user_track_index";
+    
+    // Attempts per batch call before unprocessed items fail the operation (about 5 s of backoff)
+    static final int MAX_BATCH_ATTEMPTS = 10;
     
     private final DynamoDBMapper dynamoDBMapper;
     private final AmazonDynamoDB dynamoDBClient;
     private final String tableName;
     
     public DynamoDBService() {
-        this.dynamoDBClient = AmazonDynamoDBClientBuilder.standard().build();
-        this.dynamoDBMapper = new DynamoDBMapper(dynamoDBClient);
+        // Get table name from environment variable
+        this(AmazonDynamoDBClientBuilder.standard().build(), System.getenv("DYNAMODB_TABLE_NAME"));
+    }
+    
+    // Explicit client and table, e.g. DynamoDB Local for the local server
+    public DynamoDBService(AmazonDynamoDB dynamoDBClient, String tableName) {
+        this.dynamoDBClient = dynamoDBClient;
         
-        // Get table name from environment variable, fallback to default
-        this.tableName = System.getenv("DYNAMODB_TABLE_NAME");
+        this.tableName = tableName;
         if (this.tableName == null || this.tableName.trim().isEmpty()) {
             throw new IllegalStateException("DYNAMODB_TABLE_NAME environment variable is required");
         }
+        
+        // The mapper paths must hit the same table as the low-level ones, not the @DynamoDBTable default
+        this.dynamoDBMapper = new DynamoDBMapper(dynamoDBClient, DynamoDBMapperConfig.builder()
+                .withTableNameOverride(DynamoDBMapperConfig.TableNameOverride.withTableNameReplacement(tableName))
+                .build());
     }
     
     // Single operations
+    @Override
     public void saveUserLocation(UserLocation userLocation) {
         dynamoDBMapper.save(userLocation);
     }
     
+    /**
+     * Writes the location only if no item exists for its (user_id, date_time) key, so
+     * re-uploaded points never overwrite the stored copy or reset its created_at.
+     *
+     * @return true if the location was written, false if it already existed
+     */
+    @Override
+    public boolean saveUserLocationIfAbsent(UserLocation userLocation) {
+        DynamoDBSaveExpression saveExpression = new DynamoDBSaveExpression()
+                .withExpectedEntry("user_id", new ExpectedAttributeValue(false));
+        try {
+            dynamoDBMapper.save(userLocation, saveExpression);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+    
+    @Override
     public UserLocation getUserLocation(String userId, String dateTime) {
         UserLocation key = new UserLocation();
         key.setUserId(userId);
@@ -43,6 +95,7 @@ public class DynamoDBService {
         return dynamoDBMapper.load(key);
     }
     
+    @Override
     public void deleteUserLocation(String userId, String dateTime) {
         UserLocation key = new UserLocation();
         key.setUserId(userId);
@@ -51,6 +104,7 @@ public class DynamoDBService {
     }
     
     // Bulk operations
+    @Override
     public List<UserLocation> bulkSaveUserLocations(List<UserLocation> userLocations) {
         // Process in batches of 25 (DynamoDB batch limit)
         List<UserLocation> savedLocations = new ArrayList<>();
@@ -60,13 +114,51 @@ public class DynamoDBService {
             List<UserLocation> batch = userLocations.subList(i, endIndex);
             
             // Save batch
-            dynamoDBMapper.batchSave(batch);
+            throwIfFailed(dynamoDBMapper.batchSave(batch), "save");
             savedLocations.addAll(batch);
         }
         
         return savedLocations;
     }
     
+    /**
+     * Bulk variant of {@link #saveUserLocationIfAbsent}: keys that already exist are skipped.
+     *
+     * BatchWriteItem cannot carry conditions, so existing keys are filtered with a
+     * BatchGetItem (up to 100 keys per call) and only the new points are batch-written.
+     *
+     * @return The locations that were written
+     */
+    @Override
+    public List<UserLocation> bulkSaveNewUserLocations(List<UserLocation> userLocations) {
+        Set<String> existingKeys = new HashSet<>();
+        
+        for (int i = 0; i < userLocations.size(); i += 100) {
+            int endIndex = Math.min(i + 100, userLocations.size());
+            List<Object> keys = new ArrayList<>(endIndex - i);
+            for (UserLocation location : userLocations.subList(i, endIndex)) {
+                UserLocation key = new UserLocation();
+                key.setUserId(location.getUserId());
+                key.setDateTime(location.getDateTime());
+                keys.add(key);
+            }
+            
+            for (List<Object> loaded : dynamoDBMapper.batchLoad(keys).values()) {
+                for (Object item : loaded) {
+                    UserLocation existing = (UserLocation) item;
+                    existingKeys.add(existing.getUserId() + '\n' + existing.getDateTime());
+                }
+            }
+        }
+        
+        List<UserLocation> newLocations = userLocations.stream()
+                .filter(location -> !existingKeys.contains(location.getUserId() + '\n' + location.getDateTime()))
+                .collect(Collectors.toList());
+        
+        return bulkSaveUserLocations(newLocations);
+    }
+    
+    @Override
     public List<UserLocation> getAllUserLocations(String userId) {
         UserLocation key = new UserLocation();
         key.setUserId(userId);
@@ -77,6 +169,7 @@ public class DynamoDBService {
         return dynamoDBMapper.query(UserLocation.class, queryExpression);
     }
     
+    @Override
     public List<UserLocation> getUserLocationsByTimeRange(String userId, String startTime, String endTime) {
         UserLocation key = new UserLocation();
         key.setUserId(userId);
@@ -93,6 +186,7 @@ public class DynamoDBService {
         return dynamoDBMapper.query(UserLocation.class, queryExpression);
     }
     
+    @Override
     public List<UserLocation> getUserLocationsFromTime(String userId, String startTime) {
         UserLocation key = new UserLocation();
         key.setUserId(userId);
@@ -108,6 +202,7 @@ public class DynamoDBService {
         return dynamoDBMapper.query(UserLocation.class, queryExpression);
     }
     
+    @Override
     public List<UserLocation> getUserLocationsUpToTime(String userId, String endTime) {
         UserLocation key = new UserLocation();
         key.setUserId(userId);
@@ -123,6 +218,346 @@ public class DynamoDBService {
         return dynamoDBMapper.query(UserLocation.class, queryExpression);
     }
     
+    /**
+     * Queries a user's locations with optional time bounds, reading only the requested fields.
+     *
+     * When every requested field is covered by {@link #USER_TRACK_INDEX} the (smaller, eventually
+     * consistent) index is queried instead of the table, which lowers consumed read capacity.
+     *
+     * @param startTime Inclusive lower bound, or null
+     * @param endTime Inclusive upper bound, or null
+     * @param fields Fields to project, or null for all attributes
+     */
+    @Override
+    public List<UserLocation> queryUserLocations(String userId, String startTime, String endTime, Set<LocationField> fields) {
+        DynamoDBQueryExpression<UserLocation> queryExpression = createRangeQuery(userId, startTime, endTime);
+        
+        if (fields != null) {
+            Map<String, String> expressionAttributeNames = new HashMap<>();
+            queryExpression.withProjectionExpression(LocationField.projectionExpression(fields, expressionAttributeNames))
+                    .withExpressionAttributeNames(expressionAttributeNames);
+            
+            if (LocationField.TRACK_INDEX_FIELDS.containsAll(fields)) {
+                queryExpression.withIndexName(USER_TRACK_INDEX).withConsistentRead(false);
+            }
+        }
+        
+        return dynamoDBMapper.query(UserLocation.class, queryExpression);
+    }
+    
+    /**
+     * Counts a user's range and finds its newest updated_at, as the version marker for
+     * conditional GETs. Only updated_at is projected, so little is transferred or parsed,
+     * but DynamoDB still charges read units for the full items of the range.
+     */
+    @Override
+    public RangeVersion getRangeVersion(String userId, String startTime, String endTime) {
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        QueryRequest request = new QueryRequest()
+                .withTableName(tableName)
+                .withKeyConditionExpression(rangeKeyCondition(userId, startTime, endTime, expressionAttributeValues))
+                .withExpressionAttributeValues(expressionAttributeValues)
+                .withProjectionExpression("#updated_at")
+                .withExpressionAttributeNames(Map.of("#updated_at", "updated_at"));
+        
+        long count = 0;
+        Instant latestUpdatedAt = null;
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        do {
+            QueryResult result = dynamoDBClient.query(request.withExclusiveStartKey(lastEvaluatedKey));
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                count++;
+                Instant updatedAt = instantValue(item.get("updated_at"));
+                if (updatedAt != null && (latestUpdatedAt == null || updatedAt.isAfter(latestUpdatedAt))) {
+                    latestUpdatedAt = updatedAt;
+                }
+            }
+            lastEvaluatedKey = result.getLastEvaluatedKey();
+        } while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+        
+        return new RangeVersion(count, latestUpdatedAt);
+    }
+    
+    private DynamoDBQueryExpression<UserLocation> createRangeQuery(String userId, String startTime, String endTime) {
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        String keyCondition = rangeKeyCondition(userId, startTime, endTime, expressionAttributeValues);
+        
+        return new DynamoDBQueryExpression<UserLocation>()
+                .withKeyConditionExpression(keyCondition)
+                .withExpressionAttributeValues(expressionAttributeValues);
+    }
+    
+    private static String rangeKeyCondition(String userId, String startTime, String endTime, Map<String, AttributeValue> expressionAttributeValues) {
+        expressionAttributeValues.put(":userId", new AttributeValue().withS(userId));
+        
+        String keyCondition = "user_id = :userId";
+        if (startTime != null && endTime != null) {
+            expressionAttributeValues.put(":startTime", new AttributeValue().withS(startTime));
+            expressionAttributeValues.put(":endTime", new AttributeValue().withS(endTime));
+            keyCondition += " AND date_time BETWEEN :startTime AND :endTime";
+        } else if (startTime != null) {
+            expressionAttributeValues.put(":startTime", new AttributeValue().withS(startTime));
+            keyCondition += " AND date_time >= :startTime";
+        } else if (endTime != null) {
+            expressionAttributeValues.put(":endTime", new AttributeValue().withS(endTime));
+            keyCondition += " AND date_time <= :endTime";
+        }
+        return keyCondition;
+    }
+    
+    // Columnar operations: items go straight between attribute maps and a LocationBatch, without the mapper
+    
+    /**
+     * Columnar variant of {@link #queryUserLocations}: reads every page of the range
+     * directly into a {@link LocationBatch}, without a {@code UserLocation} per item.
+     */
+    @Override
+    public LocationBatch queryLocationBatch(String userId, String startTime, String endTime, Set<LocationField> fields) {
+        QueryRequest request = createLocationQuery(userId, startTime, endTime, fields);
+        
+        LocationBatch batch = new LocationBatch();
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        do {
+            QueryResult result = dynamoDBClient.query(request.withExclusiveStartKey(lastEvaluatedKey));
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                appendItem(batch, item);
+            }
+            lastEvaluatedKey = result.getLastEvaluatedKey();
+        } while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+        
+        return batch;
+    }
+    
+    /**
+     * Streaming variant of {@link #queryLocationBatch}: hands each DynamoDB page to the
+     * consumer as it arrives instead of collecting the range. One batch is refilled for
+     * every page, so memory is bounded by the page size (1 MB of items) however long the
+     * history is.
+     */
+    @Override
+    public void forEachLocationPage(String userId, String startTime, String endTime, Set<LocationField> fields,
+                                    LocationPageConsumer consumer) throws IOException {
+        QueryRequest request = createLocationQuery(userId, startTime, endTime, fields);
+        
+        LocationBatch page = new LocationBatch();
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        do {
+            QueryResult result = dynamoDBClient.query(request.withExclusiveStartKey(lastEvaluatedKey));
+            page.clear();
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                appendItem(page, item);
+            }
+            if (!page.isEmpty()) {
+                consumer.accept(page);
+            }
+            lastEvaluatedKey = result.getLastEvaluatedKey();
+        } while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+    }
+    
+    // Key condition plus, for projections, the projection and the narrow track index when it covers them
+    private QueryRequest createLocationQuery(String userId, String startTime, String endTime, Set<LocationField> fields) {
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        QueryRequest request = new QueryRequest()
+                .withTableName(tableName)
+                .withKeyConditionExpression(rangeKeyCondition(userId, startTime, endTime, expressionAttributeValues))
+                .withExpressionAttributeValues(expressionAttributeValues);
+        
+        if (fields != null) {
+            Set<LocationField> projected = fields;
+            if (fields.contains(LocationField.LAT_LONG)) {
+                // The batch derives lat_long from the coordinates, so fetch those instead of the stored copy
+                projected = EnumSet.copyOf(fields);
+                projected.remove(LocationField.LAT_LONG);
+                projected.add(LocationField.LATITUDE);
+                projected.add(LocationField.LONGITUDE);
+            }
+            
+            Map<String, String> expressionAttributeNames = new HashMap<>();
+            request.withProjectionExpression(LocationField.projectionExpression(projected, expressionAttributeNames))
+                    .withExpressionAttributeNames(expressionAttributeNames);
+            
+            if (LocationField.TRACK_INDEX_FIELDS.containsAll(projected)) {
+                request.withIndexName(USER_TRACK_INDEX).withConsistentRead(false);
+            }
+        }
+        return request;
+    }
+    
+    /**
+     * Columnar variant of {@link #bulkSaveNewUserLocations}: rows whose key already exists
+     * are skipped. Keys must be distinct within the batch, which {@code LocationReconciler}
+     * guarantees.
+     *
+     * @return The rows that were written
+     */
+    @Override
+    public LocationBatch bulkSaveNewLocations(LocationBatch batch) {
+        BitSet newRows = new BitSet(batch.size());
+        newRows.set(0, batch.size());
+        
+        for (int from = 0; from < batch.size(); from += 100) {
+            int to = Math.min(from + 100, batch.size());
+            List<Map<String, AttributeValue>> keys = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                keys.add(keyOf(batch, row));
+            }
+            
+            Set<String> existingKeys = new HashSet<>();
+            Map<String, KeysAndAttributes> requestItems = Map.of(tableName, new KeysAndAttributes()
+                    .withKeys(keys)
+                    .withProjectionExpression("user_id, date_time"));
+            for (int attempt = 0; !requestItems.isEmpty(); attempt++) {
+                checkAttempts(attempt);
+                backoff(attempt);
+                BatchGetItemResult result = dynamoDBClient.batchGetItem(new BatchGetItemRequest().withRequestItems(requestItems));
+                for (Map<String, AttributeValue> item : result.getResponses().getOrDefault(tableName, Collections.emptyList())) {
+                    existingKeys.add(item.get("user_id").getS() + '\n' + item.get("date_time").getS());
+                }
+                requestItems = result.getUnprocessedKeys() != null ? result.getUnprocessedKeys() : Collections.emptyMap();
+            }
+            
+            if (!existingKeys.isEmpty()) {
+                for (int row = from; row < to; row++) {
+                    if (existingKeys.contains(batch.getUserId(row) + '\n' + batch.getDateTime(row))) {
+                        newRows.clear(row);
+                    }
+                }
+            }
+        }
+        
+        LocationBatch newLocations = batch.select(newRows);
+        for (int from = 0; from < newLocations.size(); from += 25) {
+            int to = Math.min(from + 25, newLocations.size());
+            List<WriteRequest> writes = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                writes.add(new WriteRequest().withPutRequest(new PutRequest().withItem(itemOf(newLocations, row))));
+            }
+            
+            Map<String, List<WriteRequest>> requestItems = Map.of(tableName, writes);
+            for (int attempt = 0; !requestItems.isEmpty(); attempt++) {
+                checkAttempts(attempt);
+                backoff(attempt);
+                BatchWriteItemResult result = dynamoDBClient.batchWriteItem(new BatchWriteItemRequest().withRequestItems(requestItems));
+                requestItems = result.getUnprocessedItems() != null ? result.getUnprocessedItems() : Collections.emptyMap();
+            }
+        }
+        
+        return newLocations;
+    }
+    
+    private static Map<String, AttributeValue> keyOf(LocationBatch batch, int row) {
+        Map<String, AttributeValue> key = new HashMap<>(4);
+        key.put("user_id", new AttributeValue().withS(batch.getUserId(row)));
+        key.put("date_time", new AttributeValue().withS(batch.getDateTime(row)));
+        return key;
+    }
+    
+    // Booleans are written as 1/0 numbers, the mapper's default; instants as ISO-8601 strings
+    private static Map<String, AttributeValue> itemOf(LocationBatch batch, int row) {
+        Map<String, AttributeValue> item = keyOf(batch, row);
+        if (batch.hasLatitude(row)) {
+            item.put("latitude", new AttributeValue().withN(Double.toString(batch.getLatitude(row))));
+        }
+        if (batch.hasLongitude(row)) {
+            item.put("longitude", new AttributeValue().withN(Double.toString(batch.getLongitude(row))));
+        }
+        if (batch.getIsPrivate(row) != null) {
+            item.put("is_private", new AttributeValue().withN(batch.getIsPrivate(row) ? "1" : "0"));
+        }
+        if (batch.getIsReal(row) != null) {
+            item.put("is_real", new AttributeValue().withN(batch.getIsReal(row) ? "1" : "0"));
+        }
+        String latLong = batch.getLatLong(row);
+        if (latLong != null) {
+            item.put("lat_long", new AttributeValue().withS(latLong));
+        }
+        if (batch.getCreatedAtNanos(row) != LocationBatch.NO_TIME) {
+            item.put("created_at", new AttributeValue().withS(batch.getCreatedAt(row).toString()));
+        }
+        if (batch.getUpdatedAtNanos(row) != LocationBatch.NO_TIME) {
+            item.put("updated_at", new AttributeValue().withS(batch.getUpdatedAt(row).toString()));
+        }
+        return item;
+    }
+    
+    private static void appendItem(LocationBatch batch, Map<String, AttributeValue> item) {
+        AttributeValue userId = item.get("user_id");
+        AttributeValue dateTime = item.get("date_time");
+        int row = batch.add(userId != null ? userId.getS() : null,
+                LocationBatch.parseDateTime(dateTime != null ? dateTime.getS() : null));
+        
+        AttributeValue latitude = item.get("latitude");
+        if (latitude != null && latitude.getN() != null) {
+            batch.setLatitude(row, Double.parseDouble(latitude.getN()));
+        }
+        AttributeValue longitude = item.get("longitude");
+        if (longitude != null && longitude.getN() != null) {
+            batch.setLongitude(row, Double.parseDouble(longitude.getN()));
+        }
+        batch.setPrivate(row, booleanValue(item.get("is_private")));
+        batch.setReal(row, booleanValue(item.get("is_real")));
+        batch.setCreatedAt(row, instantValue(item.get("created_at")));
+        batch.setUpdatedAt(row, instantValue(item.get("updated_at")));
+    }
+    
+    // Accepts both the mapper's 1/0 numbers and native BOOL attributes
+    private static Boolean booleanValue(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getBOOL() != null) {
+            return value.getBOOL();
+        }
+        return value.getN() != null ? !"0".equals(value.getN()) : null;
+    }
+    
+    // ISO-8601 strings, or epoch milliseconds stored as a number
+    private static Instant instantValue(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getS() != null) {
+            return Instant.parse(value.getS());
+        }
+        return value.getN() != null ? Instant.ofEpochMilli(Long.parseLong(value.getN())) : null;
+    }
+    
+    // The mapper has already retried unprocessed items; what it still reports as failed was not written
+    private static void throwIfFailed(List<DynamoDBMapper.FailedBatch> failedBatches, String operation) {
+        if (!failedBatches.isEmpty()) {
+            int items = 0;
+            for (DynamoDBMapper.FailedBatch failedBatch : failedBatches) {
+                for (List<WriteRequest> writes : failedBatch.getUnprocessedItems().values()) {
+                    items += writes.size();
+                }
+            }
+            throw new IllegalStateException("Failed to " + operation + " " + items + " user locations",
+                    failedBatches.get(0).getException());
+        }
+    }
+    
+    // Gives up instead of retrying until the Lambda times out, so callers see the failure
+    private static void checkAttempts(int attempt) {
+        if (attempt >= MAX_BATCH_ATTEMPTS) {
+            throw new IllegalStateException("DynamoDB left items unprocessed after " + MAX_BATCH_ATTEMPTS + " attempts");
+        }
+    }
+    
+    // Shared with InMemoryLocationStore, which simulates the same unprocessed-item retries
+    static void backoff(int attempt) {
+        if (attempt == 0) {
+            return;
+        }
+        // Unprocessed items mean the table is throttling; wait before resubmitting them
+        try {
+            Thread.sleep(Math.min(50L << Math.min(attempt - 1, 5), 1_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying unprocessed DynamoDB items", e);
+        }
+    }
+    
+    @Override
     public List<UserLocation> deleteAllUserLocations(String userId) {
         // First retrieve all locations
         List<UserLocation> locations = getAllUserLocations(userId);
@@ -135,12 +570,13 @@ public class DynamoDBService {
         for (int i = 0; i < locations.size(); i += 25) {
             int endIndex = Math.min(i + 25, locations.size());
             List<UserLocation> batch = locations.subList(i, endIndex);
-            dynamoDBMapper.batchDelete(batch);
+            throwIfFailed(dynamoDBMapper.batchDelete(batch), "delete");
         }
         
         return locations;
     }
     
+    @Override
     public List<UserLocation> deleteUserLocationsByTimeRange(String userId, String startTime, String endTime) {
         // First retrieve locations in time range
         List<UserLocation> locations = getUserLocationsByTimeRange(userId, startTime, endTime);
@@ -153,12 +589,13 @@ public class DynamoDBService {
         for (int i = 0; i < locations.size(); i += 25) {
             int endIndex = Math.min(i + 25, locations.size());
             List<UserLocation> batch = locations.subList(i, endIndex);
-            dynamoDBMapper.batchDelete(batch);
+            throwIfFailed(dynamoDBMapper.batchDelete(batch), "delete");
         }
         
         return locations;
     }
     
+    @Override
     public List<UserLocation> deleteUserLocationsFromTime(String userId, String startTime) {
         // First retrieve locations from start time
         List<UserLocation> locations = getUserLocationsFromTime(userId, startTime);
@@ -171,12 +608,13 @@ public class DynamoDBService {
         for (int i = 0; i < locations.size(); i += 25) {
             int endIndex = Math.min(i + 25, locations.size());
             List<UserLocation> batch = locations.subList(i, endIndex);
-            dynamoDBMapper.batchDelete(batch);
+            throwIfFailed(dynamoDBMapper.batchDelete(batch), "delete");
         }
         
         return locations;
     }
     
+    @Override
     public List<UserLocation> deleteUserLocationsUpToTime(String userId, String endTime) {
         // First retrieve locations up to end time
         List<UserLocation> locations = getUserLocationsUpToTime(userId, endTime);
@@ -189,7 +627,7 @@ public class DynamoDBService {
         for (int i = 0; i < locations.size(); i += 25) {
             int endIndex = Math.min(i + 25, locations.size());
             List<UserLocation> batch = locations.subList(i, endIndex);
-            dynamoDBMapper.batchDelete(batch);
+            throwIfFailed(dynamoDBMapper.batchDelete(batch), "delete");
         }
         
         return locations;
@@ -200,6 +638,7 @@ public class DynamoDBService {
         return this.tableName;
     }
     
+    @Override
     public void close() {
         if (dynamoDBClient != null) {
             dynamoDBClient.shutdown();
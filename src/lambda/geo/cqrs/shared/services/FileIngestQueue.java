@@ -0,0 +1,94 @@
+package com.mindthekid.geo.cqrs.shared.services;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.models.UserLocation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Local stand-in for the SQS ingest queue, used by tests and local runs.
+ *
+ * Messages are stored one JSON document per line so the queue survives restarts;
+ * {@link #drain(int)} removes and returns messages in FIFO order.
+ */
+public class FileIngestQueue implements IngestQueue {
+
+    public static final String QUEUE_FILE_ENV = "INGEST_QUEUE_FILE";
+
+    private final Path queueFile;
+
+    public FileIngestQueue(Path queueFile) {
+        this.queueFile = queueFile;
+    }
+
+    @Override
+    public void enqueue(UserLocation userLocation) {
+        enqueueAll(Collections.singletonList(userLocation));
+    }
+
+    @Override
+    public synchronized void enqueueAll(List<UserLocation> userLocations) {
+        try (BufferedWriter writer = Files.newBufferedWriter(queueFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (UserLocation userLocation : userLocations) {
+                writer.write(LocationJsonCodec.writeLocation(userLocation));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to ingest queue file " + queueFile, e);
+        }
+    }
+
+    /**
+     * Removes up to {@code maxMessages} messages from the head of the queue.
+     */
+    public synchronized List<UserLocation> drain(int maxMessages) {
+        if (!Files.exists(queueFile)) {
+            return new ArrayList<>();
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(queueFile, StandardCharsets.UTF_8);
+            int drainCount = Math.min(maxMessages, lines.size());
+
+            List<UserLocation> drained = new ArrayList<>(drainCount);
+            for (int i = 0; i < drainCount; i++) {
+                drained.add(LocationJsonCodec.readLocation(lines.get(i)));
+            }
+
+            // Rewrite the remainder atomically so a crash never loses undrained messages
+            Path remainder = Files.createTempFile(queueFile.toAbsolutePath().getParent(), "ingest", ".tmp");
+            Files.write(remainder, lines.subList(drainCount, lines.size()), StandardCharsets.UTF_8);
+            Files.move(remainder, queueFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            return drained;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to drain ingest queue file " + queueFile, e);
+        }
+    }
+
+    public synchronized int size() {
+        if (!Files.exists(queueFile)) {
+            return 0;
+        }
+        try {
+            return Files.readAllLines(queueFile, StandardCharsets.UTF_8).size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read ingest queue file " + queueFile, e);
+        }
+    }
+
+    public Path getQueueFile() {
+        return queueFile;
+    }
+}
@@ -0,0 +1,175 @@
+package com.mindthekid.geo.cqrs.shared.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.models.UserLocation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link InMemoryLocationStore} that survives restarts, for local runs.
+ *
+ * Every write and delete is appended to a journal file, one entry per line: {@code +}
+ * and the location as JSON for a write, {@code -} and the key for a delete. The journal
+ * is replayed on startup, dropping a last entry torn by a crash, and {@link #compact()}
+ * rewrites it with one entry per stored location. Writes are serialized so the journal replays in the order they were applied.
+ */
+public class FileLocationStore extends InMemoryLocationStore {
+
+    private final Path journalFile;
+    private BufferedWriter journal;
+
+    public FileLocationStore(Path journalFile) {
+        this.journalFile = journalFile;
+        replay();
+        this.journal = openJournal();
+    }
+
+    @Override
+    protected synchronized void put(UserLocation userLocation) {
+        super.put(userLocation);
+        append('+', userLocation);
+    }
+
+    @Override
+    protected synchronized boolean putIfAbsent(UserLocation userLocation) {
+        if (!super.putIfAbsent(userLocation)) {
+            return false;
+        }
+        append('+', userLocation);
+        return true;
+    }
+
+    @Override
+    protected synchronized UserLocation remove(String userId, String dateTime) {
+        UserLocation removed = super.remove(userId, dateTime);
+        if (removed != null) {
+            UserLocation key = new UserLocation();
+            key.setUserId(userId);
+            key.setDateTime(dateTime);
+            append('-', key);
+        }
+        return removed;
+    }
+
+    /**
+     * Rewrites the journal as a snapshot of the stored locations, dropping overwritten and deleted entries.
+     */
+    public synchronized void compact() {
+        try {
+            journal.close();
+            Path snapshot = Files.createTempFile(journalFile.toAbsolutePath().getParent(), "locations", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(snapshot, StandardCharsets.UTF_8)) {
+                IOException[] failure = new IOException[1];
+                forEachStoredLocation(location -> {
+                    if (failure[0] == null) {
+                        try {
+                            writer.write(entry('+', location));
+                            writer.newLine();
+                        } catch (IOException e) {
+                            failure[0] = e;
+                        }
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+            // Swap atomically so a crash leaves either the old journal or the complete snapshot
+            Files.move(snapshot, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to compact location store file " + journalFile, e);
+        } finally {
+            journal = openJournal();
+        }
+    }
+
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close location store file " + journalFile, e);
+        }
+    }
+
+    private void replay() {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(journalFile);
+            // Every entry ends with a newline; a tail without one is a write torn by a crash
+            int end = bytes.length;
+            while (end > 0 && bytes[end - 1] != '\n') {
+                end--;
+            }
+            if (end < bytes.length) {
+                try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(end);
+                }
+            }
+
+            String[] lines = new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n");
+            for (int i = 0; i < lines.length; i++) {
+                String line = lines[i].trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                char operation = line.charAt(0);
+                if (operation != '+' && operation != '-') {
+                    throw new IOException("Unknown journal entry on line " + (i + 1));
+                }
+                UserLocation location = LocationJsonCodec.readLocation(line.substring(1));
+                if (operation == '+') {
+                    super.put(location);
+                } else {
+                    super.remove(location.getUserId(), location.getDateTime());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read location store file " + journalFile, e);
+        }
+    }
+
+    private BufferedWriter openJournal() {
+        try {
+            return Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open location store file " + journalFile, e);
+        }
+    }
+
+    private void append(char operation, UserLocation location) {
+        try {
+            journal.write(entry(operation, location));
+            journal.newLine();
+            journal.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to location store file " + journalFile, e);
+        }
+    }
+
+    private static String entry(char operation, UserLocation location) throws IOException {
+        StringWriter out = new StringWriter(256);
+        out.write(operation);
+        try (JsonGenerator generator = LocationJsonCodec.getJsonFactory().createGenerator(out)) {
+            LocationJsonCodec.writeLocation(generator, location);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,455 @@
+package com.mindthekid.geo.cqrs.shared.services;
+
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.RangeVersion;
+import com.mindthekid.models.UserLocation;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory {@link LocationStore} with DynamoDB's access patterns, for handler tests,
+ * benchmarks and the local server.
+ *
+ * Each user's partition is a {@link ConcurrentSkipListMap} keyed by {@code date_time}, so
+ * point reads and range queries are O(log n) and never block writers.
+ * Locations are copied on the way in and out, as they would be serialized to DynamoDB.
+ *
+ * The narrow {@code user_track_index} GSI is emulated by a second set of partitions that
+ * hold only the keys and coordinates; projections it covers are read from it, as
+ * {@link DynamoDBService} does. Bulk calls are split into requests of at most
+ * {@link #BATCH_GET_LIMIT} keys and {@link #BATCH_WRITE_LIMIT} writes, and queries into
+ * pages of {@link #PAGE_SIZE} items.
+ *
+ * Every request can be delayed by a fixed latency, and a fraction of requests throttled:
+ * single-item calls and query pages then fail with
+ * {@code ProvisionedThroughputExceededException}, and batch requests leave part of their
+ * items unprocessed, which are resubmitted with the same backoff as {@code DynamoDBService}.
+ */
+public class InMemoryLocationStore implements LocationStore {
+
+    public static final int BATCH_GET_LIMIT = 100;
+    public static final int BATCH_WRITE_LIMIT = 25;
+    // About one 1 MB DynamoDB query page of ~200-byte items
+    public static final int PAGE_SIZE = 5000;
+
+    private final Map<String, ConcurrentSkipListMap<String, UserLocation>> table = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentSkipListMap<String, UserLocation>> trackIndex = new ConcurrentHashMap<>();
+
+    private volatile long latencyNanos;
+    private volatile double throttleRate;
+
+    /**
+     * Delays every request (single-item call, query page or batch request) by the given latency.
+     */
+    public InMemoryLocationStore withLatency(Duration latency) {
+        if (latency.isNegative()) {
+            throw new IllegalArgumentException("latency must not be negative");
+        }
+        this.latencyNanos = latency.toNanos();
+        return this;
+    }
+
+    /**
+     * Throttles the given fraction of requests, chosen at random.
+     *
+     * @param throttleRate From 0 (never) up to, but excluding, 1
+     */
+    public InMemoryLocationStore withThrottleRate(double throttleRate) {
+        if (!(throttleRate >= 0 && throttleRate < 1)) {
+            throw new IllegalArgumentException("throttleRate must be at least 0 and less than 1");
+        }
+        this.throttleRate = throttleRate;
+        return this;
+    }
+
+    // Single operations
+    @Override
+    public void saveUserLocation(UserLocation userLocation) {
+        request();
+        put(userLocation);
+    }
+
+    @Override
+    public boolean saveUserLocationIfAbsent(UserLocation userLocation) {
+        request();
+        return putIfAbsent(userLocation);
+    }
+
+    @Override
+    public UserLocation getUserLocation(String userId, String dateTime) {
+        request();
+        ConcurrentSkipListMap<String, UserLocation> partition = table.get(userId);
+        UserLocation location = partition != null ? partition.get(dateTime) : null;
+        return location != null ? copy(location) : null;
+    }
+
+    @Override
+    public void deleteUserLocation(String userId, String dateTime) {
+        request();
+        remove(userId, dateTime);
+    }
+
+    // Bulk operations
+    @Override
+    public List<UserLocation> bulkSaveUserLocations(List<UserLocation> userLocations) {
+        forEachBatchRequest(userLocations.size(), BATCH_WRITE_LIMIT, i -> put(userLocations.get(i)));
+        return new ArrayList<>(userLocations);
+    }
+
+    @Override
+    public List<UserLocation> bulkSaveNewUserLocations(List<UserLocation> userLocations) {
+        Set<String> existingKeys = new HashSet<>();
+        forEachBatchRequest(userLocations.size(), BATCH_GET_LIMIT, i -> {
+            UserLocation location = userLocations.get(i);
+            if (contains(location.getUserId(), location.getDateTime())) {
+                existingKeys.add(location.getUserId() + '\n' + location.getDateTime());
+            }
+        });
+
+        List<UserLocation> newLocations = userLocations.stream()
+                .filter(location -> !existingKeys.contains(location.getUserId() + '\n' + location.getDateTime()))
+                .collect(Collectors.toList());
+
+        return bulkSaveUserLocations(newLocations);
+    }
+
+    @Override
+    public List<UserLocation> getAllUserLocations(String userId) {
+        return query(table, userId, null, null, null);
+    }
+
+    @Override
+    public List<UserLocation> getUserLocationsByTimeRange(String userId, String startTime, String endTime) {
+        return query(table, userId, startTime, endTime, null);
+    }
+
+    @Override
+    public List<UserLocation> getUserLocationsFromTime(String userId, String startTime) {
+        return query(table, userId, startTime, null, null);
+    }
+
+    @Override
+    public List<UserLocation> getUserLocationsUpToTime(String userId, String endTime) {
+        return query(table, userId, null, endTime, null);
+    }
+
+    @Override
+    public List<UserLocation> queryUserLocations(String userId, String startTime, String endTime, Set<LocationField> fields) {
+        return query(source(fields), userId, startTime, endTime, fields);
+    }
+
+    @Override
+    public RangeVersion getRangeVersion(String userId, String startTime, String endTime) {
+        long count = 0;
+        Instant latestUpdatedAt = null;
+        Iterator<UserLocation> locations = range(table, userId, startTime, endTime).values().iterator();
+        do {
+            request();
+            for (int i = 0; i < PAGE_SIZE && locations.hasNext(); i++) {
+                Instant updatedAt = locations.next().getUpdatedAt();
+                count++;
+                if (updatedAt != null && (latestUpdatedAt == null || updatedAt.isAfter(latestUpdatedAt))) {
+                    latestUpdatedAt = updatedAt;
+                }
+            }
+        } while (locations.hasNext());
+        return new RangeVersion(count, latestUpdatedAt);
+    }
+
+    @Override
+    public LocationBatch queryLocationBatch(String userId, String startTime, String endTime, Set<LocationField> fields) {
+        LocationBatch batch = new LocationBatch();
+        Iterator<UserLocation> locations = range(source(fields), userId, startTime, endTime).values().iterator();
+        do {
+            request();
+            for (int i = 0; i < PAGE_SIZE && locations.hasNext(); i++) {
+                append(batch, locations.next(), fields);
+            }
+        } while (locations.hasNext());
+        return batch;
+    }
+
+    @Override
+    public void forEachLocationPage(String userId, String startTime, String endTime, Set<LocationField> fields,
+                                    LocationPageConsumer consumer) throws IOException {
+        LocationBatch page = new LocationBatch();
+        Iterator<UserLocation> locations = range(source(fields), userId, startTime, endTime).values().iterator();
+        do {
+            request();
+            page.clear();
+            while (page.size() < PAGE_SIZE && locations.hasNext()) {
+                append(page, locations.next(), fields);
+            }
+            if (!page.isEmpty()) {
+                consumer.accept(page);
+            }
+        } while (locations.hasNext());
+    }
+
+    @Override
+    public LocationBatch bulkSaveNewLocations(LocationBatch batch) {
+        BitSet newRows = new BitSet(batch.size());
+        newRows.set(0, batch.size());
+        forEachBatchRequest(batch.size(), BATCH_GET_LIMIT, row -> {
+            if (contains(batch.getUserId(row), batch.getDateTime(row))) {
+                newRows.clear(row);
+            }
+        });
+
+        LocationBatch newLocations = batch.select(newRows);
+        forEachBatchRequest(newLocations.size(), BATCH_WRITE_LIMIT, row -> put(newLocations.toUserLocation(row)));
+        return newLocations;
+    }
+
+    @Override
+    public List<UserLocation> deleteAllUserLocations(String userId) {
+        return deleteRange(userId, null, null);
+    }
+
+    @Override
+    public List<UserLocation> deleteUserLocationsByTimeRange(String userId, String startTime, String endTime) {
+        return deleteRange(userId, startTime, endTime);
+    }
+
+    @Override
+    public List<UserLocation> deleteUserLocationsFromTime(String userId, String startTime) {
+        return deleteRange(userId, startTime, null);
+    }
+
+    @Override
+    public List<UserLocation> deleteUserLocationsUpToTime(String userId, String endTime) {
+        return deleteRange(userId, null, endTime);
+    }
+
+    /**
+     * Returns the number of stored locations across all users.
+     */
+    public int size() {
+        return table.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    // Storage primitives: every write and delete goes through these, so subclasses can persist them
+
+    protected void put(UserLocation userLocation) {
+        UserLocation stored = copy(checkKey(userLocation));
+        table.computeIfAbsent(stored.getUserId(), userId -> new ConcurrentSkipListMap<>()).put(stored.getDateTime(), stored);
+        index(stored);
+    }
+
+    protected boolean putIfAbsent(UserLocation userLocation) {
+        UserLocation stored = copy(checkKey(userLocation));
+        if (table.computeIfAbsent(stored.getUserId(), userId -> new ConcurrentSkipListMap<>())
+                .putIfAbsent(stored.getDateTime(), stored) != null) {
+            return false;
+        }
+        index(stored);
+        return true;
+    }
+
+    /**
+     * @return The removed location, or null if none was stored under the key
+     */
+    protected UserLocation remove(String userId, String dateTime) {
+        ConcurrentSkipListMap<String, UserLocation> partition = table.get(userId);
+        UserLocation removed = partition != null ? partition.remove(dateTime) : null;
+        if (removed != null) {
+            ConcurrentSkipListMap<String, UserLocation> indexPartition = trackIndex.get(userId);
+            if (indexPartition != null) {
+                indexPartition.remove(dateTime);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Visits every stored location, without copying; the action must not modify them.
+     */
+    protected void forEachStoredLocation(Consumer<UserLocation> action) {
+        for (ConcurrentSkipListMap<String, UserLocation> partition : table.values()) {
+            partition.values().forEach(action);
+        }
+    }
+
+    // The index entry carries only the attributes user_track_index projects
+    private void index(UserLocation stored) {
+        trackIndex.computeIfAbsent(stored.getUserId(), userId -> new ConcurrentSkipListMap<>())
+                .put(stored.getDateTime(), project(stored, LocationField.TRACK_INDEX_FIELDS));
+    }
+
+    private boolean contains(String userId, String dateTime) {
+        ConcurrentSkipListMap<String, UserLocation> partition = table.get(userId);
+        return partition != null && dateTime != null && partition.containsKey(dateTime);
+    }
+
+    private Map<String, ConcurrentSkipListMap<String, UserLocation>> source(Set<LocationField> fields) {
+        return fields != null && LocationField.TRACK_INDEX_FIELDS.containsAll(fields) ? trackIndex : table;
+    }
+
+    private static NavigableMap<String, UserLocation> range(Map<String, ConcurrentSkipListMap<String, UserLocation>> source,
+                                                            String userId, String startTime, String endTime) {
+        ConcurrentSkipListMap<String, UserLocation> partition = source.get(userId);
+        if (partition == null || (startTime != null && endTime != null && startTime.compareTo(endTime) > 0)) {
+            return Collections.emptyNavigableMap();
+        }
+        if (startTime != null && endTime != null) {
+            return partition.subMap(startTime, true, endTime, true);
+        }
+        if (startTime != null) {
+            return partition.tailMap(startTime, true);
+        }
+        if (endTime != null) {
+            return partition.headMap(endTime, true);
+        }
+        return partition;
+    }
+
+    private List<UserLocation> query(Map<String, ConcurrentSkipListMap<String, UserLocation>> source, String userId,
+                                     String startTime, String endTime, Set<LocationField> fields) {
+        List<UserLocation> results = new ArrayList<>();
+        request();
+        for (UserLocation location : range(source, userId, startTime, endTime).values()) {
+            if (!results.isEmpty() && results.size() % PAGE_SIZE == 0) {
+                request();
+            }
+            results.add(fields != null ? project(location, fields) : copy(location));
+        }
+        return results;
+    }
+
+    // Query first, then delete in write batches, as DynamoDBService does
+    private List<UserLocation> deleteRange(String userId, String startTime, String endTime) {
+        List<UserLocation> locations = query(table, userId, startTime, endTime, null);
+        forEachBatchRequest(locations.size(), BATCH_WRITE_LIMIT, i -> remove(userId, locations.get(i).getDateTime()));
+        return locations;
+    }
+
+    // One simulated round trip: the configured latency, then possibly a throttling error
+    private void request() {
+        if (simulateRequest()) {
+            throw new ProvisionedThroughputExceededException("Simulated throttling by InMemoryLocationStore");
+        }
+    }
+
+    // Applies the latency and reports whether this request is throttled
+    private boolean simulateRequest() {
+        long latency = latencyNanos;
+        if (latency > 0) {
+            LockSupport.parkNanos(latency);
+        }
+        double rate = throttleRate;
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    // Splits items [0, size) into batch requests of at most limit items each
+    private void forEachBatchRequest(int size, int limit, IntConsumer operation) {
+        for (int from = 0; from < size; from += limit) {
+            int to = Math.min(from + limit, size);
+            int next = from;
+            // A throttled request processes only a prefix; the rest is resubmitted after a backoff
+            for (int attempt = 0; next < to; attempt++) {
+                DynamoDBService.backoff(attempt);
+                int processed = simulateRequest() ? next + ThreadLocalRandom.current().nextInt(to - next) : to;
+                for (; next < processed; next++) {
+                    operation.accept(next);
+                }
+            }
+        }
+    }
+
+    private static UserLocation checkKey(UserLocation userLocation) {
+        if (userLocation.getUserId() == null || userLocation.getDateTime() == null) {
+            throw new IllegalArgumentException("user_id and date_time are required to store a user location");
+        }
+        return userLocation;
+    }
+
+    private static void append(LocationBatch batch, UserLocation stored, Set<LocationField> fields) {
+        UserLocation location = fields != null ? project(stored, fields) : stored;
+        int row = batch.add(location.getUserId(), LocationBatch.parseDateTime(location.getDateTime()));
+        if (location.getLatitude() != null) {
+            batch.setLatitude(row, location.getLatitude());
+        }
+        if (location.getLongitude() != null) {
+            batch.setLongitude(row, location.getLongitude());
+        }
+        batch.setPrivate(row, location.getIsPrivate());
+        batch.setReal(row, location.getIsReal());
+        batch.setCreatedAt(row, location.getCreatedAt());
+        batch.setUpdatedAt(row, location.getUpdatedAt());
+    }
+
+    private static UserLocation project(UserLocation source, Set<LocationField> fields) {
+        UserLocation projected = new UserLocation();
+        for (LocationField field : fields) {
+            switch (field) {
+                case USER_ID:
+                    projected.setUserId(source.getUserId());
+                    break;
+                case DATE_TIME:
+                    projected.setDateTime(source.getDateTime());
+                    break;
+                case LATITUDE:
+                    projected.setLatitude(source.getLatitude());
+                    break;
+                case LONGITUDE:
+                    projected.setLongitude(source.getLongitude());
+                    break;
+                case IS_PRIVATE:
+                    projected.setIsPrivate(source.getIsPrivate());
+                    break;
+                case IS_REAL:
+                    projected.setIsReal(source.getIsReal());
+                    break;
+                case LAT_LONG:
+                    projected.setLatLong(source.getLatLong());
+                    break;
+                case CREATED_AT:
+                    projected.setCreatedAt(source.getCreatedAt());
+                    break;
+                case UPDATED_AT:
+                    projected.setUpdatedAt(source.getUpdatedAt());
+                    break;
+            }
+        }
+        return projected;
+    }
+
+    private static UserLocation copy(UserLocation source) {
+        UserLocation copy = new UserLocation();
+        copy.setUserId(source.getUserId());
+        copy.setDateTime(source.getDateTime());
+        copy.setLatitude(source.getLatitude());
+        copy.setLongitude(source.getLongitude());
+        copy.setIsPrivate(source.getIsPrivate());
+        copy.setIsReal(source.getIsReal());
+        copy.setLatLong(source.getLatLong());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,49 @@
+package com.mindthekid.geo.cqrs.shared.services;
+
+import com.mindthekid.models.UserLocation;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Durable hand-off between the create path and the write-behind consumer.
+ *
+ * When {@code INGEST_MODE=async} the create handler validates a location, enqueues it
+ * and acknowledges immediately; {@code IngestConsumerHandler} later drains the queue in
+ * large batches and writes them with the DynamoDB batch engine.
+ */
+public interface IngestQueue {
+
+    String INGEST_MODE_ENV = "INGEST_MODE";
+    String ASYNC_MODE = "async";
+
+    void enqueue(UserLocation userLocation);
+
+    void enqueueAll(List<UserLocation> userLocations);
+
+    /**
+     * Returns true when the environment asks the create path to write through the ingest queue.
+     */
+    static boolean isAsyncModeEnabled() {
+        return ASYNC_MODE.equalsIgnoreCase(System.getenv(INGEST_MODE_ENV));
+    }
+
+    /**
+     * Builds the queue configured for this environment: SQS when {@code INGEST_QUEUE_URL}
+     * is set, otherwise the file-backed stand-in at {@code INGEST_QUEUE_FILE}.
+     */
+    static IngestQueue fromEnvironment() {
+        String queueUrl = System.getenv(SqsIngestQueue.QUEUE_URL_ENV);
+        if (queueUrl != null && !queueUrl.trim().isEmpty()) {
+            return new SqsIngestQueue(queueUrl);
+        }
+
+        String queueFile = System.getenv(FileIngestQueue.QUEUE_FILE_ENV);
+        if (queueFile != null && !queueFile.trim().isEmpty()) {
+            return new FileIngestQueue(Paths.get(queueFile));
+        }
+
+        throw new IllegalStateException(SqsIngestQueue.QUEUE_URL_ENV + " or " + FileIngestQueue.QUEUE_FILE_ENV
+                + " environment variable is required when " + INGEST_MODE_ENV + "=" + ASYNC_MODE);
+    }
+}
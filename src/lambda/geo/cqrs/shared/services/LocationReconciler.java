@@ -0,0 +1,285 @@
+package com.mindthekid.geo.cqrs.shared.services;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.models.UserLocation;
+import com.mindthekid.utils.TimeKeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collapses duplicate points in an upload batch before it reaches DynamoDB.
+ *
+ * Devices that buffer offline tend to re-upload the same points, sometimes with a
+ * slightly different timestamp. Two points are treated as duplicates when they share
+ * (user_id, date_time), or when they belong to the same user, are within
+ * {@code timeEpsilonMillis} of each other and within {@code distanceMeters} apart.
+ * The first point in upload order wins.
+ */
+public class LocationReconciler {
+    
+    public static final String TIME_EPSILON_ENV = "RECONCILE_TIME_EPSILON_MS";
+    public static final String DISTANCE_METERS_ENV = "RECONCILE_DISTANCE_METERS";
+    
+    private static final long DEFAULT_TIME_EPSILON_MILLIS = 2000L;
+    private static final double DEFAULT_DISTANCE_METERS = 5.0;
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    private static final long UNKNOWN_TIME = Long.MIN_VALUE;
+    
+    private final long timeEpsilonMillis;
+    private final double distanceMeters;
+    
+    public LocationReconciler(long timeEpsilonMillis, double distanceMeters) {
+        this.timeEpsilonMillis = timeEpsilonMillis;
+        this.distanceMeters = distanceMeters;
+    }
+    
+    public static LocationReconciler fromEnvironment() {
+        return new LocationReconciler(
+            parseOrDefault(System.getenv(TIME_EPSILON_ENV), DEFAULT_TIME_EPSILON_MILLIS),
+            parseOrDefault(System.getenv(DISTANCE_METERS_ENV), DEFAULT_DISTANCE_METERS));
+    }
+    
+    public Result reconcile(List<UserLocation> userLocations) {
+        // Pass 1: exact (user_id, date_time) duplicates
+        Set<String> seenKeys = new HashSet<>();
+        List<Point> points = new ArrayList<>(userLocations.size());
+        for (int i = 0; i < userLocations.size(); i++) {
+            UserLocation location = userLocations.get(i);
+            if (seenKeys.add(location.getUserId() + '\n' + location.getDateTime())) {
+                points.add(new Point(i, location, parseEpochMillis(location.getDateTime())));
+            }
+        }
+        
+        // Pass 2: near-duplicates, compared against the last kept point of the same user in time order
+        List<Point> ordered = new ArrayList<>(points);
+        ordered.sort(Comparator.comparing((Point p) -> p.location.getUserId())
+            .thenComparingLong(p -> p.epochMillis)
+            .thenComparingInt(p -> p.index));
+        
+        List<Point> kept = new ArrayList<>(ordered.size());
+        Point lastKept = null;
+        for (Point point : ordered) {
+            if (lastKept != null && isNearDuplicate(lastKept, point)) {
+                // Keep whichever of the pair arrived first in the upload
+                if (point.index < lastKept.index) {
+                    kept.set(kept.size() - 1, point);
+                    lastKept = point;
+                }
+                continue;
+            }
+            kept.add(point);
+            lastKept = point;
+        }
+        
+        kept.sort(Comparator.comparingInt(p -> p.index));
+        List<UserLocation> reconciled = new ArrayList<>(kept.size());
+        for (Point point : kept) {
+            reconciled.add(point.location);
+        }
+        
+        return new Result(reconciled, userLocations.size() - reconciled.size());
+    }
+    
+    /**
+     * Columnar variant of {@link #reconcile(List)} with the same rules, working on row
+     * indexes instead of per-point objects.
+     *
+     * @return The kept rows, in upload order
+     */
+    public LocationBatch reconcile(LocationBatch batch) {
+        int size = batch.size();
+        
+        // Rows grouped by user (stable, so upload order is kept within a user), then ordered by time
+        int[] rows = new int[size];
+        int[] userStarts = groupRowsByUser(batch, rows);
+        int[] scratch = new int[size];
+        for (int u = 0; u + 1 < userStarts.length; u++) {
+            sortByTime(batch, rows, userStarts[u], userStarts[u + 1], scratch);
+        }
+        
+        BitSet kept = new BitSet(size);
+        for (int u = 0; u + 1 < userStarts.length; u++) {
+            int lastKept = -1;
+            for (int i = userStarts[u]; i < userStarts[u + 1]; i++) {
+                int row = rows[i];
+                if (i > userStarts[u] && isExactDuplicate(batch, rows[i - 1], row)) {
+                    // Same (user_id, date_time) as the previous row, which arrived earlier
+                    continue;
+                }
+                if (lastKept >= 0 && isNearDuplicate(batch, lastKept, row)) {
+                    // Keep whichever of the pair arrived first in the upload
+                    if (row < lastKept) {
+                        kept.clear(lastKept);
+                        kept.set(row);
+                        lastKept = row;
+                    }
+                    continue;
+                }
+                kept.set(row);
+                lastKept = row;
+            }
+        }
+        
+        return batch.select(kept);
+    }
+    
+    // Counting sort of row indexes by user; returns each group's start offset followed by the total size
+    private static int[] groupRowsByUser(LocationBatch batch, int[] rows) {
+        int size = batch.size();
+        // Group 0 holds rows without a user id, group ref + 1 the rows of each user
+        int groups = 1;
+        for (int row = 0; row < size; row++) {
+            groups = Math.max(groups, batch.getUserRef(row) + 2);
+        }
+        int[] starts = new int[groups + 1];
+        for (int row = 0; row < size; row++) {
+            starts[batch.getUserRef(row) + 2]++;
+        }
+        for (int g = 1; g <= groups; g++) {
+            starts[g] += starts[g - 1];
+        }
+        int[] next = Arrays.copyOf(starts, groups);
+        for (int row = 0; row < size; row++) {
+            rows[next[batch.getUserRef(row) + 1]++] = row;
+        }
+        return starts;
+    }
+    
+    // Stable merge sort of rows[from, to) by date_time, so equal times stay in upload order
+    private static void sortByTime(LocationBatch batch, int[] rows, int from, int to, int[] scratch) {
+        for (int width = 1; width < to - from; width *= 2) {
+            for (int left = from; left < to - width; left += 2 * width) {
+                int mid = left + width;
+                int right = Math.min(left + 2 * width, to);
+                if (sortTime(batch, rows[mid - 1]) <= sortTime(batch, rows[mid])) {
+                    // Already ordered, the common case for device uploads
+                    continue;
+                }
+                int i = left;
+                int j = mid;
+                int k = left;
+                while (i < mid && j < right) {
+                    scratch[k++] = sortTime(batch, rows[j]) < sortTime(batch, rows[i]) ? rows[j++] : rows[i++];
+                }
+                while (i < mid) {
+                    scratch[k++] = rows[i++];
+                }
+                while (j < right) {
+                    scratch[k++] = rows[j++];
+                }
+                System.arraycopy(scratch, left, rows, left, right - left);
+            }
+        }
+    }
+    
+    private static long sortTime(LocationBatch batch, int row) {
+        return batch.hasValidDateTime(row) ? batch.getDateTimeMillis(row) : UNKNOWN_TIME;
+    }
+    
+    private static boolean isExactDuplicate(LocationBatch batch, int a, int b) {
+        return batch.getUserRef(a) == batch.getUserRef(b) && batch.getDateTimeMillis(a) == batch.getDateTimeMillis(b);
+    }
+    
+    private boolean isNearDuplicate(LocationBatch batch, int a, int b) {
+        if (batch.getUserRef(a) != batch.getUserRef(b) || batch.getUserRef(a) < 0) {
+            return false;
+        }
+        if (!batch.hasValidDateTime(a) || !batch.hasValidDateTime(b)) {
+            return false;
+        }
+        if (Math.abs(batch.getDateTimeMillis(b) - batch.getDateTimeMillis(a)) > timeEpsilonMillis) {
+            return false;
+        }
+        if (!batch.hasLatitude(a) || !batch.hasLongitude(a) || !batch.hasLatitude(b) || !batch.hasLongitude(b)) {
+            return false;
+        }
+        return distanceMeters(batch.getLatitude(a), batch.getLongitude(a), batch.getLatitude(b), batch.getLongitude(b)) <= distanceMeters;
+    }
+    
+    private boolean isNearDuplicate(Point a, Point b) {
+        if (!a.location.getUserId().equals(b.location.getUserId())) {
+            return false;
+        }
+        if (a.epochMillis == UNKNOWN_TIME || b.epochMillis == UNKNOWN_TIME) {
+            return false;
+        }
+        if (Math.abs(b.epochMillis - a.epochMillis) > timeEpsilonMillis) {
+            return false;
+        }
+        UserLocation la = a.location;
+        UserLocation lb = b.location;
+        if (la.getLatitude() == null || la.getLongitude() == null
+                || lb.getLatitude() == null || lb.getLongitude() == null) {
+            return false;
+        }
+        return distanceMeters(la.getLatitude(), la.getLongitude(), lb.getLatitude(), lb.getLongitude()) <= distanceMeters;
+    }
+    
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        // Haversine great-circle distance
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+    
+    private static long parseEpochMillis(String dateTime) {
+        if (dateTime == null) {
+            return UNKNOWN_TIME;
+        }
+        try {
+            return TimeKeys.parseEpochMillis(dateTime);
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_TIME;
+        }
+    }
+    
+    private static long parseOrDefault(String value, long defaultValue) {
+        return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+    }
+    
+    private static double parseOrDefault(String value, double defaultValue) {
+        return value == null || value.trim().isEmpty() ? defaultValue : Double.parseDouble(value.trim());
+    }
+    
+    private static final class Point {
+        private final int index;
+        private final UserLocation location;
+        private final long epochMillis;
+        
+        private Point(int index, UserLocation location, long epochMillis) {
+            this.index = index;
+            this.location = location;
+            this.epochMillis = epochMillis;
+        }
+    }
+    
+    /**
+     * Outcome of reconciling one upload batch.
+     */
+    public static final class Result {
+        private final List<UserLocation> locations;
+        private final int duplicatesSkipped;
+        
+        public Result(List<UserLocation> locations, int duplicatesSkipped) {
+            this.locations = Collections.unmodifiableList(locations);
+            this.duplicatesSkipped = duplicatesSkipped;
+        }
+        
+        public List<UserLocation> getLocations() {
+            return locations;
+        }
+        
+        public int getDuplicatesSkipped() {
+            return duplicatesSkipped;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.mindthekid.geo.cqrs.shared.services;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.RangeVersion;
+import com.mindthekid.models.UserLocation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Storage contract of the geo CQRS handlers: user locations keyed by (user_id, date_time).
+ *
+ * {@link DynamoDBService} is the production implementation. {@link InMemoryLocationStore}
+ * and the file-backed {@link FileLocationStore} stand in for it in tests, benchmarks and
+ * the local server. Time bounds are canonical {@code date_time} keys and are inclusive;
+ * results are in ascending {@code date_time} order.
+ */
+public interface LocationStore extends AutoCloseable {
+
+    // Single operations
+    void saveUserLocation(UserLocation userLocation);
+
+    /**
+     * Writes the location only if no item exists for its (user_id, date_time) key, so
+     * re-uploaded points never overwrite the stored copy or reset its created_at.
+     *
+     * @return true if the location was written, false if it already existed
+     */
+    boolean saveUserLocationIfAbsent(UserLocation userLocation);
+
+    UserLocation getUserLocation(String userId, String dateTime);
+
+    void deleteUserLocation(String userId, String dateTime);
+
+    // Bulk operations
+    List<UserLocation> bulkSaveUserLocations(List<UserLocation> userLocations);
+
+    /**
+     * Bulk variant of {@link #saveUserLocationIfAbsent}: keys that already exist are skipped.
+     *
+     * @return The locations that were written
+     */
+    List<UserLocation> bulkSaveNewUserLocations(List<UserLocation> userLocations);
+
+    List<UserLocation> getAllUserLocations(String userId);
+
+    List<UserLocation> getUserLocationsByTimeRange(String userId, String startTime, String endTime);
+
+    List<UserLocation> getUserLocationsFromTime(String userId, String startTime);
+
+    List<UserLocation> getUserLocationsUpToTime(String userId, String endTime);
+
+    /**
+     * Queries a user's locations with optional time bounds, reading only the requested fields.
+     *
+     * @param startTime Inclusive lower bound, or null
+     * @param endTime Inclusive upper bound, or null
+     * @param fields Fields to project, or null for all attributes
+     */
+    List<UserLocation> queryUserLocations(String userId, String startTime, String endTime, Set<LocationField> fields);
+
+    /**
+     * Summarizes a user's range as the version marker for conditional GETs.
+     *
+     * @return The item count and newest updated_at of the range; a count of 0 if it is empty
+     */
+    RangeVersion getRangeVersion(String userId, String startTime, String endTime);
+
+    /**
+     * Columnar variant of {@link #queryUserLocations}: reads the whole range into a
+     * {@link LocationBatch}, without a {@code UserLocation} per item.
+     */
+    LocationBatch queryLocationBatch(String userId, String startTime, String endTime, Set<LocationField> fields);
+
+    /**
+     * Streaming variant of {@link #queryLocationBatch}: hands the range to the consumer
+     * page by page, refilling one batch, so memory is bounded by the page size.
+     */
+    void forEachLocationPage(String userId, String startTime, String endTime, Set<LocationField> fields,
+                             LocationPageConsumer consumer) throws IOException;
+
+    /**
+     * Columnar variant of {@link #bulkSaveNewUserLocations}: rows whose key already exists
+     * are skipped. Keys must be distinct within the batch.
+     *
+     * @return The rows that were written
+     */
+    LocationBatch bulkSaveNewLocations(LocationBatch batch);
+
+    /**
+     * @return The deleted locations
+     */
+    List<UserLocation> deleteAllUserLocations(String userId);
+
+    List<UserLocation> deleteUserLocationsByTimeRange(String userId, String startTime, String endTime);
+
+    List<UserLocation> deleteUserLocationsFromTime(String userId, String startTime);
+
+    List<UserLocation> deleteUserLocationsUpToTime(String userId, String endTime);
+
+    @Override
+    void close();
+
+    /**
+     * Receives the pages of {@link #forEachLocationPage}; the batch is reused for the next page.
+     */
+    @FunctionalInterface
+    interface LocationPageConsumer {
+        void accept(LocationBatch page) throws IOException;
+    }
+}
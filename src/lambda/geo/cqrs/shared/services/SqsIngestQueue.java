@@ -0,0 +1,76 @@
+package com.mindthekid.geo.cqrs.shared.services;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.models.UserLocation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SqsIngestQueue implements IngestQueue {
+
+    public static final String QUEUE_URL_ENV = "INGEST_QUEUE_URL";
+
+    // SQS SendMessageBatch limit
+    private static final int MAX_BATCH_SIZE = 10;
+
+    private final AmazonSQS sqsClient;
+    private final String queueUrl;
+
+    public SqsIngestQueue(String queueUrl) {
+        this(AmazonSQSClientBuilder.standard().build(), queueUrl);
+    }
+
+    public SqsIngestQueue(AmazonSQS sqsClient, String queueUrl) {
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+    }
+
+    @Override
+    public void enqueue(UserLocation userLocation) {
+        sqsClient.sendMessage(new SendMessageRequest()
+                .withQueueUrl(queueUrl)
+                .withMessageBody(toMessageBody(userLocation)));
+    }
+
+    @Override
+    public void enqueueAll(List<UserLocation> userLocations) {
+        for (int i = 0; i < userLocations.size(); i += MAX_BATCH_SIZE) {
+            int endIndex = Math.min(i + MAX_BATCH_SIZE, userLocations.size());
+
+            List<SendMessageBatchRequestEntry> entries = new ArrayList<>(endIndex - i);
+            for (int j = i; j < endIndex; j++) {
+                entries.add(new SendMessageBatchRequestEntry()
+                        .withId(Integer.toString(j))
+                        .withMessageBody(toMessageBody(userLocations.get(j))));
+            }
+
+            SendMessageBatchResult result = sqsClient.sendMessageBatch(new SendMessageBatchRequest()
+                    .withQueueUrl(queueUrl)
+                    .withEntries(entries));
+
+            if (!result.getFailed().isEmpty()) {
+                throw new IllegalStateException("Failed to enqueue " + result.getFailed().size()
+                        + " user locations: " + result.getFailed().get(0).getMessage());
+            }
+        }
+    }
+
+    public String getQueueUrl() {
+        return queueUrl;
+    }
+
+    private String toMessageBody(UserLocation userLocation) {
+        try {
+            return LocationJsonCodec.writeLocation(userLocation);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialize user location for ingest queue", e);
+        }
+    }
+}
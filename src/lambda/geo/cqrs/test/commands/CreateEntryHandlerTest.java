@@ -4,9 +4,10 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mindthekid.cqrs.commands.CreateEntryHandler;
+import com.mindthekid.geo.cqrs.commands.CreateEntryHandler;
 import com.mindthekid.models.UserLocation;
-import com.mindthekid.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.IngestQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,9 @@ class CreateEntryHandlerTest {
     @Mock
     private DynamoDBService dynamoDBService;
 
+    @Mock
+    private IngestQueue ingestQueue;
+
     private CreateEntryHandler handler;
     private ObjectMapper objectMapper;
 
@@ -295,4 +299,30 @@ class CreateEntryHandlerTest {
         assertNotNull(response.getHeaders());
         assertEquals("application/json", response.getHeaders().get("Content-Type"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testAsyncCreateEntryEnqueuesAndAccepts() throws Exception {
+        // Arrange
+        UserLocation userLocation = new UserLocation();
+        userLocation.setUserId("user123");
+        userLocation.setDateTime("2024-01-01T12:00:00Z");
+        userLocation.setLatitude(40.7128);
+        userLocation.setLongitude(-74.0060);
+
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setBody(objectMapper.writeValueAsString(userLocation));
+        request.setHeaders(new HashMap<>());
+
+        CreateEntryHandler asyncHandler = new CreateEntryHandler(dynamoDBService, ingestQueue);
+
+        // Act
+        APIGatewayProxyResponseEvent response = asyncHandler.handleRequest(request, context);
+
+        // Assert
+        assertEquals(202, response.getStatusCode());
+        assertTrue(response.getBody().contains("User location accepted for processing"));
+        verify(ingestQueue).enqueue(argThat(location ->
+            "user123".equals(location.getUserId()) && "40.7128,-74.006".equals(location.getLatLong())));
+        verifyNoInteractions(dynamoDBService);
+    }
+}
@@ -0,0 +1,204 @@
+package com.mindthekid.geo.cqrs.test.commands;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.mindthekid.geo.cqrs.commands.IngestConsumerHandler;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.FileIngestQueue;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestConsumerHandlerTest {
+
+    @Mock
+    private Context context;
+
+    @Mock
+    private LambdaLogger logger;
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    private IngestConsumerHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new IngestConsumerHandler(dynamoDBService);
+    }
+
+    @Test
+    void testHandleRequestDeduplicatesByUserAndDateTime() throws Exception {
+        // Arrange
+        SQSEvent event = new SQSEvent();
+        event.setRecords(Arrays.asList(
+            message("1", createLocation("user123", "2024-01-01T12:00:00Z", 40.7128)),
+            message("2", createLocation("user123", "2024-01-01T12:00:00Z", 40.7130)),
+            message("3", createLocation("user123", "2024-01-01T13:00:00Z", 40.7140))
+        ));
+
+        when(context.getLogger()).thenReturn(logger);
+        when(dynamoDBService.bulkSaveNewLocations(any(LocationBatch.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        handler.handleRequest(event, context);
+
+        // Assert
+        ArgumentCaptor<LocationBatch> captor = ArgumentCaptor.forClass(LocationBatch.class);
+        verify(dynamoDBService).bulkSaveNewLocations(captor.capture());
+
+        LocationBatch written = captor.getValue();
+        assertEquals(2, written.size());
+        assertEquals(40.7130, written.getLatitude(0));
+        assertNotNull(written.getCreatedAt(0));
+        assertNotNull(written.getUpdatedAt(0));
+    }
+
+    @Test
+    void testHandleRequestSkipsUnreadableMessages() throws Exception {
+        // Arrange
+        SQSEvent.SQSMessage bad = new SQSEvent.SQSMessage();
+        bad.setMessageId("bad");
+        bad.setBody("{ invalid json }");
+
+        SQSEvent event = new SQSEvent();
+        event.setRecords(Arrays.asList(bad, message("2", createLocation("user123", "2024-01-01T12:00:00Z", 40.7128))));
+
+        when(context.getLogger()).thenReturn(logger);
+        when(dynamoDBService.bulkSaveNewLocations(any(LocationBatch.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        handler.handleRequest(event, context);
+
+        // Assert
+        verify(logger).log(contains("Skipping unreadable ingest message bad"));
+        verify(dynamoDBService).bulkSaveNewLocations(argThat(batch -> batch.size() == 1));
+    }
+
+    @Test
+    void testHandleRequestWithNoRecords() {
+        // Act
+        handler.handleRequest(new SQSEvent(), context);
+
+        // Assert
+        verifyNoInteractions(dynamoDBService);
+    }
+
+    @Test
+    void testProcessDrainsFileQueue(@TempDir Path tempDir) {
+        // Arrange
+        FileIngestQueue queue = new FileIngestQueue(tempDir.resolve("ingest.jsonl"));
+        queue.enqueue(createLocation("user123", "2024-01-01T12:00:00Z", 40.7128));
+        queue.enqueue(createLocation("user123", "2024-01-01T13:00:00Z", 40.7130));
+        queue.enqueue(createLocation("user456", "2024-01-01T13:00:00Z", 40.7140));
+
+        when(dynamoDBService.bulkSaveNewLocations(any(LocationBatch.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        int written = handler.process(queue.drain(2));
+
+        // Assert
+        assertEquals(2, written);
+        assertEquals(1, queue.size());
+        assertEquals("user456", queue.drain(10).get(0).getUserId());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testHandleRequestResubmitsUnprocessedItems() throws Exception {
+        // Arrange
+        AmazonDynamoDB dynamoDB = mock(AmazonDynamoDB.class);
+        when(dynamoDB.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(new BatchGetItemResult().withResponses(Collections.emptyMap()));
+        // The first call leaves every item unprocessed, as a throttled table does
+        when(dynamoDB.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenAnswer(invocation -> new BatchWriteItemResult().withUnprocessedItems(
+                        ((BatchWriteItemRequest) invocation.getArgument(0)).getRequestItems()))
+                .thenReturn(new BatchWriteItemResult().withUnprocessedItems(Collections.emptyMap()));
+        IngestConsumerHandler consumer = new IngestConsumerHandler(new DynamoDBService(dynamoDB, "user_locations"));
+
+        SQSEvent event = new SQSEvent();
+        event.setRecords(Arrays.asList(message("1", createLocation("user123", "2024-01-01T12:00:00Z", 40.7128))));
+        when(context.getLogger()).thenReturn(logger);
+
+        // Act
+        consumer.handleRequest(event, context);
+
+        // Assert
+        verify(dynamoDB, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+        verify(logger).log(contains("Ingested 1 user locations"));
+    }
+
+    @Test
+    void testHandleRequestFailsWhenItemsStayUnprocessed() throws Exception {
+        // Arrange
+        AmazonDynamoDB dynamoDB = mock(AmazonDynamoDB.class);
+        when(dynamoDB.batchGetItem(any(BatchGetItemRequest.class))).thenReturn(new BatchGetItemResult().withResponses(Collections.emptyMap()));
+        when(dynamoDB.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(invocation ->
+                new BatchWriteItemResult().withUnprocessedItems(((BatchWriteItemRequest) invocation.getArgument(0)).getRequestItems()));
+        IngestConsumerHandler consumer = new IngestConsumerHandler(new DynamoDBService(dynamoDB, "user_locations"));
+
+        SQSEvent event = new SQSEvent();
+        event.setRecords(Arrays.asList(message("1", createLocation("user123", "2024-01-01T12:00:00Z", 40.7128))));
+
+        // Act & Assert: the invocation fails so SQS redelivers instead of deleting the message
+        assertThrows(IllegalStateException.class, () -> consumer.handleRequest(event, context));
+        verify(logger, never()).log(contains("Ingested"));
+    }
+
+    @Test
+    void testFileQueueRoundTripsTimestamps(@TempDir Path tempDir) {
+        // Arrange
+        FileIngestQueue queue = new FileIngestQueue(tempDir.resolve("ingest.jsonl"));
+        UserLocation location = createLocation("user123", "2024-01-01T12:00:00Z", 40.7128);
+        location.setCreatedAt(Instant.parse("2024-01-01T12:00:01.123456789Z"));
+        location.setUpdatedAt(Instant.parse("2024-01-01T12:00:02Z"));
+
+        // Act
+        queue.enqueue(location);
+        UserLocation drained = queue.drain(1).get(0);
+
+        // Assert
+        assertEquals(location.getCreatedAt(), drained.getCreatedAt());
+        assertEquals(location.getUpdatedAt(), drained.getUpdatedAt());
+    }
+
+    private SQSEvent.SQSMessage message(String messageId, UserLocation location) throws Exception {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(messageId);
+        message.setBody(LocationJsonCodec.writeLocation(location));
+        return message;
+    }
+
+    private UserLocation createLocation(String userId, String dateTime, double latitude) {
+        UserLocation location = new UserLocation();
+        location.setUserId(userId);
+        location.setDateTime(dateTime);
+        location.setLatitude(latitude);
+        location.setLongitude(-74.0060);
+        return location;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mindthekid.geo.cqrs.test.infrastructure;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.mindthekid.geo.cqrs.infrastructure.RouterHandler;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouterHandlerTest {
+
+    @Mock
+    private Context context;
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    private RouterHandler router;
+
+    @BeforeEach
+    void setUp() {
+        router = new RouterHandler(dynamoDBService);
+    }
+
+    @Test
+    void testRoutesByResourceTemplate() {
+        // Arrange
+        APIGatewayProxyRequestEvent request = createRequest("GET", "/api/v1/locations/user123/2024-01-01T12:00:00Z");
+        request.setResource(RouterHandler.USER_LOCATION);
+        Map<String, String> pathParameters = new HashMap<>();
+        pathParameters.put("userId", "user123");
+        pathParameters.put("dateTime", "2024-01-01T12:00:00Z");
+        request.setPathParameters(pathParameters);
+
+        UserLocation location = new UserLocation();
+        location.setUserId("user123");
+        location.setDateTime("2024-01-01T12:00:00.000Z");
+        when(dynamoDBService.getUserLocation("user123", "2024-01-01T12:00:00.000Z")).thenReturn(location);
+
+        // Act
+        APIGatewayProxyResponseEvent response = router.handleRequest(request, context);
+
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        verify(dynamoDBService).getUserLocation("user123", "2024-01-01T12:00:00.000Z");
+    }
+
+    @Test
+    void testRoutesByPathAndFillsPathParameters() {
+        // Arrange - a {proxy+} integration only carries the raw path
+        APIGatewayProxyRequestEvent request = createRequest("DELETE", "/api/v1/locations/user123/2024-01-01T12%3A00%3A00%2B01%3A00");
+
+        // Act
+        router.handleRequest(request, context);
+
+        // Assert
+        assertEquals("user123", request.getPathParameters().get("userId"));
+        assertEquals("2024-01-01T12:00:00+01:00", request.getPathParameters().get("dateTime"));
+        verify(dynamoDBService).getUserLocation("user123", "2024-01-01T11:00:00.000Z");
+    }
+
+    @Test
+    void testUnknownPathReturnsNotFound() {
+        // Act
+        APIGatewayProxyResponseEvent response = router.handleRequest(createRequest("GET", "/api/v1/users/user123"), context);
+
+        // Assert
+        assertEquals(404, response.getStatusCode());
+        verifyNoInteractions(dynamoDBService);
+    }
+
+    @Test
+    void testUnsupportedMethodReturnsMethodNotAllowed() {
+        // Act
+        APIGatewayProxyResponseEvent response = router.handleRequest(createRequest("PUT", "/api/v1/locations/user123"), context);
+
+        // Assert
+        assertEquals(405, response.getStatusCode());
+        assertTrue(response.getBody().contains("Method PUT not allowed"));
+        verifyNoInteractions(dynamoDBService);
+    }
+
+    private APIGatewayProxyRequestEvent createRequest(String method, String path) {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setHttpMethod(method);
+        request.setPath(path);
+
+        Map<String, Object> authorizerContext = new HashMap<>();
+        authorizerContext.put("userId", "user123");
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setAuthorizer(authorizerContext);
+        request.setRequestContext(requestContext);
+        return request;
+    }
+}
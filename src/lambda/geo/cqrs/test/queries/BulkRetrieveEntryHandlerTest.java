@@ -8,7 +8,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindthekid.models.UserLocation;
 import com.mindthekid.geo.cqrs.queries.BulkRetrieveEntryHandler;
 import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.RangeVersion;
 import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.InMemoryLocationStore;
+import com.mindthekid.utils.ETags;
+import com.mindthekid.utils.TimeKeys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +22,8 @@ import org.mockito.Mock;
 import org.mockito.MockedConstruction;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,7 +47,8 @@ class BulkRetrieveEntryHandlerTest {
     
     @BeforeEach
     void setUp() {
-        when(context.getLogger()).thenReturn(logger);
+        // Only failing requests log
+        lenient().when(context.getLogger()).thenReturn(logger);
         objectMapper = new ObjectMapper();
     }
     
@@ -253,7 +262,7 @@ class BulkRetrieveEntryHandlerTest {
         
         try (MockedConstruction<DynamoDBService> mockedConstruction = 
                 mockConstruction(DynamoDBService.class, (mock, context) -> {
-                    when(mock.getAllUserLocations(userId)).thenReturn(mockLocations);
+                    stubPages(mock, userId, null, null, null, mockLocations);
                 })) {
             
             handler = new BulkRetrieveEntryHandler();
@@ -269,7 +278,7 @@ class BulkRetrieveEntryHandlerTest {
             
             // Verify the service was called correctly
             DynamoDBService service = mockedConstruction.constructed().get(0);
-            verify(service).getAllUserLocations(userId);
+            verify(service).forEachLocationPage(eq(userId), isNull(), isNull(), isNull(), any());
         }
     }
     
@@ -303,7 +312,7 @@ class BulkRetrieveEntryHandlerTest {
         
         try (MockedConstruction<DynamoDBService> mockedConstruction = 
                 mockConstruction(DynamoDBService.class, (mock, context) -> {
-                    when(mock.getUserLocationsByTimeRange(userId, startTime, endTime)).thenReturn(mockLocations);
+                    stubPages(mock, userId, TimeKeys.normalize(startTime), TimeKeys.normalize(endTime), null, mockLocations);
                 })) {
             
             handler = new BulkRetrieveEntryHandler();
@@ -318,7 +327,7 @@ class BulkRetrieveEntryHandlerTest {
             
             // Verify the service was called correctly
             DynamoDBService service = mockedConstruction.constructed().get(0);
-            verify(service).getUserLocationsByTimeRange(userId, startTime, endTime);
+            verify(service).forEachLocationPage(eq(userId), eq(TimeKeys.normalize(startTime)), eq(TimeKeys.normalize(endTime)), isNull(), any());
         }
     }
     
@@ -350,7 +359,7 @@ class BulkRetrieveEntryHandlerTest {
         
         try (MockedConstruction<DynamoDBService> mockedConstruction = 
                 mockConstruction(DynamoDBService.class, (mock, context) -> {
-                    when(mock.getUserLocationsFromTime(userId, startTime)).thenReturn(mockLocations);
+                    stubPages(mock, userId, TimeKeys.normalize(startTime), null, null, mockLocations);
                 })) {
             
             handler = new BulkRetrieveEntryHandler();
@@ -365,7 +374,7 @@ class BulkRetrieveEntryHandlerTest {
             
             // Verify the service was called correctly
             DynamoDBService service = mockedConstruction.constructed().get(0);
-            verify(service).getUserLocationsFromTime(userId, startTime);
+            verify(service).forEachLocationPage(eq(userId), eq(TimeKeys.normalize(startTime)), isNull(), isNull(), any());
         }
     }
     
@@ -397,7 +406,7 @@ class BulkRetrieveEntryHandlerTest {
         
         try (MockedConstruction<DynamoDBService> mockedConstruction = 
                 mockConstruction(DynamoDBService.class, (mock, context) -> {
-                    when(mock.getUserLocationsUpToTime(userId, endTime)).thenReturn(mockLocations);
+                    stubPages(mock, userId, null, TimeKeys.normalize(endTime), null, mockLocations);
                 })) {
             
             handler = new BulkRetrieveEntryHandler();
@@ -412,7 +421,7 @@ class BulkRetrieveEntryHandlerTest {
             
             // Verify the service was called correctly
             DynamoDBService service = mockedConstruction.constructed().get(0);
-            verify(service).getUserLocationsUpToTime(userId, endTime);
+            verify(service).forEachLocationPage(eq(userId), isNull(), eq(TimeKeys.normalize(endTime)), isNull(), any());
         }
     }
     
@@ -475,7 +484,7 @@ class BulkRetrieveEntryHandlerTest {
         
         try (MockedConstruction<DynamoDBService> mockedConstruction = 
                 mockConstruction(DynamoDBService.class, (mock, context) -> {
-                    when(mock.getAllUserLocations(userId)).thenReturn(mockLocations);
+                    stubPages(mock, userId, null, null, null, mockLocations);
                 })) {
             
             handler = new BulkRetrieveEntryHandler();
@@ -511,7 +520,7 @@ class BulkRetrieveEntryHandlerTest {
         
         try (MockedConstruction<DynamoDBService> mockedConstruction = 
                 mockConstruction(DynamoDBService.class, (mock, context) -> {
-                    when(mock.getAllUserLocations(userId)).thenThrow(new RuntimeException("Database error"));
+                    doThrow(new RuntimeException("Database error")).when(mock).forEachLocationPage(eq(userId), isNull(), isNull(), isNull(), any());
                 })) {
             
             handler = new BulkRetrieveEntryHandler();
@@ -552,7 +561,7 @@ class BulkRetrieveEntryHandlerTest {
         
         try (MockedConstruction<DynamoDBService> mockedConstruction = 
                 mockConstruction(DynamoDBService.class, (mock, context) -> {
-                    when(mock.getAllUserLocations(userId)).thenReturn(mockLocations);
+                    stubPages(mock, userId, null, null, null, mockLocations);
                 })) {
             
             handler = new BulkRetrieveEntryHandler();
@@ -567,6 +576,308 @@ class BulkRetrieveEntryHandlerTest {
         }
     }
     
+    @Test
+    void testHandleRequest_SparseFields() throws Exception {
+        // Arrange
+        String userId = "user123";
+        UserLocation location = new UserLocation();
+        location.setUserId(userId);
+        location.setDateTime("2024-01-01T10:00:00.000Z");
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        Set<LocationField> fields = EnumSet.of(LocationField.DATE_TIME, LocationField.LATITUDE, LocationField.LONGITUDE);
+        
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        Map<String, String> pathParams = new HashMap<>();
+        pathParams.put("userId", userId);
+        request.setPathParameters(pathParams);
+        
+        Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("fields", "dateTime,latitude,longitude");
+        request.setQueryStringParameters(queryParams);
+        
+        Map<String, Object> authorizerContext = new HashMap<>();
+        authorizerContext.put("userId", userId);
+        
+        APIGatewayProxyRequestEvent.RequestContext requestContext = new APIGatewayProxyRequestEvent.RequestContext();
+        requestContext.setAuthorizer(authorizerContext);
+        request.setRequestContext(requestContext);
+        
+        try (MockedConstruction<DynamoDBService> mockedConstruction = 
+                mockConstruction(DynamoDBService.class, (mock, context) -> {
+                    stubPages(mock, userId, null, null, fields, List.of(location));
+                    // Projections omit updated_at, so the tag comes from the store
+                    when(mock.getRangeVersion(userId, null, null)).thenReturn(new RangeVersion(1, null));
+                })) {
+            
+            handler = new BulkRetrieveEntryHandler();
+            
+            // Act
+            APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+            
+            // Assert
+            assertEquals(200, response.getStatusCode());
+            assertTrue(response.getBody().contains("\"dateTime\":\"2024-01-01T10:00:00.000Z\""));
+            assertTrue(response.getBody().contains("\"latitude\":40.7128"));
+            assertFalse(response.getBody().contains("\"userId\""));
+            assertFalse(response.getBody().contains("\"isPrivate\""));
+            
+            DynamoDBService service = mockedConstruction.constructed().get(0);
+            verify(service).forEachLocationPage(eq(userId), isNull(), isNull(), eq(fields), any());
+            verify(service, never()).getAllUserLocations(anyString());
+        }
+    }
+    
+    @Test
+    void testHandleRequest_UnknownField() throws Exception {
+        // Arrange
+        String userId = "user123";
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        Map<String, String> pathParams = new HashMap<>();
+        pathParams.put("userId", userId);
+        request.setPathParameters(pathParams);
+        
+        Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("fields", "dateTime,altitude");
+        request.setQueryStringParameters(queryParams);
+        
+        Map<String, Object> authorizerContext = new HashMap<>();
+        authorizerContext.put("userId", userId);
+        
+        APIGatewayProxyRequestEvent.RequestContext requestContext = new APIGatewayProxyRequestEvent.RequestContext();
+        requestContext.setAuthorizer(authorizerContext);
+        request.setRequestContext(requestContext);
+        
+        try (MockedConstruction<DynamoDBService> mockedConstruction = mockConstruction(DynamoDBService.class)) {
+            handler = new BulkRetrieveEntryHandler();
+            
+            // Act
+            APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+            
+            // Assert
+            assertEquals(400, response.getStatusCode());
+            assertTrue(response.getBody().contains("Unknown field: altitude"));
+            verifyNoInteractions(mockedConstruction.constructed().get(0));
+        }
+    }
+    
+    @Test
+    void testHandleRequest_NotModified() throws Exception {
+        // Arrange
+        String userId = "user123";
+        UserLocation latest = new UserLocation();
+        latest.setUserId(userId);
+        latest.setDateTime("2024-01-01T10:00:00.000Z");
+        
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        Map<String, String> pathParams = new HashMap<>();
+        pathParams.put("userId", userId);
+        request.setPathParameters(pathParams);
+        
+        Map<String, Object> authorizerContext = new HashMap<>();
+        authorizerContext.put("userId", userId);
+        
+        APIGatewayProxyRequestEvent.RequestContext requestContext = new APIGatewayProxyRequestEvent.RequestContext();
+        requestContext.setAuthorizer(authorizerContext);
+        request.setRequestContext(requestContext);
+        
+        try (MockedConstruction<DynamoDBService> mockedConstruction = 
+                mockConstruction(DynamoDBService.class, (mock, context) -> {
+                    stubPages(mock, userId, null, null, null, List.of(latest));
+                    when(mock.getRangeVersion(userId, null, null)).thenReturn(new RangeVersion(1, null));
+                })) {
+            
+            handler = new BulkRetrieveEntryHandler();
+            
+            // First request returns the tag
+            APIGatewayProxyResponseEvent first = handler.handleRequest(request, context);
+            String etag = first.getHeaders().get("ETag");
+            assertEquals(200, first.getStatusCode());
+            assertNotNull(etag);
+            
+            // Act - revalidate with the tag (header name is case-insensitive)
+            request.setHeaders(Map.of("if-none-match", etag));
+            APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+            
+            // Assert
+            assertEquals(304, response.getStatusCode());
+            assertNull(response.getBody());
+            assertEquals(etag, response.getHeaders().get("ETag"));
+            
+            DynamoDBService service = mockedConstruction.constructed().get(0);
+            verify(service, times(1)).forEachLocationPage(eq(userId), isNull(), isNull(), isNull(), any());
+        }
+    }
+    
+    @Test
+    void testHandleRequest_NotModifiedWithNonCanonicalDateTime() throws Exception {
+        // Arrange - stored before keys were canonical: no milliseconds, and updatedAt with nanoseconds
+        String userId = "user123";
+        UserLocation latest = new UserLocation();
+        latest.setUserId(userId);
+        latest.setDateTime("2024-01-01T10:00:00Z");
+        latest.setUpdatedAt(Instant.parse("2024-01-01T10:00:01.123456789Z"));
+        
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        Map<String, String> pathParams = new HashMap<>();
+        pathParams.put("userId", userId);
+        request.setPathParameters(pathParams);
+        
+        Map<String, Object> authorizerContext = new HashMap<>();
+        authorizerContext.put("userId", userId);
+        
+        APIGatewayProxyRequestEvent.RequestContext requestContext = new APIGatewayProxyRequestEvent.RequestContext();
+        requestContext.setAuthorizer(authorizerContext);
+        request.setRequestContext(requestContext);
+        
+        try (MockedConstruction<DynamoDBService> mockedConstruction = 
+                mockConstruction(DynamoDBService.class, (mock, context) -> {
+                    stubPages(mock, userId, null, null, null, List.of(latest));
+                    when(mock.getRangeVersion(userId, null, null)).thenReturn(new RangeVersion(1, latest.getUpdatedAt()));
+                })) {
+            
+            handler = new BulkRetrieveEntryHandler();
+            
+            // The 200 tag comes from the streamed rows
+            String etag = handler.handleRequest(request, context).getHeaders().get("ETag");
+            
+            // Act - the revalidation tag comes from getRangeVersion
+            request.setHeaders(Map.of("If-None-Match", etag));
+            APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+            
+            // Assert
+            assertEquals(304, response.getStatusCode());
+            assertEquals(etag, response.getHeaders().get("ETag"));
+        }
+    }
+    
+    @Test
+    void testHandleRequest_ModifiedSinceTag() throws Exception {
+        // Arrange
+        String userId = "user123";
+        UserLocation latest = new UserLocation();
+        latest.setUserId(userId);
+        latest.setDateTime("2024-01-01T11:00:00.000Z");
+        
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        Map<String, String> pathParams = new HashMap<>();
+        pathParams.put("userId", userId);
+        request.setPathParameters(pathParams);
+        request.setHeaders(Map.of("If-None-Match", ETags.weak("stale")));
+        
+        Map<String, Object> authorizerContext = new HashMap<>();
+        authorizerContext.put("userId", userId);
+        
+        APIGatewayProxyRequestEvent.RequestContext requestContext = new APIGatewayProxyRequestEvent.RequestContext();
+        requestContext.setAuthorizer(authorizerContext);
+        request.setRequestContext(requestContext);
+        
+        try (MockedConstruction<DynamoDBService> mockedConstruction = 
+                mockConstruction(DynamoDBService.class, (mock, context) -> {
+                    stubPages(mock, userId, null, null, null, List.of(latest));
+                    when(mock.getRangeVersion(userId, null, null)).thenReturn(new RangeVersion(1, null));
+                })) {
+            
+            handler = new BulkRetrieveEntryHandler();
+            
+            // Act
+            APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+            
+            // Assert
+            assertEquals(200, response.getStatusCode());
+            assertTrue(response.getBody().contains("\"count\":1"));
+            assertNotEquals(ETags.weak("stale"), response.getHeaders().get("ETag"));
+        }
+    }
+    
+    @Test
+    void testHandleRequest_OlderPointInsertedAfterTagChangesIt() throws Exception {
+        // Arrange
+        String userId = "user123";
+        Instant written = Instant.parse("2024-01-01T12:00:00Z");
+        InMemoryLocationStore store = new InMemoryLocationStore();
+        store.saveUserLocation(storedLocation(userId, "2024-01-01T10:00:00.000Z", written));
+        store.saveUserLocation(storedLocation(userId, "2024-01-01T11:00:00.000Z", written));
+        handler = new BulkRetrieveEntryHandler(store);
+        APIGatewayProxyRequestEvent request = ownRangeRequest(userId);
+        String etag = handler.handleRequest(request, context).getHeaders().get("ETag");
+        request.setHeaders(Map.of("If-None-Match", etag));
+        assertEquals(304, handler.handleRequest(request, context).getStatusCode());
+        
+        // Act - a late upload lands before the newest point, with an updated_at that is not the newest either
+        store.saveUserLocation(storedLocation(userId, "2024-01-01T09:00:00.000Z", written.minusSeconds(60)));
+        APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+        
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"count\":3"));
+        assertNotEquals(etag, response.getHeaders().get("ETag"));
+    }
+    
+    @Test
+    void testHandleRequest_OlderPointDeletedAfterTagChangesIt() throws Exception {
+        // Arrange
+        String userId = "user123";
+        Instant written = Instant.parse("2024-01-01T12:00:00Z");
+        InMemoryLocationStore store = new InMemoryLocationStore();
+        store.saveUserLocation(storedLocation(userId, "2024-01-01T10:00:00.000Z", written));
+        store.saveUserLocation(storedLocation(userId, "2024-01-01T11:00:00.000Z", written));
+        handler = new BulkRetrieveEntryHandler(store);
+        APIGatewayProxyRequestEvent request = ownRangeRequest(userId);
+        String etag = handler.handleRequest(request, context).getHeaders().get("ETag");
+        
+        // Act
+        store.deleteUserLocation(userId, "2024-01-01T10:00:00.000Z");
+        request.setHeaders(Map.of("If-None-Match", etag));
+        APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+        
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"count\":1"));
+        assertNotEquals(etag, response.getHeaders().get("ETag"));
+    }
+    
+    @Test
+    void testHandleRequest_LargeHistoryFromInMemoryStore() throws Exception {
+        // Arrange - a day of one-per-second points, spanning many query pages
+        String userId = "user123";
+        InMemoryLocationStore store = new InMemoryLocationStore();
+        LocationBatch history = new LocationBatch(86_400);
+        long start = TimeKeys.parseEpochMillis("2024-01-01T00:00:00Z");
+        for (int i = 0; i < 86_400; i++) {
+            int row = history.add(userId, start + i * 1000L);
+            history.setLatitude(row, 40.7128);
+            history.setLongitude(row, -74.0060);
+        }
+        store.bulkSaveNewLocations(history);
+        
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        Map<String, String> pathParams = new HashMap<>();
+        pathParams.put("userId", userId);
+        request.setPathParameters(pathParams);
+        Map<String, String> queryParams = new HashMap<>();
+        queryParams.put("startTime", "2024-01-01T06:00:00Z");
+        queryParams.put("endTime", "2024-01-01T17:59:59Z");
+        request.setQueryStringParameters(queryParams);
+        
+        Map<String, Object> authorizerContext = new HashMap<>();
+        authorizerContext.put("userId", userId);
+        
+        APIGatewayProxyRequestEvent.RequestContext requestContext = new APIGatewayProxyRequestEvent.RequestContext();
+        requestContext.setAuthorizer(authorizerContext);
+        request.setRequestContext(requestContext);
+        
+        handler = new BulkRetrieveEntryHandler(store);
+        
+        // Act
+        APIGatewayProxyResponseEvent response = handler.handleRequest(request, context);
+        
+        // Assert
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.getBody().contains("\"count\":43200"));
+        assertNotNull(response.getHeaders().get("ETag"));
+    }
+    
     private UserLocation createMockUserLocation(String userId, String timestamp, double latitude, double longitude) {
         UserLocation location = new UserLocation();
         location.setUserId(userId);
@@ -578,4 +889,34 @@ class BulkRetrieveEntryHandlerTest {
         location.setBearing(90.0);
         return location;
     }
-} 
\ No newline at end of file
+    
+    private static UserLocation storedLocation(String userId, String dateTime, Instant updatedAt) {
+        UserLocation location = new UserLocation();
+        location.setUserId(userId);
+        location.setDateTime(dateTime);
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        location.setCreatedAt(updatedAt);
+        location.setUpdatedAt(updatedAt);
+        return location;
+    }
+    
+    // A user reading their own full history
+    private static APIGatewayProxyRequestEvent ownRangeRequest(String userId) {
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setPathParameters(Map.of("userId", userId));
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setAuthorizer(Map.of("userId", userId));
+        request.setRequestContext(requestContext);
+        return request;
+    }
+    
+    // Hands the locations to the handler as a single query page
+    private static void stubPages(DynamoDBService service, String userId, String startTime, String endTime,
+                                  Set<LocationField> fields, List<UserLocation> locations) throws IOException {
+        doAnswer(invocation -> {
+            invocation.<DynamoDBService.LocationPageConsumer>getArgument(4).accept(LocationBatch.of(locations));
+            return null;
+        }).when(service).forEachLocationPage(eq(userId), eq(startTime), eq(endTime), eq(fields), any());
+    }
+}
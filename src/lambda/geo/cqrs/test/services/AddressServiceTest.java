@@ -35,6 +35,7 @@ public class AddressServiceTest {
         Address address = new Address();
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             doNothing().when(em).persist(address);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
@@ -53,6 +54,7 @@ public class AddressServiceTest {
         address.setId(3L);
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             when(em.find(Address.class, 3L)).thenReturn(address);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
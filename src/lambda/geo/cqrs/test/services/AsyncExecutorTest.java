@@ -0,0 +1,70 @@
+package com.mindthekid.geo.cqrs.test.services;
+
+import com.mindthekid.services.data.AsyncExecutor;
+import com.mindthekid.services.data.Database;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncExecutorTest {
+
+    @Test
+    public void testConcurrencyNeverExceedsLimit() {
+        AsyncExecutor executor = new AsyncExecutor(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int value = i;
+                futures.add(executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return value;
+                }));
+            }
+            int sum = futures.stream().mapToInt(CompletableFuture::join).sum();
+            assertEquals(28, sum);
+            assertTrue(maxRunning.get() <= 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailuresCompleteExceptionally() {
+        AsyncExecutor executor = new AsyncExecutor(1);
+        try {
+            CompletableFuture<Object> future = executor.submit(() -> {
+                throw new IllegalStateException("boom");
+            });
+            Exception e = assertThrows(Exception.class, future::join);
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrencyDefaultsToPoolSizes() {
+        Map<String, String> env = new HashMap<>();
+        assertEquals(2, Database.getAsyncConcurrency(env));
+        env.put("DB_READER_URL", "jdbc:postgresql://reader:5432/mtk");
+        env.put("DB_READER_POOL_MAX_SIZE", "4");
+        assertEquals(6, Database.getAsyncConcurrency(env));
+        env.put("DB_ASYNC_CONCURRENCY", "3");
+        assertEquals(3, Database.getAsyncConcurrency(env));
+    }
+}
@@ -0,0 +1,145 @@
+package com.mindthekid.geo.cqrs.test.services;
+
+import com.mindthekid.models.Address;
+import com.mindthekid.models.Country;
+import com.mindthekid.models.CountryState;
+import com.mindthekid.models.UserAddress;
+import com.mindthekid.services.data.CountryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Query;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CountryServiceTest {
+    private CountryService countryService;
+    private EntityManager em;
+    private EntityTransaction tx;
+    private EntityManagerFactory emf;
+    private Query query;
+
+    @BeforeEach
+    public void setUp() {
+        countryService = new CountryService();
+        em = mock(EntityManager.class);
+        tx = mock(EntityTransaction.class);
+        emf = mock(EntityManagerFactory.class);
+        query = mock(Query.class);
+        when(emf.createEntityManager()).thenReturn(em);
+        when(em.getTransaction()).thenReturn(tx);
+        when(em.createQuery(anyString())).thenReturn(query);
+        when(em.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(2);
+
+        // Country <- CountryState.country, Country <- Address.country <- UserAddress.address
+        EntityType<Country> country = entity(Country.class);
+        EntityType<CountryState> countryState = entity(CountryState.class, reference("country", Country.class));
+        EntityType<Address> address = entity(Address.class, reference("country", Country.class));
+        EntityType<UserAddress> userAddress = entity(UserAddress.class, reference("address", Address.class));
+        Metamodel metamodel = mock(Metamodel.class);
+        when(metamodel.entity(Country.class)).thenReturn(country);
+        Set<EntityType<?>> entities = new LinkedHashSet<>(Arrays.asList(country, countryState, address, userAddress));
+        when(metamodel.getEntities()).thenReturn(entities);
+        when(em.getMetamodel()).thenReturn(metamodel);
+    }
+
+    @Test
+    public void testDeleteAllDeepDeletesOnlyOwnedDependents() {
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            int deleted = countryService.deleteAll(Arrays.asList(1L, 2L), true);
+
+            // Addresses only reference the country; they and their UserAddress rows are user data
+            ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+            verify(em, times(2)).createQuery(statements.capture());
+            assertEquals(Arrays.asList(
+                "DELETE FROM CountryState d0 WHERE d0.country.id IN :ids",
+                "DELETE FROM Country e WHERE e.id IN :ids"
+            ), statements.getAllValues());
+            verify(em, never()).createQuery(contains("Address"));
+            verify(query, times(2)).setParameter("ids", Arrays.asList(1L, 2L));
+            verify(tx).begin();
+            verify(em).createNativeQuery(startsWith("INSERT INTO version_info"));
+            verify(tx).commit();
+            verify(em).close();
+            verify(em, never()).find(any(), any());
+            assertEquals(2, deleted);
+        }
+    }
+
+    @Test
+    public void testDeleteAllShallowDeletesOnlyTheEntities() {
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            countryService.deleteAll(Arrays.asList(1L), false);
+            verify(em).createQuery("DELETE FROM Country e WHERE e.id IN :ids");
+            verify(em, times(1)).createQuery(anyString());
+            verify(tx).commit();
+        }
+    }
+
+    @Test
+    public void testDeleteAllChunksLargeIdSets() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < 2500; i++) {
+            ids.add(i);
+        }
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            countryService.deleteAll(ids, false);
+            // Three 1000-id chunks, then the version_info bump on the same mocked query
+            verify(em, times(3)).createQuery("DELETE FROM Country e WHERE e.id IN :ids");
+            verify(query, times(4)).executeUpdate();
+            verify(tx, times(1)).commit();
+        }
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private static <X> EntityType<X> entity(Class<X> javaType, SingularAttribute<X, ?>... references) {
+        EntityType<X> entityType = mock(EntityType.class);
+        SingularAttribute<X, Integer> id = mock(SingularAttribute.class);
+        when(id.isId()).thenReturn(true);
+        when(id.getName()).thenReturn("id");
+        when(id.getPersistentAttributeType()).thenReturn(PersistentAttributeType.BASIC);
+        Set<SingularAttribute<? super X, ?>> attributes = new LinkedHashSet<>();
+        attributes.add(id);
+        for (SingularAttribute<X, ?> reference : references) {
+            attributes.add(reference);
+        }
+        when(entityType.getName()).thenReturn(javaType.getSimpleName());
+        when(entityType.getJavaType()).thenReturn(javaType);
+        when(entityType.getSingularAttributes()).thenReturn(attributes);
+        return entityType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <X, Y> SingularAttribute<X, Y> reference(String name, Class<Y> target) {
+        SingularAttribute<X, Y> attribute = mock(SingularAttribute.class);
+        when(attribute.getName()).thenReturn(name);
+        when(attribute.getPersistentAttributeType()).thenReturn(PersistentAttributeType.MANY_TO_ONE);
+        when(attribute.getJavaType()).thenReturn(target);
+        return attribute;
+    }
+}
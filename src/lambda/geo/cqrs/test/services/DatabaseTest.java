@@ -0,0 +1,122 @@
+package com.mindthekid.geo.cqrs.test.services;
+
+import com.mindthekid.services.data.Database;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DatabaseTest {
+
+    @Test
+    public void testDefaultPoolProperties() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_URL", "jdbc:postgresql://localhost:5432/mtk");
+        env.put("DB_USER", "mtk");
+        env.put("DB_PASSWORD", "secret");
+
+        Map<String, String> props = Database.buildProperties(env);
+
+        assertEquals("jdbc:postgresql://localhost:5432/mtk", props.get("javax.persistence.jdbc.url"));
+        assertEquals(Database.HIKARI_PROVIDER, props.get("hibernate.connection.provider_class"));
+        assertEquals("2", props.get("hibernate.hikari.maximumPoolSize"));
+        assertEquals("0", props.get("hibernate.hikari.minimumIdle"));
+        assertEquals("256", props.get("hibernate.hikari.dataSource.preparedStatementCacheQueries"));
+        assertNull(props.get("hibernate.hikari.dataSource.prepareThreshold"));
+    }
+
+    @Test
+    public void testPoolOverridesFromEnvironment() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_POOL_MAX_SIZE", "8");
+        env.put("DB_POOL_IDLE_TIMEOUT_MS", "30000");
+        env.put("DB_STATEMENT_CACHE_SIZE", "64");
+
+        Map<String, String> props = Database.buildProperties(env);
+
+        assertEquals("8", props.get("hibernate.hikari.maximumPoolSize"));
+        assertEquals("30000", props.get("hibernate.hikari.idleTimeout"));
+        assertEquals("64", props.get("hibernate.hikari.dataSource.preparedStatementCacheQueries"));
+    }
+
+    @Test
+    public void testRdsProxyModeDisablesServerSidePreparedStatements() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_RDS_PROXY", "true");
+
+        Map<String, String> props = Database.buildProperties(env);
+
+        assertEquals("1", props.get("hibernate.hikari.maximumPoolSize"));
+        assertEquals("0", props.get("hibernate.hikari.dataSource.prepareThreshold"));
+        assertEquals("0", props.get("hibernate.hikari.dataSource.preparedStatementCacheQueries"));
+    }
+
+    @Test
+    public void testInvalidNumberIsRejected() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_POOL_MAX_SIZE", "many");
+
+        assertThrows(IllegalStateException.class, () -> Database.buildProperties(env));
+    }
+
+    @Test
+    public void testNotInitializedUntilFirstUse() {
+        assertFalse(Database.isInitialized());
+        Database.close();
+        assertFalse(Database.isInitialized());
+    }
+
+    @Test
+    public void testReaderPropertiesUseReaderEndpoint() {
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_URL", "jdbc:postgresql://writer:5432/mtk");
+        env.put("DB_READER_URL", "jdbc:postgresql://reader:5432/mtk");
+        env.put("DB_READER_POOL_MAX_SIZE", "4");
+
+        Map<String, String> props = Database.buildReaderProperties(env);
+
+        assertEquals("jdbc:postgresql://reader:5432/mtk", props.get("javax.persistence.jdbc.url"));
+        assertEquals("mtk-reader-pool", props.get("hibernate.hikari.poolName"));
+        assertEquals("true", props.get("hibernate.hikari.readOnly"));
+        assertEquals("4", props.get("hibernate.hikari.maximumPoolSize"));
+        assertEquals("none", props.get("hibernate.hbm2ddl.auto"));
+    }
+
+    @Test
+    public void testReaderFallsBackToTheWriterWithoutAReplica() {
+        // DB_READER_URL is not set in the test environment
+        assertNull(System.getenv("DB_READER_URL"));
+        EntityManagerFactory writer = mock(EntityManagerFactory.class);
+        try (MockedStatic<Persistence> persistence = Mockito.mockStatic(Persistence.class)) {
+            persistence.when(() -> Persistence.createEntityManagerFactory(eq("mtkPU"), anyMap())).thenReturn(writer);
+            try {
+                assertSame(writer, Database.getReaderEntityManagerFactory());
+                assertSame(writer, Database.getReaderEntityManagerFactory());
+                persistence.verify(() -> Persistence.createEntityManagerFactory(eq("mtkPU"), anyMap()), times(1));
+            } finally {
+                Database.close();
+            }
+        }
+        // Shared with the writer, so closed once
+        verify(writer, times(1)).close();
+        assertFalse(Database.isInitialized());
+    }
+
+    @Test
+    public void testWithWriterPinsReadsForTheCallOnly() {
+        assertFalse(Database.isWriterPinned());
+        boolean pinnedInside = Database.withWriter(() -> Database.withWriter(Database::isWriterPinned) && Database.isWriterPinned());
+        assertTrue(pinnedInside);
+        assertFalse(Database.isWriterPinned());
+    }
+}
@@ -0,0 +1,48 @@
+package com.mindthekid.geo.cqrs.test.services;
+
+import com.mindthekid.models.Family;
+import com.mindthekid.models.User;
+import com.mindthekid.services.data.FamilyService;
+import com.mindthekid.services.data.FetchPlan;
+import com.mindthekid.services.data.UserService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FetchPlanTest {
+
+    @Test
+    public void testQueriesFetchSingularPathsWithRootAndOneQueryPerCollection() {
+        FetchPlan<User> plan = FetchPlan.builder(User.class, "test")
+                .fetch("gender")
+                .collection("addresses", "address.country", "address.state", "addressType")
+                .build();
+
+        List<String> queries = plan.toQueries("User", "id");
+
+        assertEquals(Arrays.asList(
+                "SELECT e FROM User e LEFT JOIN FETCH e.gender e_0 WHERE e.id IN :ids",
+                "SELECT DISTINCT e FROM User e LEFT JOIN FETCH e.addresses c0"
+                        + " LEFT JOIN FETCH c0.address c0_1 LEFT JOIN FETCH c0_1.country c0_2"
+                        + " LEFT JOIN FETCH c0_1.state c0_3 LEFT JOIN FETCH c0.addressType c0_4"
+                        + " WHERE e.id IN :ids"
+        ), queries);
+    }
+
+    @Test
+    public void testProfileCostIsFixedNumberOfQueries() {
+        assertEquals(6, UserService.PROFILE.toQueries("User", "id").size());
+        assertEquals(2, FamilyService.OVERVIEW.toQueries("Family", "id").size());
+    }
+
+    @Test
+    public void testNamedPlansAreRegisteredOnServices() {
+        assertSame(UserService.PROFILE, new UserService().getFetchPlan("profile"));
+        FetchPlan<Family> overview = new FamilyService().getFetchPlan("overview");
+        assertSame(FamilyService.OVERVIEW, overview);
+        assertThrows(IllegalArgumentException.class, () -> new UserService().getFetchPlan("missing"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.mindthekid.geo.cqrs.test.services;
+
+import com.mindthekid.models.Gender;
+import com.mindthekid.services.data.GenderService;
+import com.mindthekid.services.data.ReferenceDataCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GenderServiceTest {
+    private GenderService genderService;
+    private EntityManager em;
+    private EntityTransaction tx;
+    private EntityManagerFactory emf;
+    private TypedQuery<Gender> loadQuery;
+    private Query versionQuery;
+    private Gender female;
+    private Gender male;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ReferenceDataCache.invalidateAll();
+        genderService = new GenderService();
+        em = mock(EntityManager.class);
+        tx = mock(EntityTransaction.class);
+        emf = mock(EntityManagerFactory.class);
+        loadQuery = mock(TypedQuery.class);
+        versionQuery = mock(Query.class);
+        female = new Gender(1, "Female", "F");
+        male = new Gender(2, "Male", "M");
+        when(emf.createEntityManager()).thenReturn(em);
+        when(em.getTransaction()).thenReturn(tx);
+        when(em.createQuery("SELECT e FROM Gender e", Gender.class)).thenReturn(loadQuery);
+        when(loadQuery.setHint(anyString(), any())).thenReturn(loadQuery);
+        when(loadQuery.getResultList()).thenReturn(Arrays.asList(female, male));
+        when(em.createNativeQuery(anyString())).thenReturn(versionQuery);
+        when(versionQuery.setParameter(anyString(), any())).thenReturn(versionQuery);
+        when(versionQuery.getResultList()).thenReturn(List.of(new BigDecimal("1.000")));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReferenceDataCache.invalidateAll();
+    }
+
+    @Test
+    public void testLookupsAreServedFromSnapshot() {
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            assertEquals(female, genderService.findById(1L));
+            assertEquals(male, genderService.findByCode("M"));
+            assertEquals(2, genderService.findAll().size());
+            assertNull(genderService.findByCode("X"));
+            // A new service instance shares the process-wide snapshot
+            assertEquals(male, new GenderService().findById(2L));
+            verify(loadQuery, times(1)).getResultList();
+            verify(em, times(1)).close();
+        }
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            assertThrows(UnsupportedOperationException.class, () -> genderService.findAll().add(new Gender()));
+        }
+    }
+
+    @Test
+    public void testWriteBumpsVersionAndInvalidates() {
+        Gender other = new Gender("Other", "O");
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            genderService.findAll();
+            genderService.create(other);
+            genderService.findAll();
+            verify(em).persist(other);
+            verify(em).createNativeQuery(startsWith("INSERT INTO version_info"));
+            verify(versionQuery).executeUpdate();
+            verify(loadQuery, times(2)).getResultList();
+        }
+    }
+}
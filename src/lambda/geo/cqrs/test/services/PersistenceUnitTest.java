@@ -0,0 +1,146 @@
+package com.mindthekid.geo.cqrs.test.services;
+
+import com.mindthekid.models.Family;
+import com.mindthekid.models.User;
+import com.mindthekid.models.UserShare;
+import com.mindthekid.models.UserSubscription;
+import com.mindthekid.services.data.BaseService;
+import com.mindthekid.services.data.FamilyService;
+import com.mindthekid.services.data.FetchPlan;
+import com.mindthekid.services.data.UserService;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Builds the real mtkPU from persistence.xml and orm.xml, without a database, so mapping
+ * errors fail here rather than on the first Lambda cold start.
+ */
+public class PersistenceUnitTest {
+    private static EntityManagerFactory emf;
+
+    @BeforeAll
+    public static void setUp() {
+        Map<String, String> props = new HashMap<>();
+        props.put("hibernate.connection.provider_class", NoDatabaseConnectionProvider.class.getName());
+        // Take everything from the dialect instead of connecting for JDBC metadata
+        props.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        props.put("hibernate.hbm2ddl.auto", "none");
+        emf = Persistence.createEntityManagerFactory("mtkPU", props);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    @Test
+    public void testVersionedEntitiesAreMapped() {
+        for (Class<?> versioned : new Class<?>[] {Family.class, UserSubscription.class, UserShare.class}) {
+            EntityType<?> entity = emf.getMetamodel().entity(versioned);
+            assertTrue(entity.hasVersionAttribute(), versioned.getSimpleName());
+            assertEquals("version", entity.getVersion(Long.class).getName());
+        }
+    }
+
+    @Test
+    public void testIdentifiers() {
+        assertEquals("id", emf.getMetamodel().entity(Family.class).getId(Integer.class).getName());
+        assertEquals("id", emf.getMetamodel().entity(UserSubscription.class).getId(Integer.class).getName());
+        assertEquals("id", emf.getMetamodel().entity(User.class).getId(String.class).getName());
+
+        // user_share is keyed by the two users
+        EntityType<UserShare> userShare = emf.getMetamodel().entity(UserShare.class);
+        assertFalse(userShare.hasSingleIdAttribute());
+        Set<String> idAttributes = userShare.getIdClassAttributes().stream()
+            .map(SingularAttribute::getName)
+            .collect(Collectors.toSet());
+        assertEquals(Set.of("sharedBy", "sharedWith"), idAttributes);
+    }
+
+    @Test
+    public void testQueriesCompileAgainstTheMapping() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.createQuery("SELECT f FROM Family f JOIN f.creator c WHERE f.version = :version AND f.dateEnded IS NULL", Family.class);
+            em.createQuery("SELECT s FROM UserSubscription s WHERE s.user.id = :userId AND s.subscriptionType.frequency.id = :frequencyId", UserSubscription.class);
+            em.createQuery("SELECT s FROM UserShare s WHERE s.sharedBy.id = :userId AND s.shareType.id = :shareTypeId", UserShare.class);
+            em.createQuery("DELETE FROM FamilyMembership fm WHERE fm.family = :family");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Test
+    public void testRegisteredFetchPlansCompileWithTheirIdsBound() {
+        assertFetchPlansCompile(new UserService(), "user-1");
+        assertFetchPlansCompile(new FamilyService(), 1);
+    }
+
+    // The id must be of the service's ID type; binding it checks that type against the mapped id
+    private static <T, ID> void assertFetchPlansCompile(BaseService<T, ID> service, ID id) {
+        assertFalse(service.getFetchPlans().isEmpty());
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (FetchPlan<T> plan : service.getFetchPlans()) {
+                EntityType<T> entity = emf.getMetamodel().entity(plan.getEntityClass());
+                String idAttribute = entity.getId(entity.getIdType().getJavaType()).getName();
+                for (String jpql : plan.toQueries(entity.getName(), idAttribute)) {
+                    em.createQuery(jpql, plan.getEntityClass()).setParameter("ids", List.of(id));
+                }
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    // Bootstrapping must not need a database; anything that does fails loudly
+    public static class NoDatabaseConnectionProvider implements ConnectionProvider {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            throw new SQLException("PersistenceUnitTest has no database");
+        }
+
+        @Override
+        public void closeConnection(Connection connection) throws SQLException {
+            connection.close();
+        }
+
+        @Override
+        public boolean supportsAggressiveRelease() {
+            return false;
+        }
+
+        // Wrapped declares a raw Class; Class<?> here would not override it
+        @Override
+        @SuppressWarnings("rawtypes")
+        public boolean isUnwrappableAs(Class unwrapType) {
+            return false;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> unwrapType) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
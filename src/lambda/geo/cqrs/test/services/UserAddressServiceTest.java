@@ -35,6 +35,7 @@ public class UserAddressServiceTest {
         UserAddress obj = new UserAddress();
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             doNothing().when(em).persist(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
@@ -53,6 +54,7 @@ public class UserAddressServiceTest {
         obj.setId(4L);
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             when(em.find(UserAddress.class, 4L)).thenReturn(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
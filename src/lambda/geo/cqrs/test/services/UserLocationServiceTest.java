@@ -35,6 +35,7 @@ public class UserLocationServiceTest {
         UserLocation obj = new UserLocation();
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             doNothing().when(em).persist(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
@@ -53,6 +54,7 @@ public class UserLocationServiceTest {
         obj.setId(7L);
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             when(em.find(UserLocation.class, 7L)).thenReturn(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
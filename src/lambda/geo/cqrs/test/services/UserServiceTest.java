@@ -1,7 +1,10 @@
 package com.mindthekid.geo.cqrs.test.services;
 
 import com.mindthekid.models.User;
+import com.mindthekid.services.data.Page;
+import com.mindthekid.services.data.SortOrder;
 import com.mindthekid.services.data.UserService;
+import com.mindthekid.services.data.projections.UserSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -11,6 +14,17 @@ import org.mockito.Mockito;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +50,7 @@ public class UserServiceTest {
         User user = new User();
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             doNothing().when(em).persist(user);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
@@ -51,12 +66,13 @@ public class UserServiceTest {
     @Test
     public void testFindById() {
         User user = new User();
-        user.setId(1L);
+        user.setId("1");
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
-            when(em.find(User.class, 1L)).thenReturn(user);
-            User found = userService.findById(1L);
-            verify(em).find(User.class, 1L);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            when(em.find(User.class, "1")).thenReturn(user);
+            User found = userService.findById("1");
+            verify(em).find(User.class, "1");
             verify(em).close();
             assertEquals(user, found);
         }
@@ -65,20 +81,142 @@ public class UserServiceTest {
     @Test
     public void testDeleteUserDeep() {
         User user = new User();
-        user.setId(2L);
+        user.setId("2");
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
-            when(em.find(User.class, 2L)).thenReturn(user);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            when(em.find(User.class, "2")).thenReturn(user);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
             doNothing().when(em).remove(user);
             // Mock deep delete queries
-            when(em.createQuery(anyString())).thenReturn(mock(javax.persistence.Query.class));
-            userService.delete(2L, true);
+            javax.persistence.Query deleteQuery = mock(javax.persistence.Query.class);
+            when(deleteQuery.setParameter(anyString(), any())).thenReturn(deleteQuery);
+            when(em.createQuery(anyString())).thenReturn(deleteQuery);
+            userService.delete("2", true);
             verify(em).remove(user);
             verify(tx).begin();
             verify(tx).commit();
             verify(em).close();
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testCreateAllUsesOneTransactionAndFlushesPerBatch() {
+        List<User> users = Arrays.asList(new User(), new User(), new User(), new User(), new User());
+        when(emf.getProperties()).thenReturn(Map.of("hibernate.jdbc.batch_size", "2"));
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            List<User> result = userService.createAll(users);
+            verify(em, times(5)).persist(any(User.class));
+            verify(em, times(2)).flush();
+            verify(em, times(2)).clear();
+            verify(tx, times(1)).begin();
+            verify(tx, times(1)).commit();
+            verify(em).close();
+            assertEquals(users, result);
+        }
+    }
+
+    @Test
+    public void testUpsertAllPersistsNewAndMergesExisting() {
+        User newUser = new User();
+        User existingUser = new User();
+        existingUser.setId("7");
+        User merged = new User();
+        PersistenceUnitUtil unitUtil = mock(PersistenceUnitUtil.class);
+        when(em.getEntityManagerFactory()).thenReturn(emf);
+        when(emf.getPersistenceUnitUtil()).thenReturn(unitUtil);
+        when(unitUtil.getIdentifier(newUser)).thenReturn(null);
+        when(unitUtil.getIdentifier(existingUser)).thenReturn("7");
+        when(em.merge(existingUser)).thenReturn(merged);
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            List<User> result = userService.upsertAll(Arrays.asList(newUser, existingUser));
+            verify(em).persist(newUser);
+            verify(em).merge(existingUser);
+            verify(tx).commit();
+            assertEquals(Arrays.asList(newUser, merged), result);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindPageUsesKeysetAndReturnsNextId() {
+        User first = new User();
+        first.setId("a");
+        User second = new User();
+        second.setId("b");
+        User extra = new User();
+        extra.setId("c");
+        Metamodel metamodel = mock(Metamodel.class);
+        EntityType<User> entityType = mock(EntityType.class);
+        SingularAttribute<User, String> idAttribute = mock(SingularAttribute.class);
+        PersistenceUnitUtil unitUtil = mock(PersistenceUnitUtil.class);
+        TypedQuery<User> query = mock(TypedQuery.class);
+        when(em.getMetamodel()).thenReturn(metamodel);
+        when(metamodel.entity(User.class)).thenReturn(entityType);
+        doReturn(Set.of(idAttribute)).when(entityType).getSingularAttributes();
+        when(idAttribute.isId()).thenReturn(true);
+        when(idAttribute.getName()).thenReturn("id");
+        when(em.getEntityManagerFactory()).thenReturn(emf);
+        when(emf.getPersistenceUnitUtil()).thenReturn(unitUtil);
+        when(unitUtil.getIdentifier(second)).thenReturn("b");
+        when(em.createQuery("SELECT e FROM User e WHERE e.id > :afterId ORDER BY e.id ASC", User.class)).thenReturn(query);
+        when(query.setHint(anyString(), any())).thenReturn(query);
+        when(query.setMaxResults(3)).thenReturn(query);
+        when(query.getResultList()).thenReturn(Arrays.asList(first, second, extra));
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            Page<User, String> page = userService.findPage("0", 2, SortOrder.ASC);
+            verify(query).setParameter("afterId", "0");
+            verify(em).close();
+            assertEquals(Arrays.asList(first, second), page.getItems());
+            assertEquals("b", page.getNextAfterId());
+            assertTrue(page.hasMore());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testForEachStreamsWithFetchSizeAndClosesEntityManager() {
+        TypedQuery<User> query = mock(TypedQuery.class);
+        when(em.createQuery("SELECT e FROM User e", User.class)).thenReturn(query);
+        when(query.getResultStream()).thenReturn(Stream.of(new User(), new User(), new User()));
+        when(tx.isActive()).thenReturn(true);
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            List<User> seen = new ArrayList<>();
+            userService.forEach(2, seen::add);
+            assertEquals(3, seen.size());
+            verify(query).setHint("org.hibernate.fetchSize", 2);
+            verify(tx).begin();
+            verify(em, times(1)).clear();
+            verify(tx).rollback();
+            verify(em).close();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindSummariesUsesConstructorProjection() {
+        UserSummary summary = new UserSummary("u1", "Ada", "Smith", "ada@example.com");
+        TypedQuery<UserSummary> query = mock(TypedQuery.class);
+        when(em.createQuery(startsWith("SELECT new com.mindthekid.services.data.projections.UserSummary("), eq(UserSummary.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of(summary));
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
+            List<UserSummary> result = userService.findSummariesByFamilyName("Smi", 20);
+            verify(query).setParameter("prefix", "smi%");
+            verify(query).setMaxResults(20);
+            verify(em, never()).find(any(), any());
+            verify(em).close();
+            assertEquals(List.of(summary), result);
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class UserShareServiceTest {
         UserShare obj = new UserShare();
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             doNothing().when(em).persist(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
@@ -53,6 +54,7 @@ public class UserShareServiceTest {
         obj.setId(6L);
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             when(em.find(UserShare.class, 6L)).thenReturn(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
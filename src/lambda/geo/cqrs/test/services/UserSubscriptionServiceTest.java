@@ -1,6 +1,7 @@
 package com.mindthekid.geo.cqrs.test.services;
 
 import com.mindthekid.models.UserSubscription;
+import com.mindthekid.services.data.UpdateResult;
 import com.mindthekid.services.data.UserSubscriptionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,9 @@ import org.mockito.Mockito;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.persistence.PersistenceUnitUtil;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +39,7 @@ public class UserSubscriptionServiceTest {
         UserSubscription obj = new UserSubscription();
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             doNothing().when(em).persist(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
@@ -50,9 +55,10 @@ public class UserSubscriptionServiceTest {
     @Test
     public void testDeleteDeep() {
         UserSubscription obj = new UserSubscription();
-        obj.setId(5L);
+        obj.setId(5);
         try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
             db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            db.when(com.mindthekid.services.data.Database::getReaderEntityManagerFactory).thenReturn(emf);
             when(em.find(UserSubscription.class, 5L)).thenReturn(obj);
             doNothing().when(tx).begin();
             doNothing().when(tx).commit();
@@ -64,4 +70,86 @@ public class UserSubscriptionServiceTest {
             verify(em).close();
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testConsecutiveUpdatesUseTheMergedVersion() {
+        // The row's version; merge rejects a stale copy and returns a managed one with the next version
+        long[] rowVersion = {1L};
+        when(em.merge(any(UserSubscription.class))).thenAnswer(invocation -> {
+            UserSubscription detached = invocation.getArgument(0);
+            if (detached.getVersion() != rowVersion[0]) {
+                throw new OptimisticLockException("stale");
+            }
+            UserSubscription managed = new UserSubscription();
+            managed.setVersion(++rowVersion[0]);
+            return managed;
+        });
+        UserSubscription subscription = new UserSubscription();
+        subscription.setVersion(1L);
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            UserSubscription first = service.update(subscription);
+            UserSubscription second = service.update(first);
+            assertEquals(2L, first.getVersion());
+            assertEquals(3L, second.getVersion());
+            verify(tx, times(2)).commit();
+        }
+    }
+
+    @Test
+    public void testTryUpdateReportsConflictWithCurrentRow() {
+        UserSubscription stale = new UserSubscription();
+        stale.setVersion(1L);
+        UserSubscription current = new UserSubscription();
+        current.setVersion(2L);
+        PersistenceUnitUtil unitUtil = mock(PersistenceUnitUtil.class);
+        when(emf.getPersistenceUnitUtil()).thenReturn(unitUtil);
+        when(unitUtil.getIdentifier(stale)).thenReturn(5);
+        when(em.merge(stale)).thenThrow(new OptimisticLockException("stale"));
+        when(em.find(UserSubscription.class, 5)).thenReturn(current);
+        when(tx.isActive()).thenReturn(true);
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            UpdateResult<UserSubscription> result = service.tryUpdate(stale);
+            verify(tx).rollback();
+            verify(tx, never()).commit();
+            assertTrue(result.isConflict());
+            assertSame(current, result.getEntity());
+        }
+    }
+
+    @Test
+    public void testUpdateWithRetryReappliesMutationAfterConflict() {
+        UserSubscription first = new UserSubscription();
+        UserSubscription second = new UserSubscription();
+        when(em.find(UserSubscription.class, 5L)).thenReturn(first, second);
+        when(tx.isActive()).thenReturn(true);
+        // The first commit loses to a concurrent update; the provider wraps the lock failure
+        doThrow(new PersistenceException(new OptimisticLockException("stale"))).doNothing().when(tx).commit();
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            int[] applied = {0};
+            UpdateResult<UserSubscription> result = service.updateWithRetry(5L, subscription -> applied[0]++, 3);
+            assertTrue(result.isUpdated());
+            assertSame(second, result.getEntity());
+            assertEquals(2, result.getAttempts());
+            assertEquals(2, applied[0]);
+            verify(tx, times(2)).commit();
+            verify(em, times(2)).close();
+        }
+    }
+
+    @Test
+    public void testUpdateWithRetryGivesUpAfterMaxAttempts() {
+        when(em.find(UserSubscription.class, 5L)).thenReturn(new UserSubscription());
+        when(tx.isActive()).thenReturn(true);
+        doThrow(new OptimisticLockException("stale")).when(tx).commit();
+        try (MockedStatic<com.mindthekid.services.data.Database> db = Mockito.mockStatic(com.mindthekid.services.data.Database.class)) {
+            db.when(com.mindthekid.services.data.Database::getEntityManagerFactory).thenReturn(emf);
+            UpdateResult<UserSubscription> result = service.updateWithRetry(5L, subscription -> { }, 2);
+            assertTrue(result.isConflict());
+            assertEquals(2, result.getAttempts());
+            verify(tx, times(2)).commit();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.mindthekid.geo.cqrs.test.shared;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationBatchTest {
+
+    @Test
+    void testRoundTripThroughBeans() {
+        UserLocation location = new UserLocation();
+        location.setUserId("user123");
+        location.setDateTime("2024-01-01T12:00:00Z");
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        location.setIsPrivate(true);
+        location.setCreatedAt(Instant.parse("2024-01-01T12:00:01.123456789Z"));
+
+        UserLocation copy = LocationBatch.of(List.of(location)).toUserLocation(0);
+
+        assertEquals("user123", copy.getUserId());
+        assertEquals("2024-01-01T12:00:00.000Z", copy.getDateTime());
+        assertEquals(Double.valueOf(40.7128), copy.getLatitude());
+        assertEquals("40.7128,-74.006", copy.getLatLong());
+        assertEquals(Boolean.TRUE, copy.getIsPrivate());
+        assertNull(copy.getIsReal());
+        assertEquals(Instant.parse("2024-01-01T12:00:01.123456789Z"), copy.getCreatedAt());
+        assertNull(copy.getUpdatedAt());
+    }
+
+    @Test
+    void testInvalidAndMissingDateTimesAreKept() throws Exception {
+        LocationBatch batch = LocationJsonCodec.readBatch(
+            "[{\"userId\":\"a\",\"dateTime\":\"yesterday\"},{\"userId\":\"a\"},{\"userId\":\"a\",\"dateTime\":1704110400000}]");
+
+        assertEquals(3, batch.size());
+        assertEquals(LocationBatch.INVALID_TIME, batch.getDateTimeMillis(0));
+        assertEquals(LocationBatch.NO_TIME, batch.getDateTimeMillis(1));
+        assertEquals("2024-01-01T12:00:00.000Z", batch.getDateTime(2));
+        assertEquals(batch.getUserRef(0), batch.getUserRef(2));
+    }
+
+    @Test
+    void testDefaultsOnlyFillMissingFlags() {
+        LocationBatch batch = new LocationBatch();
+        batch.add("user123", 0L);
+        batch.setPrivate(batch.add("user123", 1L), true);
+
+        batch.applyDefaults(false, true);
+
+        assertEquals(Boolean.FALSE, batch.getIsPrivate(0));
+        assertEquals(Boolean.TRUE, batch.getIsPrivate(1));
+        assertEquals(Boolean.TRUE, batch.getIsReal(1));
+    }
+
+    @Test
+    void testSelectCopiesRowsInOrder() {
+        LocationBatch batch = new LocationBatch(1);
+        for (int i = 0; i < 5; i++) {
+            batch.setLatitude(batch.add("user" + (i % 2), i * 1000L), i);
+        }
+        BitSet rows = new BitSet();
+        rows.set(1);
+        rows.set(4);
+
+        LocationBatch selected = batch.select(rows);
+
+        assertEquals(2, selected.size());
+        assertEquals("user1", selected.getUserId(0));
+        assertEquals(4000L, selected.getDateTimeMillis(1));
+        assertEquals(4.0, selected.getLatitude(1));
+        assertFalse(selected.hasLongitude(1));
+    }
+
+    @Test
+    void testNanosConversion() {
+        Instant before = Instant.parse("1969-12-31T23:59:59.999999999Z");
+
+        assertEquals(-1L, LocationBatch.toNanos(before));
+        assertEquals(before, LocationBatch.toInstant(-1L));
+        assertNull(LocationBatch.toInstant(LocationBatch.NO_TIME));
+        assertThrows(IllegalArgumentException.class, () -> LocationBatch.toNanos(Instant.parse("2300-01-01T00:00:00Z")));
+    }
+}
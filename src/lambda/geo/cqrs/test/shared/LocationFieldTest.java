@@ -0,0 +1,77 @@
+package com.mindthekid.geo.cqrs.test.shared;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationFieldTest {
+
+    @Test
+    void testParseAcceptsJsonAndAttributeNames() {
+        Set<LocationField> fields = LocationField.parse("dateTime, latitude,longitude,is_private");
+
+        assertEquals(EnumSet.of(LocationField.DATE_TIME, LocationField.LATITUDE,
+            LocationField.LONGITUDE, LocationField.IS_PRIVATE), fields);
+    }
+
+    @Test
+    void testParseBlankReturnsNull() {
+        assertNull(LocationField.parse(null));
+        assertNull(LocationField.parse("  "));
+    }
+
+    @Test
+    void testParseRejectsUnknownField() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> LocationField.parse("dateTime,altitude"));
+
+        assertEquals("Unknown field: altitude", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> LocationField.parse(",,"));
+    }
+
+    @Test
+    void testProjectionExpressionUsesPlaceholders() {
+        Map<String, String> names = new HashMap<>();
+
+        String expression = LocationField.projectionExpression(
+            EnumSet.of(LocationField.DATE_TIME, LocationField.LATITUDE), names);
+
+        assertEquals("#date_time, #latitude", expression);
+        assertEquals("date_time", names.get("#date_time"));
+        assertEquals("latitude", names.get("#latitude"));
+    }
+
+    @Test
+    void testProjectCopiesOnlySelectedFields() {
+        UserLocation location = new UserLocation();
+        location.setUserId("user123");
+        location.setDateTime("2024-01-01T12:00:00.000Z");
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        location.setIsPrivate(true);
+
+        Map<String, Object> projected = LocationField.project(location,
+            EnumSet.of(LocationField.DATE_TIME, LocationField.LATITUDE, LocationField.LONGITUDE));
+
+        assertEquals(3, projected.size());
+        assertEquals("2024-01-01T12:00:00.000Z", projected.get("dateTime"));
+        assertEquals(40.7128, projected.get("latitude"));
+        assertEquals(-74.0060, projected.get("longitude"));
+        assertFalse(projected.containsKey("isPrivate"));
+    }
+
+    @Test
+    void testTrackIndexCoversCoordinateSelection() {
+        assertTrue(LocationField.TRACK_INDEX_FIELDS.containsAll(
+            LocationField.parse("dateTime,latitude,longitude")));
+        assertFalse(LocationField.TRACK_INDEX_FIELDS.containsAll(
+            LocationField.parse("dateTime,isReal")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.mindthekid.geo.cqrs.test.shared;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.mindthekid.geo.cqrs.shared.dto.ApiResponse;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.LocationJsonCodec;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationJsonCodecTest {
+
+    @Test
+    void testWriteResponseMatchesDatabindLayout() throws Exception {
+        ApiResponse<UserLocation> response = ApiResponse.success("ok", createLocation());
+        response.setTimestamp(Instant.parse("2024-01-01T12:00:00Z"));
+
+        assertEquals("{\"success\":true,\"message\":\"ok\",\"data\":{\"userId\":\"user123\","
+            + "\"dateTime\":\"2024-01-01T12:00:00.000Z\",\"latitude\":40.7128,\"longitude\":-74.006,"
+            + "\"isPrivate\":false,\"isReal\":true,\"latLong\":null,\"createdAt\":\"2024-01-01T12:00:01Z\","
+            + "\"updatedAt\":null},\"timestamp\":\"2024-01-01T12:00:00Z\"}",
+            LocationJsonCodec.writeResponse(response));
+    }
+
+    @Test
+    void testWriteErrorResponseOmitsNulls() throws Exception {
+        ApiResponse<String> response = ApiResponse.error("bad", "E1");
+        response.setTimestamp(null);
+
+        assertEquals("{\"success\":false,\"message\":\"bad\",\"errorCode\":\"E1\"}",
+            LocationJsonCodec.writeResponse(response));
+    }
+
+    @Test
+    void testWriteLocationsResponseProjectsFields() throws Exception {
+        String json = LocationJsonCodec.writeLocationsResponse("done", List.of(createLocation()),
+            LocationField.parse("dateTime,latitude"));
+
+        assertTrue(json.contains("\"data\":{\"count\":1,\"locations\":[{\"dateTime\":\"2024-01-01T12:00:00.000Z\",\"latitude\":40.7128}]}"));
+    }
+
+    @Test
+    void testReadLocationsRoundTrip() throws Exception {
+        String body = "[{\"userId\":\"user123\",\"dateTime\":\"2024-01-01T12:00:00.000Z\",\"latitude\":\"40.7128\","
+            + "\"longitude\":-74.006,\"isPrivate\":null,\"createdAt\":1704110401000}]";
+
+        List<UserLocation> locations = LocationJsonCodec.readLocations(body);
+
+        assertEquals(1, locations.size());
+        UserLocation location = locations.get(0);
+        assertEquals("user123", location.getUserId());
+        assertEquals(Double.valueOf(40.7128), location.getLatitude());
+        assertNull(location.getIsPrivate());
+        assertEquals(Instant.parse("2024-01-01T12:00:01Z"), location.getCreatedAt());
+    }
+
+    @Test
+    void testReadRejectsUnknownFieldsAndTrailingContent() {
+        assertThrows(JsonParseException.class, () -> LocationJsonCodec.readLocation("{\"altitude\":10}"));
+        assertThrows(JsonParseException.class, () -> LocationJsonCodec.readLocation("{\"userId\":\"u\"} {}"));
+        assertThrows(JsonParseException.class, () -> LocationJsonCodec.readLocations("{\"userId\":\"u\"}"));
+    }
+
+    private UserLocation createLocation() {
+        UserLocation location = new UserLocation();
+        location.setUserId("user123");
+        location.setDateTime("2024-01-01T12:00:00.000Z");
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.006);
+        location.setIsPrivate(false);
+        location.setIsReal(true);
+        location.setCreatedAt(Instant.parse("2024-01-01T12:00:01Z"));
+        return location;
+    }
+}
@@ -0,0 +1,63 @@
+package com.mindthekid.geo.cqrs.test.shared;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.LocationResponseWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationResponseWriterTest {
+
+    @Test
+    void testPagesAreFlushedAsTheyAreWritten() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LocationBatch page = new LocationBatch();
+
+        try (LocationResponseWriter writer = new LocationResponseWriter(out, EnumSet.of(LocationField.DATE_TIME))) {
+            page.add("user123", 1704110400000L);
+            writer.writePage(page);
+            String firstPage = out.toString(StandardCharsets.UTF_8);
+            assertTrue(firstPage.endsWith("{\"dateTime\":\"2024-01-01T12:00:00.000Z\"}"));
+
+            // The page is reused, as DynamoDBService.forEachLocationPage does
+            page.clear();
+            page.add("user123", 1704110401000L);
+            writer.writePage(page);
+            writer.finish("Successfully retrieved " + writer.getCount() + " user locations");
+        }
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"success\":true,\"data\":{\"locations\":[{\"dateTime\":\"2024-01-01T12:00:00.000Z\"},"
+            + "{\"dateTime\":\"2024-01-01T12:00:01.000Z\"}],\"count\":2},\"message\":\"Successfully retrieved 2 user locations\","
+            + "\"timestamp\":\""));
+        assertTrue(json.endsWith("\"}"));
+    }
+
+    @Test
+    void testEmptyResponse() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (LocationResponseWriter writer = new LocationResponseWriter(out, null)) {
+            writer.finish(null);
+            assertThrows(IllegalStateException.class, () -> writer.writePage(new LocationBatch()));
+        }
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("{\"success\":true,\"data\":{\"locations\":[],\"count\":0},\"timestamp\":"));
+    }
+
+    @Test
+    void testUnfinishedResponseIsNotClosedOff() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (LocationResponseWriter writer = new LocationResponseWriter(out, null)) {
+            writer.writePage(new LocationBatch());
+        }
+
+        assertEquals("{\"success\":true,\"data\":{\"locations\":[", out.toString(StandardCharsets.UTF_8));
+    }
+}
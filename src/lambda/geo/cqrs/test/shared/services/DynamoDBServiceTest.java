@@ -0,0 +1,124 @@
+package com.mindthekid.geo.cqrs.test.shared.services;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.RangeVersion;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DynamoDBServiceTest {
+
+    private static final String TABLE_NAME = "mtk-dev-user-locations";
+
+    @Test
+    void testMapperAndColumnarWritesUseTheConfiguredTable() {
+        // Arrange
+        AmazonDynamoDB dynamoDB = mock(AmazonDynamoDB.class);
+        when(dynamoDB.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(new BatchWriteItemResult().withUnprocessedItems(Collections.emptyMap()));
+        when(dynamoDB.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(new BatchGetItemResult().withResponses(Collections.emptyMap()));
+        DynamoDBService service = new DynamoDBService(dynamoDB, TABLE_NAME);
+        List<UserLocation> locations = Arrays.asList(createLocation("user123", "2024-01-01T12:00:00.000Z"));
+
+        // Act
+        service.bulkSaveUserLocations(locations);
+        service.bulkSaveNewLocations(LocationBatch.of(locations));
+
+        // Assert: not the user_locations default from @DynamoDBTable
+        ArgumentCaptor<BatchWriteItemRequest> requests = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+        verify(dynamoDB, times(2)).batchWriteItem(requests.capture());
+        for (BatchWriteItemRequest request : requests.getAllValues()) {
+            assertEquals(Collections.singleton(TABLE_NAME), request.getRequestItems().keySet());
+        }
+        ArgumentCaptor<BatchGetItemRequest> reads = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+        verify(dynamoDB).batchGetItem(reads.capture());
+        assertEquals(Collections.singleton(TABLE_NAME), reads.getValue().getRequestItems().keySet());
+    }
+
+    @Test
+    void testLatLongSelectionFetchesTheCoordinates() {
+        // Arrange - the track index returns only what the projection names
+        AmazonDynamoDB dynamoDB = mock(AmazonDynamoDB.class);
+        when(dynamoDB.query(any(QueryRequest.class))).thenReturn(new QueryResult().withItems(List.of(Map.of(
+                "user_id", new AttributeValue().withS("user123"),
+                "date_time", new AttributeValue().withS("2024-01-01T12:00:00.000Z"),
+                "latitude", new AttributeValue().withN("40.7128"),
+                "longitude", new AttributeValue().withN("-74.006")))));
+        DynamoDBService service = new DynamoDBService(dynamoDB, TABLE_NAME);
+
+        // Act
+        LocationBatch batch = service.queryLocationBatch("user123", null, null, EnumSet.of(LocationField.LAT_LONG));
+
+        // Assert
+        ArgumentCaptor<QueryRequest> request = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDB).query(request.capture());
+        assertTrue(request.getValue().getExpressionAttributeNames().values().containsAll(List.of("latitude", "longitude")));
+        assertEquals(DynamoDBService.USER_TRACK_INDEX, request.getValue().getIndexName());
+        assertEquals("40.7128,-74.006", batch.getLatLong(0));
+    }
+
+    @Test
+    void testRangeVersionCountsEveryPage() {
+        // Arrange - the newest updated_at belongs to an older point, on the first page
+        AmazonDynamoDB dynamoDB = mock(AmazonDynamoDB.class);
+        Map<String, AttributeValue> lastKey = Map.of("user_id", new AttributeValue().withS("user123"));
+        when(dynamoDB.query(any(QueryRequest.class))).thenReturn(
+                new QueryResult().withItems(List.of(
+                        Map.of("updated_at", new AttributeValue().withS("2024-01-03T00:00:00Z")),
+                        Map.of("updated_at", new AttributeValue().withS("2024-01-01T00:00:00Z"))))
+                        .withLastEvaluatedKey(lastKey),
+                new QueryResult().withItems(List.of(
+                        Map.of("updated_at", new AttributeValue().withS("2024-01-02T00:00:00Z")),
+                        Map.<String, AttributeValue>of())));
+        DynamoDBService service = new DynamoDBService(dynamoDB, TABLE_NAME);
+
+        // Act
+        RangeVersion version = service.getRangeVersion("user123", "2024-01-01T00:00:00.000Z", null);
+
+        // Assert
+        assertEquals(4, version.getCount());
+        assertEquals(Instant.parse("2024-01-03T00:00:00Z"), version.getLatestUpdatedAt());
+        ArgumentCaptor<QueryRequest> requests = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(dynamoDB, times(2)).query(requests.capture());
+        assertEquals("#updated_at", requests.getValue().getProjectionExpression());
+        assertEquals(lastKey, requests.getValue().getExclusiveStartKey());
+    }
+
+    @Test
+    void testTableNameIsRequired() {
+        AmazonDynamoDB dynamoDB = mock(AmazonDynamoDB.class);
+
+        assertThrows(IllegalStateException.class, () -> new DynamoDBService(dynamoDB, " "));
+    }
+
+    private static UserLocation createLocation(String userId, String dateTime) {
+        UserLocation location = new UserLocation();
+        location.setUserId(userId);
+        location.setDateTime(dateTime);
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        return location;
+    }
+}
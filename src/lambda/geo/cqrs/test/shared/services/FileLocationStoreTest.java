@@ -0,0 +1,79 @@
+package com.mindthekid.geo.cqrs.test.shared.services;
+
+import com.mindthekid.geo.cqrs.shared.services.FileLocationStore;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileLocationStoreTest {
+
+    @Test
+    void testJournalIsReplayedOnReopen(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("locations.jsonl");
+        try (FileLocationStore store = new FileLocationStore(file)) {
+            store.saveUserLocation(createLocation("user123", "2024-01-01T12:00:00.000Z"));
+            store.saveUserLocation(createLocation("user123", "2024-01-01T12:00:01.000Z"));
+            store.deleteUserLocation("user123", "2024-01-01T12:00:00.000Z");
+        }
+        // A write torn by a crash leaves a partial last line
+        Files.write(file, "+{\"userId\":\"user1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        // Act
+        try (FileLocationStore reopened = new FileLocationStore(file)) {
+            // Assert
+            assertEquals(1, reopened.size());
+            UserLocation location = reopened.getUserLocation("user123", "2024-01-01T12:00:01.000Z");
+            assertEquals(40.7128, location.getLatitude());
+            assertEquals(Instant.parse("2024-01-01T12:00:05Z"), location.getCreatedAt());
+
+            // The torn entry was cut off, so new entries start on a line of their own
+            reopened.saveUserLocation(createLocation("user123", "2024-01-01T12:00:02.000Z"));
+        }
+        try (FileLocationStore reopened = new FileLocationStore(file)) {
+            assertEquals(2, reopened.size());
+        }
+    }
+
+    @Test
+    void testCompactKeepsOnlyStoredLocations(@TempDir Path tempDir) throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("locations.jsonl");
+        try (FileLocationStore store = new FileLocationStore(file)) {
+            store.saveUserLocation(createLocation("user123", "2024-01-01T12:00:00.000Z"));
+            store.saveUserLocation(createLocation("user123", "2024-01-01T12:00:00.000Z"));
+            store.deleteAllUserLocations("user123");
+            store.saveUserLocation(createLocation("user456", "2024-01-01T12:00:00.000Z"));
+
+            // Act
+            store.compact();
+            store.saveUserLocation(createLocation("user456", "2024-01-01T12:00:01.000Z"));
+        }
+
+        // Assert
+        assertEquals(2, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        try (FileLocationStore reopened = new FileLocationStore(file)) {
+            assertEquals(2, reopened.getAllUserLocations("user456").size());
+            assertTrue(reopened.getAllUserLocations("user123").isEmpty());
+        }
+    }
+
+    private static UserLocation createLocation(String userId, String dateTime) {
+        UserLocation location = new UserLocation();
+        location.setUserId(userId);
+        location.setDateTime(dateTime);
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        location.setCreatedAt(Instant.parse("2024-01-01T12:00:05Z"));
+        location.setUpdatedAt(Instant.parse("2024-01-01T12:00:05Z"));
+        return location;
+    }
+}
@@ -0,0 +1,156 @@
+package com.mindthekid.geo.cqrs.test.shared.services;
+
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.dto.LocationField;
+import com.mindthekid.geo.cqrs.shared.dto.RangeVersion;
+import com.mindthekid.geo.cqrs.shared.services.InMemoryLocationStore;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryLocationStoreTest {
+
+    @Test
+    void testRangeQueriesAreInclusiveAndOrdered() {
+        // Arrange
+        InMemoryLocationStore store = new InMemoryLocationStore();
+        UserLocation edited = createLocation("user123", "2024-01-01T12:00:02.000Z");
+        edited.setUpdatedAt(Instant.parse("2024-01-02T00:00:00Z"));
+        store.saveUserLocation(edited);
+        store.saveUserLocation(createLocation("user123", "2024-01-01T12:00:00.000Z"));
+        store.saveUserLocation(createLocation("user123", "2024-01-01T12:00:01.000Z"));
+        store.saveUserLocation(createLocation("user456", "2024-01-01T12:00:01.000Z"));
+
+        // Act
+        List<UserLocation> range = store.getUserLocationsByTimeRange("user123", "2024-01-01T12:00:00.000Z", "2024-01-01T12:00:01.000Z");
+        RangeVersion version = store.getRangeVersion("user123", null, null);
+
+        // Assert
+        assertEquals(Arrays.asList("2024-01-01T12:00:00.000Z", "2024-01-01T12:00:01.000Z"),
+            Arrays.asList(range.get(0).getDateTime(), range.get(1).getDateTime()));
+        assertEquals(3, store.getAllUserLocations("user123").size());
+        assertEquals(3, version.getCount());
+        assertEquals(Instant.parse("2024-01-02T00:00:00Z"), version.getLatestUpdatedAt());
+        assertEquals(2, store.getRangeVersion("user123", null, "2024-01-01T12:00:01.000Z").getCount());
+        assertEquals(0, store.getRangeVersion("nobody", null, null).getCount());
+    }
+
+    @Test
+    void testStoredLocationsAreCopies() {
+        // Arrange
+        InMemoryLocationStore store = new InMemoryLocationStore();
+        UserLocation location = createLocation("user123", "2024-01-01T12:00:00.000Z");
+        store.saveUserLocation(location);
+
+        // Act
+        location.setLatitude(0.0);
+        store.getUserLocation("user123", "2024-01-01T12:00:00.000Z").setLatitude(1.0);
+
+        // Assert
+        assertEquals(40.7128, store.getUserLocation("user123", "2024-01-01T12:00:00.000Z").getLatitude());
+    }
+
+    @Test
+    void testSaveIfAbsentKeepsStoredCopy() {
+        // Arrange
+        InMemoryLocationStore store = new InMemoryLocationStore();
+        UserLocation original = createLocation("user123", "2024-01-01T12:00:00.000Z");
+        UserLocation reupload = createLocation("user123", "2024-01-01T12:00:00.000Z");
+        reupload.setLatitude(0.0);
+
+        // Act & Assert
+        assertTrue(store.saveUserLocationIfAbsent(original));
+        assertFalse(store.saveUserLocationIfAbsent(reupload));
+        assertEquals(40.7128, store.getUserLocation("user123", "2024-01-01T12:00:00.000Z").getLatitude());
+
+        List<UserLocation> saved = store.bulkSaveNewUserLocations(Arrays.asList(reupload,
+            createLocation("user123", "2024-01-01T12:00:01.000Z")));
+        assertEquals(1, saved.size());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testTrackIndexProjection() {
+        // Arrange
+        InMemoryLocationStore store = new InMemoryLocationStore();
+        store.saveUserLocation(createLocation("user123", "2024-01-01T12:00:00.000Z"));
+
+        // Act
+        UserLocation track = store.queryUserLocations("user123", null, null,
+            EnumSet.of(LocationField.DATE_TIME, LocationField.LATITUDE)).get(0);
+        UserLocation flags = store.queryUserLocations("user123", null, null,
+            EnumSet.of(LocationField.IS_PRIVATE)).get(0);
+
+        // Assert
+        assertEquals("2024-01-01T12:00:00.000Z", track.getDateTime());
+        assertEquals(40.7128, track.getLatitude());
+        assertNull(track.getUserId());
+        assertNull(track.getLongitude());
+        assertEquals(Boolean.FALSE, flags.getIsPrivate());
+        assertNull(flags.getDateTime());
+    }
+
+    @Test
+    void testLargeRangeIsPagedAndDeletedInBatches() throws Exception {
+        // Arrange - more than two pages, with a throttled fraction of batch writes resubmitted
+        InMemoryLocationStore store = new InMemoryLocationStore().withThrottleRate(0.02);
+        int count = InMemoryLocationStore.PAGE_SIZE * 2 + 17;
+        LocationBatch batch = new LocationBatch(count);
+        long start = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+        for (int i = 0; i < count; i++) {
+            int row = batch.add("user123", start + i * 1000L);
+            batch.setLatitude(row, 40.0);
+            batch.setLongitude(row, -74.0);
+        }
+
+        // Act
+        LocationBatch saved = store.bulkSaveNewLocations(batch);
+        List<Integer> pageSizes = new ArrayList<>();
+        store.withThrottleRate(0).forEachLocationPage("user123", null, null, null, page -> pageSizes.add(page.size()));
+        List<UserLocation> deleted = store.deleteUserLocationsFromTime("user123", "2024-01-01T00:00:10.000Z");
+
+        // Assert
+        assertEquals(count, saved.size());
+        assertEquals(Arrays.asList(InMemoryLocationStore.PAGE_SIZE, InMemoryLocationStore.PAGE_SIZE, 17), pageSizes);
+        assertEquals(count - 10, deleted.size());
+        assertEquals(10, store.size());
+        assertEquals(0, store.bulkSaveNewLocations(batch.select(bitsUpTo(10))).size());
+    }
+
+    @Test
+    void testThrottledSingleRequestFails() {
+        // Arrange
+        InMemoryLocationStore store = new InMemoryLocationStore().withThrottleRate(0.999_999);
+
+        // Act & Assert
+        assertThrows(ProvisionedThroughputExceededException.class,
+            () -> store.getUserLocation("user123", "2024-01-01T12:00:00.000Z"));
+        assertThrows(IllegalArgumentException.class, () -> store.withThrottleRate(1.0));
+    }
+
+    private static BitSet bitsUpTo(int rows) {
+        BitSet bits = new BitSet();
+        bits.set(0, rows);
+        return bits;
+    }
+
+    private static UserLocation createLocation(String userId, String dateTime) {
+        UserLocation location = new UserLocation();
+        location.setUserId(userId);
+        location.setDateTime(dateTime);
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        location.setIsPrivate(false);
+        location.setIsReal(true);
+        return location;
+    }
+}
@@ -0,0 +1,129 @@
+package com.mindthekid.geo.cqrs.test.shared.services;
+
+import com.mindthekid.geo.cqrs.shared.dto.LocationBatch;
+import com.mindthekid.geo.cqrs.shared.services.LocationReconciler;
+import com.mindthekid.models.UserLocation;
+import com.mindthekid.utils.TimeKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationReconcilerTest {
+
+    private LocationReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        // 2 second / 5 metre window
+        reconciler = new LocationReconciler(2000L, 5.0);
+    }
+
+    @Test
+    void testExactDuplicatesAreSkipped() {
+        // Arrange
+        UserLocation first = createLocation("user123", "2024-01-01T12:00:00Z", 40.7128, -74.0060);
+        UserLocation reupload = createLocation("user123", "2024-01-01T12:00:00Z", 40.7128, -74.0060);
+
+        // Act
+        LocationReconciler.Result result = reconciler.reconcile(Arrays.asList(first, reupload));
+
+        // Assert
+        assertEquals(1, result.getLocations().size());
+        assertSame(first, result.getLocations().get(0));
+        assertEquals(1, result.getDuplicatesSkipped());
+    }
+
+    @Test
+    void testNearDuplicatesWithinEpsilonAreSkipped() {
+        // Arrange - one second apart and roughly one metre apart
+        UserLocation first = createLocation("user123", "2024-01-01T12:00:00Z", 40.71280, -74.00600);
+        UserLocation jittered = createLocation("user123", "2024-01-01T12:00:01Z", 40.71281, -74.00600);
+
+        // Act
+        LocationReconciler.Result result = reconciler.reconcile(Arrays.asList(first, jittered));
+
+        // Assert
+        assertEquals(Collections.singletonList(first), result.getLocations());
+        assertEquals(1, result.getDuplicatesSkipped());
+    }
+
+    @Test
+    void testNearDuplicateKeepsFirstUploadedEvenIfLaterInTime() {
+        // Arrange
+        UserLocation later = createLocation("user123", "2024-01-01T12:00:01Z", 40.7128, -74.0060);
+        UserLocation earlier = createLocation("user123", "2024-01-01T12:00:00Z", 40.7128, -74.0060);
+
+        // Act
+        LocationReconciler.Result result = reconciler.reconcile(Arrays.asList(later, earlier));
+
+        // Assert
+        assertEquals(Collections.singletonList(later), result.getLocations());
+    }
+
+    @Test
+    void testDistinctPointsAreKeptInUploadOrder() {
+        // Arrange
+        UserLocation a = createLocation("user123", "2024-01-01T12:00:00Z", 40.7128, -74.0060);
+        UserLocation farAway = createLocation("user123", "2024-01-01T12:00:01Z", 40.7589, -73.9851);
+        UserLocation muchLater = createLocation("user123", "2024-01-01T12:05:00Z", 40.7128, -74.0060);
+        UserLocation otherUser = createLocation("user456", "2024-01-01T12:00:00Z", 40.7128, -74.0060);
+
+        // Act
+        List<UserLocation> reconciled = reconciler.reconcile(Arrays.asList(muchLater, a, otherUser, farAway)).getLocations();
+
+        // Assert
+        assertEquals(Arrays.asList(muchLater, a, otherUser, farAway), reconciled);
+    }
+
+    @Test
+    void testPointsWithoutCoordinatesOnlyDedupByKey() {
+        // Arrange
+        UserLocation a = createLocation("user123", "2024-01-01T12:00:00Z", null, null);
+        UserLocation b = createLocation("user123", "2024-01-01T12:00:01Z", null, null);
+
+        // Act
+        LocationReconciler.Result result = reconciler.reconcile(Arrays.asList(a, b));
+
+        // Assert
+        assertEquals(2, result.getLocations().size());
+        assertEquals(0, result.getDuplicatesSkipped());
+    }
+
+    @Test
+    void testBatchMatchesListReconciliation() {
+        // Arrange - same uploads as above, mixed together
+        List<UserLocation> uploads = Arrays.asList(
+            createLocation("user123", "2024-01-01T12:00:01Z", 40.7128, -74.0060),
+            createLocation("user456", "2024-01-01T12:00:00Z", 40.7128, -74.0060),
+            createLocation("user123", "2024-01-01T12:00:00Z", 40.7128, -74.0060),
+            createLocation("user123", "2024-01-01T12:00:01Z", 40.7128, -74.0060),
+            createLocation("user123", "2024-01-01T12:05:00Z", 40.7128, -74.0060),
+            createLocation("user123", "2024-01-01T12:00:01Z", 40.7589, -73.9851));
+
+        // Act
+        LocationBatch reconciled = reconciler.reconcile(LocationBatch.of(uploads));
+        List<UserLocation> expected = reconciler.reconcile(uploads).getLocations();
+
+        // Assert
+        assertEquals(expected.size(), reconciled.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getUserId(), reconciled.getUserId(i));
+            assertEquals(TimeKeys.normalize(expected.get(i).getDateTime()), reconciled.getDateTime(i));
+            assertEquals(expected.get(i).getLatitude(), Double.valueOf(reconciled.getLatitude(i)));
+        }
+    }
+
+    private UserLocation createLocation(String userId, String dateTime, Double latitude, Double longitude) {
+        UserLocation location = new UserLocation();
+        location.setUserId(userId);
+        location.setDateTime(dateTime);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
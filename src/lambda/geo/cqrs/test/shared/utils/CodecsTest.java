@@ -0,0 +1,43 @@
+package com.mindthekid.geo.cqrs.test.shared.utils;
+
+import com.mindthekid.models.Gender;
+import com.mindthekid.utils.Codecs;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the shared Codecs registry.
+ */
+@DisplayName("Codecs Tests")
+class CodecsTest {
+
+    @Test
+    @DisplayName("Should reuse readers and writers per type")
+    void testReadersAndWritersAreCached() {
+        assertSame(Codecs.reader(Gender.class), Codecs.reader(Gender.class));
+        assertSame(Codecs.writer(Gender.class), Codecs.writer(Gender.class));
+        assertNotSame(Codecs.reader(Gender.class), Codecs.reader(LocalDate.class));
+    }
+
+    @Test
+    @DisplayName("Should encode and decode models through the shared codecs")
+    void testModelJson() {
+        Gender gender = Gender.fromJson("{\"id\":3,\"genderDesc\":\"Female\",\"genderCode\":\"F\"}");
+
+        assertEquals(Integer.valueOf(3), gender.getId());
+        assertEquals("F", gender.getGenderCode());
+        assertTrue(gender.toJson().contains("\"genderDesc\":\"Female\""));
+    }
+
+    @Test
+    @DisplayName("Should handle java.time values")
+    void testJavaTime() throws Exception {
+        String json = Codecs.toJson(LocalDate.of(2024, 1, 2));
+
+        assertEquals(LocalDate.of(2024, 1, 2), Codecs.fromJson(json, LocalDate.class));
+    }
+}
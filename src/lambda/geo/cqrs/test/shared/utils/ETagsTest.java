@@ -0,0 +1,47 @@
+package com.mindthekid.geo.cqrs.test.shared.utils;
+
+import com.mindthekid.utils.ETags;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ETags weak tag generation and If-None-Match matching.
+ */
+@DisplayName("ETags Tests")
+class ETagsTest {
+
+    @Test
+    @DisplayName("Should produce stable weak tags")
+    void testWeakTagIsStable() {
+        String tag = ETags.weak("user123", "2024-01-01T12:00:00.000Z", null);
+
+        assertTrue(tag.matches("W/\"[0-9a-f]{16}\""));
+        assertEquals(tag, ETags.weak("user123", "2024-01-01T12:00:00.000Z", null));
+    }
+
+    @Test
+    @DisplayName("Should change tag when any component changes")
+    void testWeakTagDistinguishesComponents() {
+        String tag = ETags.weak("user123", "2024-01-01T12:00:00.000Z");
+
+        assertNotEquals(tag, ETags.weak("user123", "2024-01-01T12:00:01.000Z"));
+        assertNotEquals(ETags.weak("ab", "c"), ETags.weak("a", "bc"));
+        assertNotEquals(ETags.weak((String) null), ETags.weak(""));
+    }
+
+    @Test
+    @DisplayName("Should match If-None-Match using weak comparison")
+    void testMatches() {
+        String tag = ETags.weak("user123");
+        String opaque = tag.substring(2);
+
+        assertTrue(ETags.matches(tag, tag));
+        assertTrue(ETags.matches(opaque, tag));
+        assertTrue(ETags.matches("W/\"other\", " + tag, tag));
+        assertTrue(ETags.matches("*", tag));
+        assertFalse(ETags.matches("W/\"other\"", tag));
+        assertFalse(ETags.matches(null, tag));
+    }
+}
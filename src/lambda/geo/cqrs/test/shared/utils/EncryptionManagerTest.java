@@ -8,6 +8,19 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -451,6 +464,227 @@ class EncryptionManagerTest {
         }
     }
     
+    @Nested
+    @DisplayName("Hash Scheme Tests")
+    class HashSchemeTests {
+        
+        @Test
+        @DisplayName("Should prefix hash with scheme and work factor")
+        void shouldPrefixHashWithSchemeAndWorkFactor() {
+            // When
+            String hash = EncryptionManager.generateHash("mySecretKey123");
+            
+            // Then
+            String prefix = EncryptionManager.getHashScheme() + "$" + EncryptionManager.getWorkFactor() + "$";
+            assertTrue(hash.startsWith(prefix));
+            assertFalse(EncryptionManager.needsRehash(hash));
+        }
+        
+        @Test
+        @DisplayName("Should verify legacy salt:hash values")
+        void shouldVerifyLegacySaltHashValues() throws Exception {
+            // Given
+            String legacyHash = legacyHash("mySecretKey123");
+            
+            // When & Then
+            assertTrue(EncryptionManager.verifyHash("mySecretKey123", legacyHash));
+            assertFalse(EncryptionManager.verifyHash("wrongKey123", legacyHash));
+            assertTrue(EncryptionManager.needsRehash(legacyHash));
+        }
+        
+        @Test
+        @DisplayName("Should verify hash with explicit scheme and work factor")
+        void shouldVerifyHashWithExplicitSchemeAndWorkFactor() {
+            // Given
+            String hash = EncryptionManager.generateHash("mySecretKey123", "pbkdf2-sha512", 1500);
+            
+            // When & Then
+            assertTrue(hash.startsWith("pbkdf2-sha512$1500$"));
+            assertTrue(EncryptionManager.verifyHash("mySecretKey123", hash));
+            assertFalse(EncryptionManager.verifyHash("wrongKey123", hash));
+        }
+        
+        @Test
+        @DisplayName("Should need rehash for other scheme but not for higher work factor")
+        void shouldNeedRehashForOtherSchemeButNotForHigherWorkFactor() {
+            // Given
+            String otherScheme = EncryptionManager.getHashScheme().equals("pbkdf2-sha512") ? "pbkdf2-sha256" : "pbkdf2-sha512";
+            String otherSchemeHash = EncryptionManager.generateHash("mySecretKey123", otherScheme, 1000);
+            String strongerHash = EncryptionManager.generateHash(
+                "mySecretKey123", EncryptionManager.getHashScheme(), EncryptionManager.getWorkFactor() + 1);
+            
+            // When & Then
+            assertTrue(EncryptionManager.needsRehash(otherSchemeHash));
+            assertFalse(EncryptionManager.needsRehash(strongerHash));
+        }
+        
+        @Test
+        @DisplayName("Should hand upgraded hash to caller on successful verification")
+        void shouldHandUpgradedHashToCallerOnSuccessfulVerification() throws Exception {
+            // Given
+            String legacyHash = legacyHash("mySecretKey123");
+            List<String> rehashed = new ArrayList<>();
+            
+            // When
+            boolean wrongKeyValid = EncryptionManager.verifyAndRehash("wrongKey123", legacyHash, rehashed::add);
+            boolean isValid = EncryptionManager.verifyAndRehash("mySecretKey123", legacyHash, rehashed::add);
+            
+            // Then
+            assertFalse(wrongKeyValid);
+            assertTrue(isValid);
+            assertEquals(1, rehashed.size());
+            assertTrue(EncryptionManager.verifyHash("mySecretKey123", rehashed.get(0)));
+            assertFalse(EncryptionManager.needsRehash(rehashed.get(0)));
+        }
+        
+        @Test
+        @DisplayName("Should not rehash current hash")
+        void shouldNotRehashCurrentHash() {
+            // Given
+            String hash = EncryptionManager.generateHash("mySecretKey123");
+            List<String> rehashed = new ArrayList<>();
+            
+            // When
+            boolean isValid = EncryptionManager.verifyAndRehash("mySecretKey123", hash, rehashed::add);
+            
+            // Then
+            assertTrue(isValid);
+            assertTrue(rehashed.isEmpty());
+        }
+        
+        @Test
+        @DisplayName("Should reject unknown scheme and low work factor")
+        void shouldRejectUnknownSchemeAndLowWorkFactor() {
+            // When & Then
+            IllegalArgumentException unknown = assertThrows(
+                IllegalArgumentException.class,
+                () -> EncryptionManager.generateHash("mySecretKey123", "md5", 1000)
+            );
+            assertTrue(unknown.getMessage().contains("Unknown hash scheme"));
+            
+            IllegalArgumentException tooLow = assertThrows(
+                IllegalArgumentException.class,
+                () -> EncryptionManager.generateHash("mySecretKey123", "pbkdf2-sha256", 999)
+            );
+            assertTrue(tooLow.getMessage().contains("at least 1000"));
+            
+            assertThrows(
+                RuntimeException.class,
+                () -> EncryptionManager.verifyHash("mySecretKey123", "md5$1000$c2FsdA==:aGFzaA==")
+            );
+        }
+        
+        private String legacyHash(String userKey) throws Exception {
+            byte[] salt = new byte[32];
+            salt[0] = 42;
+            byte[] keyBytes = userKey.getBytes(StandardCharsets.UTF_8);
+            byte[] saltedKey = new byte[salt.length + keyBytes.length];
+            System.arraycopy(salt, 0, saltedKey, 0, salt.length);
+            System.arraycopy(keyBytes, 0, saltedKey, salt.length, keyBytes.length);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(saltedKey);
+            return Base64.getEncoder().encodeToString(salt) + ":" + Base64.getEncoder().encodeToString(hash);
+        }
+    }
+    
+    @Nested
+    @DisplayName("Batch Hashing Tests")
+    class BatchHashingTests {
+        
+        @Test
+        @DisplayName("Should generate and verify hashes in key order")
+        void shouldGenerateAndVerifyHashesInKeyOrder() {
+            // Given
+            List<String> userKeys = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                userKeys.add("batchKey_" + i);
+            }
+            
+            // When
+            List<String> hashes = EncryptionManager.generateHashes(userKeys);
+            
+            // Then
+            assertEquals(userKeys.size(), hashes.size());
+            assertEquals(userKeys.size(), new HashSet<>(hashes).size());
+            for (int i = 0; i < userKeys.size(); i++) {
+                assertTrue(EncryptionManager.verifyHash(userKeys.get(i), hashes.get(i)));
+            }
+            
+            List<String> shifted = new ArrayList<>(hashes.subList(1, hashes.size()));
+            shifted.add(hashes.get(0));
+            List<Boolean> matching = EncryptionManager.verifyHashes(userKeys, hashes);
+            List<Boolean> mismatched = EncryptionManager.verifyHashes(userKeys, shifted);
+            assertFalse(matching.contains(false));
+            assertFalse(mismatched.contains(true));
+        }
+        
+        @Test
+        @DisplayName("Should handle empty batch")
+        void shouldHandleEmptyBatch() {
+            // When & Then
+            assertTrue(EncryptionManager.generateHashes(new ArrayList<>()).isEmpty());
+            assertTrue(EncryptionManager.verifyHashes(new ArrayList<>(), new ArrayList<>()).isEmpty());
+        }
+        
+        @Test
+        @DisplayName("Should reject batch with an invalid key")
+        void shouldRejectBatchWithAnInvalidKey() {
+            // Given
+            List<String> userKeys = Arrays.asList("validKey123", "short");
+            
+            // When & Then
+            IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> EncryptionManager.generateHashes(userKeys)
+            );
+            assertTrue(exception.getMessage().contains("at least 8 characters"));
+        }
+        
+        @Test
+        @DisplayName("Should reject batch verification with mismatched sizes")
+        void shouldRejectBatchVerificationWithMismatchedSizes() {
+            // Given
+            List<String> userKeys = Arrays.asList("validKey123", "validKey456");
+            List<String> storedHashes = Arrays.asList(EncryptionManager.generateHash("validKey123"));
+            
+            // When & Then
+            IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> EncryptionManager.verifyHashes(userKeys, storedHashes)
+            );
+            assertTrue(exception.getMessage().contains("2 keys, 1 hashes"));
+        }
+        
+        @Test
+        @DisplayName("Should hash and verify concurrently from many threads")
+        void shouldHashAndVerifyConcurrentlyFromManyThreads() throws Exception {
+            // Given
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            Set<String> hashes = ConcurrentHashMap.newKeySet();
+            List<Future<Boolean>> results = new ArrayList<>();
+            
+            // When
+            try {
+                for (int i = 0; i < 64; i++) {
+                    String userKey = "threadKey_" + i;
+                    results.add(executor.submit(() -> {
+                        String hash = EncryptionManager.generateHash(userKey);
+                        hashes.add(hash);
+                        return EncryptionManager.verifyHash(userKey, hash)
+                            && !EncryptionManager.verifyHash("wrongKey123", hash);
+                    }));
+                }
+                
+                // Then
+                for (Future<Boolean> result : results) {
+                    assertTrue(result.get());
+                }
+                assertEquals(64, hashes.size());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+    
     @Nested
     @DisplayName("Security Tests")
     class SecurityTests {
@@ -462,22 +696,36 @@ class EncryptionManagerTest {
             String userKey = "mySecretKey123";
             String hash = EncryptionManager.generateHash(userKey);
             
-            // When - Verify multiple times to check for timing differences
-            long startTime = System.nanoTime();
-            boolean result1 = EncryptionManager.verifyHash(userKey, hash);
-            long time1 = System.nanoTime() - startTime;
+            // Warm up the key derivation so neither timed call runs in the interpreter
+            for (int i = 0; i < 50; i++) {
+                EncryptionManager.verifyHash(userKey, hash);
+            }
             
-            startTime = System.nanoTime();
-            boolean result2 = EncryptionManager.verifyHash("wrongKey", hash);
-            long time2 = System.nanoTime() - startTime;
+            // When - Verify multiple times to check for timing differences
+            // (fastest of several runs, since key stretching makes single calls prone to GC and scheduling noise)
+            boolean result1 = false;
+            boolean result2 = true;
+            long time1 = Long.MAX_VALUE;
+            long time2 = Long.MAX_VALUE;
+            for (int i = 0; i < 10; i++) {
+                long startTime = System.nanoTime();
+                result1 = EncryptionManager.verifyHash(userKey, hash);
+                time1 = Math.min(time1, System.nanoTime() - startTime);
+                
+                startTime = System.nanoTime();
+                result2 = EncryptionManager.verifyHash("wrongKey", hash);
+                time2 = Math.min(time2, System.nanoTime() - startTime);
+            }
             
             // Then
             assertTrue(result1);
             assertFalse(result2);
             
-            // Timing should be similar (within reasonable bounds)
+            // Timing should be similar (within reasonable bounds): 1ms, or 10% of a verification once
+            // key stretching makes each one cost far more than scheduling noise
             long timeDifference = Math.abs(time1 - time2);
-            assertTrue(timeDifference < 1000000, // 1ms tolerance
+            long tolerance = Math.max(1_000_000, Math.min(time1, time2) / 10);
+            assertTrue(timeDifference < tolerance,
                 "Hash verification should use constant-time comparison");
         }
         
@@ -0,0 +1,39 @@
+package com.mindthekid.geo.cqrs.test.shared.utils;
+
+import com.mindthekid.utils.ThreadPools;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ThreadPools executor selection.
+ */
+@DisplayName("ThreadPools Tests")
+class ThreadPoolsTest {
+
+    @Test
+    @DisplayName("Should run tasks on virtual or daemon threads")
+    void testExecutorThreads() throws Exception {
+        ExecutorService executor = ThreadPools.newVirtualOrBounded("test-pool", 2);
+        try {
+            Future<Boolean> daemon = executor.submit(() -> Thread.currentThread().isDaemon());
+            // Virtual threads are always daemon threads, so both paths report true
+            assertTrue(daemon.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should name fallback threads and reject invalid sizes")
+    void testDaemonThreadFactory() {
+        Thread thread = ThreadPools.daemonThreadFactory("worker").newThread(() -> { });
+        assertEquals("worker-1", thread.getName());
+        assertTrue(thread.isDaemon());
+        assertThrows(IllegalArgumentException.class, () -> ThreadPools.newVirtualOrBounded("bad", 0));
+    }
+}
@@ -0,0 +1,97 @@
+package com.mindthekid.geo.cqrs.test.shared.utils;
+
+import com.mindthekid.utils.TimeKeys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimeKeys canonical time key parsing and formatting.
+ */
+@DisplayName("TimeKeys Tests")
+class TimeKeysTest {
+
+    private static final String CANONICAL = "2024-01-01T12:00:00.000Z";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "2024-01-01T12:00:00Z",
+        "2024-01-01T12:00:00.000Z",
+        "2024-01-01T12:00:00.000000Z",
+        "2024-01-01T12:00Z",
+        "2024-01-01T12:00:00",
+        "2024-01-01 12:00:00",
+        "2024-01-01T14:00:00+02:00",
+        "2024-01-01T14:00:00+0200",
+        "2024-01-01T07:00:00-05",
+        "1704110400000"
+    })
+    @DisplayName("Should normalize supported client formats to the same canonical key")
+    void shouldNormalizeSupportedFormats(String input) {
+        assertEquals(CANONICAL, TimeKeys.normalize(input));
+    }
+
+    @Test
+    @DisplayName("Should return canonical input unchanged")
+    void shouldReturnCanonicalInputUnchanged() {
+        assertSame(CANONICAL, TimeKeys.normalize(CANONICAL));
+        assertTrue(TimeKeys.isCanonical(CANONICAL));
+        assertFalse(TimeKeys.isCanonical("2024-01-01T12:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Should truncate fractions beyond milliseconds")
+    void shouldTruncateSubMillisecondFractions() {
+        assertEquals("2024-01-01T12:00:00.123Z", TimeKeys.normalize("2024-01-01T12:00:00.123999Z"));
+        assertEquals("2024-01-01T12:00:00.100Z", TimeKeys.normalize("2024-01-01T12:00:00.1Z"));
+    }
+
+    @Test
+    @DisplayName("Should agree with java.time for epoch millis round trips")
+    void shouldRoundTripAgainstJavaTime() {
+        long[] samples = {0L, -1L, 951_782_400_000L, 1_704_110_400_123L, 4_102_444_799_999L};
+        for (long millis : samples) {
+            String formatted = TimeKeys.format(millis);
+            assertEquals(millis, Instant.parse(formatted).toEpochMilli());
+            assertEquals(millis, TimeKeys.parseEpochMillis(formatted));
+        }
+    }
+
+    @Test
+    @DisplayName("Should sort canonical keys chronologically")
+    void shouldSortLexicographicallyInTimeOrder() {
+        // 20:00Z and 23:00Z; the raw strings sort the other way round
+        String earlier = TimeKeys.normalize("2024-01-02T01:00:00+05:00");
+        String later = TimeKeys.normalize("2024-01-01T23:00:00Z");
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    @DisplayName("Should format into a caller supplied buffer")
+    void shouldFormatIntoBuffer() {
+        char[] buffer = new char[TimeKeys.CANONICAL_LENGTH + 2];
+        TimeKeys.formatTo(1_704_110_400_000L, buffer, 1);
+        assertEquals(CANONICAL, new String(buffer, 1, TimeKeys.CANONICAL_LENGTH));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "not-a-date",
+        "2024-13-01T00:00:00Z",
+        "2024-02-30T00:00:00Z",
+        "2024-01-01T24:00:00Z",
+        "2024-01-01T12:00:00.Z",
+        "2024-01-01T12:00:00+2",
+        "2024-01-01T12:00:00Q"
+    })
+    @DisplayName("Should reject unsupported timestamps")
+    void shouldRejectUnsupportedTimestamps(String input) {
+        assertThrows(IllegalArgumentException.class, () -> TimeKeys.parseEpochMillis(input));
+    }
+}
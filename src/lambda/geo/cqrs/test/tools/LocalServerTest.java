@@ -0,0 +1,94 @@
+package com.mindthekid.geo.cqrs.test.tools;
+
+import com.mindthekid.geo.cqrs.infrastructure.RouterHandler;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.tools.LocalServer;
+import com.mindthekid.models.UserLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocalServerTest {
+
+    @Mock
+    private DynamoDBService dynamoDBService;
+
+    private LocalServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Port 0 picks a free port; a null authorizer trusts the X-User-Id header
+        server = new LocalServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            new RouterHandler(dynamoDBService), null, 4);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testServesRetrieveThroughRouter() throws Exception {
+        // Arrange
+        UserLocation location = new UserLocation();
+        location.setUserId("user123");
+        location.setDateTime("2024-01-01T12:00:00.000Z");
+        when(dynamoDBService.getUserLocation("user123", "2024-01-01T12:00:00.000Z")).thenReturn(location);
+
+        // Act
+        HttpURLConnection connection = open("/api/v1/locations/user123/2024-01-01T12%3A00%3A00Z");
+        connection.setRequestProperty(LocalServer.USER_ID_HEADER, "user123");
+
+        // Assert
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(read(connection.getInputStream()).contains("\"userId\":\"user123\""));
+        verify(dynamoDBService).getUserLocation("user123", "2024-01-01T12:00:00.000Z");
+    }
+
+    @Test
+    void testMissingUserIsUnauthorized() throws Exception {
+        // Act
+        HttpURLConnection connection = open("/api/v1/locations/user123/2024-01-01T12%3A00%3A00Z");
+
+        // Assert
+        assertEquals(401, connection.getResponseCode());
+        verifyNoInteractions(dynamoDBService);
+    }
+
+    @Test
+    void testUnknownPathReturnsNotFound() throws Exception {
+        // Act
+        HttpURLConnection connection = open("/api/v1/users/user123");
+        connection.setRequestProperty(LocalServer.USER_ID_HEADER, "user123");
+
+        // Assert
+        assertEquals(404, connection.getResponseCode());
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        URL url = new URL("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort() + path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    private static String read(InputStream input) throws IOException {
+        try (InputStream in = input) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.mindthekid.geo.cqrs.test.tools;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.mindthekid.geo.cqrs.tools.TimeKeyMigration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimeKeyMigrationTest {
+
+    private static final String TABLE_NAME = "mtk-dev-user-locations";
+
+    @Mock
+    private AmazonDynamoDB dynamoDB;
+
+    @Test
+    void testCopiesUnderTheCanonicalKeyThenDeletesTheOriginal() {
+        // Arrange
+        scanReturns(List.of(item("user123", "2024-01-01T14:00:00+02:00")));
+
+        // Act
+        new TimeKeyMigration(dynamoDB, TABLE_NAME, false).run();
+
+        // Assert
+        ArgumentCaptor<PutItemRequest> put = ArgumentCaptor.forClass(PutItemRequest.class);
+        verify(dynamoDB).putItem(put.capture());
+        assertEquals("2024-01-01T12:00:00.000Z", put.getValue().getItem().get("date_time").getS());
+        assertEquals("40.7128", put.getValue().getItem().get("latitude").getN());
+        assertEquals("attribute_not_exists(user_id)", put.getValue().getConditionExpression());
+        ArgumentCaptor<DeleteItemRequest> delete = ArgumentCaptor.forClass(DeleteItemRequest.class);
+        verify(dynamoDB).deleteItem(delete.capture());
+        assertEquals("2024-01-01T14:00:00+02:00", delete.getValue().getKey().get("date_time").getS());
+    }
+
+    @Test
+    void testLeavesCanonicalItemsAlone() {
+        // Arrange
+        scanReturns(List.of(item("user123", "2024-01-01T12:00:00.000Z")));
+
+        // Act
+        new TimeKeyMigration(dynamoDB, TABLE_NAME, false).run();
+
+        // Assert
+        verify(dynamoDB, never()).putItem(any(PutItemRequest.class));
+        verify(dynamoDB, never()).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    @Test
+    void testSkipsUnparseableDateTimes() {
+        // Arrange
+        scanReturns(List.of(item("user123", "yesterday"), item("user123", "2024-01-01T14:00:00+02:00")));
+
+        // Act
+        new TimeKeyMigration(dynamoDB, TABLE_NAME, false).run();
+
+        // Assert - only the parseable item is rewritten
+        ArgumentCaptor<DeleteItemRequest> delete = ArgumentCaptor.forClass(DeleteItemRequest.class);
+        verify(dynamoDB).putItem(any(PutItemRequest.class));
+        verify(dynamoDB).deleteItem(delete.capture());
+        assertEquals("2024-01-01T14:00:00+02:00", delete.getValue().getKey().get("date_time").getS());
+    }
+
+    @Test
+    void testKeepsTheOriginalWhenACanonicalCopyExists() {
+        // Arrange - the conditional put fails because the canonical key is taken
+        scanReturns(List.of(item("user123", "2024-01-01T14:00:00+02:00")));
+        when(dynamoDB.putItem(any(PutItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed"));
+
+        // Act
+        new TimeKeyMigration(dynamoDB, TABLE_NAME, false).run();
+
+        // Assert
+        verify(dynamoDB).putItem(any(PutItemRequest.class));
+        verify(dynamoDB, never()).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    @Test
+    void testDryRunWritesNothing() {
+        // Arrange
+        scanReturns(List.of(item("user123", "2024-01-01T14:00:00+02:00")));
+
+        // Act
+        new TimeKeyMigration(dynamoDB, TABLE_NAME, true).run();
+
+        // Assert
+        verify(dynamoDB, never()).putItem(any(PutItemRequest.class));
+        verify(dynamoDB, never()).deleteItem(any(DeleteItemRequest.class));
+    }
+
+    private void scanReturns(List<Map<String, AttributeValue>> items) {
+        when(dynamoDB.scan(any(ScanRequest.class))).thenReturn(new ScanResult().withItems(items));
+    }
+
+    private static Map<String, AttributeValue> item(String userId, String dateTime) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("user_id", new AttributeValue().withS(userId));
+        item.put("date_time", new AttributeValue().withS(dateTime));
+        item.put("latitude", new AttributeValue().withN("40.7128"));
+        item.put("longitude", new AttributeValue().withN("-74.006"));
+        return item;
+    }
+}
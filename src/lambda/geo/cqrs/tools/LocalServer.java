@@ -0,0 +1,424 @@
+package com.mindthekid.geo.cqrs.tools;
+
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.mindthekid.geo.cqrs.infrastructure.CognitoAuthorizer;
+import com.mindthekid.geo.cqrs.infrastructure.RouterHandler;
+import com.mindthekid.geo.cqrs.shared.services.DynamoDBService;
+import com.mindthekid.geo.cqrs.shared.services.FileLocationStore;
+import com.mindthekid.geo.cqrs.shared.services.InMemoryLocationStore;
+import com.mindthekid.geo.cqrs.shared.services.LocationStore;
+import com.mindthekid.utils.Codecs;
+import com.mindthekid.utils.ThreadPools;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the geo CQRS API over plain HTTP, outside Lambda, for load tests, profiling and
+ * container deployments.
+ *
+ * Each request is adapted into the {@code APIGatewayProxyRequestEvent} API Gateway would
+ * send and dispatched through {@link RouterHandler}, so the handlers run unchanged. The
+ * storage behind them is whatever {@link LocationStore} the router is built with;
+ * {@link #main} uses DynamoDB in AWS, DynamoDB Local ({@code --endpoint}), the
+ * {@link InMemoryLocationStore} ({@code --store memory}, optionally with simulated latency
+ * and throttling) or the journaled {@link FileLocationStore} ({@code --store file}).
+ * Requests run on virtual threads when the JVM has them, otherwise on a bounded pool.
+ *
+ * The caller's user id is resolved like the API Gateway authorizer does it:
+ * {@link CognitoAuthorizer} validates the bearer token, and the result is cached per
+ * token for five minutes. For load tests, {@code --trust-user-header} instead takes the
+ * user id from the {@code X-User-Id} header without any check.
+ *
+ * Usage: {@code LocalServer [--port <port>] [--threads <n>] [--trust-user-header]
+ *     [--store dynamodb] [--endpoint <url>] [--table <name>]
+ *     | --store memory [--latency-ms <ms>] [--throttle-rate <0..1>]
+ *     | --store file [--data-file <path>]}
+ */
+public final class LocalServer {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_THREADS = 64;
+    private static final String DEFAULT_DATA_FILE = "locations.jsonl";
+    // Same as authorizer_result_ttl_in_seconds on the API Gateway authorizer
+    private static final long AUTHORIZATION_TTL_MS = 300_000L;
+    private static final int MAX_CACHED_AUTHORIZATIONS = 10_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> router;
+    private final CognitoAuthorizer authorizer;
+    private final Map<String, CachedAuthorization> authorizations = new ConcurrentHashMap<>();
+
+    /**
+     * @param authorizer Validates bearer tokens, or null to trust the {@code X-User-Id} header
+     */
+    public LocalServer(InetSocketAddress address, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> router,
+                       CognitoAuthorizer authorizer, int maxThreads) throws IOException {
+        this.router = router;
+        this.authorizer = authorizer;
+        this.executor = ThreadPools.newVirtualOrBounded("local-server", maxThreads);
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = DEFAULT_THREADS;
+        String store = "dynamodb";
+        String endpoint = null;
+        String tableName = System.getenv("DYNAMODB_TABLE_NAME");
+        String dataFile = DEFAULT_DATA_FILE;
+        long latencyMs = 0;
+        double throttleRate = 0;
+        boolean trustUserHeader = false;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--store".equals(args[i]) && i + 1 < args.length) {
+                store = args[++i];
+            } else if ("--endpoint".equals(args[i]) && i + 1 < args.length) {
+                endpoint = args[++i];
+            } else if ("--table".equals(args[i]) && i + 1 < args.length) {
+                tableName = args[++i];
+            } else if ("--data-file".equals(args[i]) && i + 1 < args.length) {
+                dataFile = args[++i];
+            } else if ("--latency-ms".equals(args[i]) && i + 1 < args.length) {
+                latencyMs = Long.parseLong(args[++i]);
+            } else if ("--throttle-rate".equals(args[i]) && i + 1 < args.length) {
+                throttleRate = Double.parseDouble(args[++i]);
+            } else if ("--trust-user-header".equals(args[i])) {
+                trustUserHeader = true;
+            } else {
+                System.err.println("Usage: LocalServer [--port <port>] [--threads <n>] [--trust-user-header]"
+                    + " [--store dynamodb|memory|file] [--endpoint <url>] [--table <name>]"
+                    + " [--latency-ms <ms>] [--throttle-rate <0..1>] [--data-file <path>]");
+                System.exit(2);
+            }
+        }
+
+        LocationStore locationStore;
+        switch (store) {
+            case "memory":
+                locationStore = new InMemoryLocationStore()
+                    .withLatency(Duration.ofMillis(latencyMs))
+                    .withThrottleRate(throttleRate);
+                break;
+            case "file":
+                locationStore = new FileLocationStore(Paths.get(dataFile))
+                    .withLatency(Duration.ofMillis(latencyMs))
+                    .withThrottleRate(throttleRate);
+                break;
+            case "dynamodb":
+                AmazonDynamoDBClientBuilder clientBuilder = AmazonDynamoDBClientBuilder.standard();
+                if (endpoint != null) {
+                    String region = System.getenv("AWS_REGION") != null ? System.getenv("AWS_REGION") : "us-east-1";
+                    clientBuilder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region));
+                }
+                locationStore = new DynamoDBService(clientBuilder.build(), tableName);
+                break;
+            default:
+                System.err.println("Unknown store: " + store + " (expected dynamodb, memory or file)");
+                System.exit(2);
+                return;
+        }
+
+        LocalServer localServer = new LocalServer(new InetSocketAddress(port),
+            new RouterHandler(locationStore),
+            trustUserHeader ? null : new CognitoAuthorizer(),
+            threads);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            localServer.stop();
+            locationStore.close();
+        }));
+        localServer.start();
+        System.out.println("Listening on port " + localServer.getPort() + " with the " + store + " store"
+            + (ThreadPools.virtualThreadsAvailable() ? " (virtual threads)" : " (" + threads + " threads)"));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            APIGatewayProxyRequestEvent request = toRequestEvent(exchange);
+            Context context = new LocalContext();
+
+            String userId = authenticate(request, context);
+            APIGatewayProxyResponseEvent response;
+            if (userId == null) {
+                response = new APIGatewayProxyResponseEvent()
+                        .withStatusCode(401)
+                        .withBody("{\"message\":\"Unauthorized\"}")
+                        .withHeaders(Map.of("Content-Type", "application/json"));
+            } else {
+                Map<String, Object> authorizerContext = new HashMap<>();
+                authorizerContext.put("userId", userId);
+                request.getRequestContext().setAuthorizer(authorizerContext);
+                response = router.handleRequest(request, context);
+            }
+
+            send(exchange, response);
+        } catch (RuntimeException e) {
+            send(exchange, new APIGatewayProxyResponseEvent()
+                    .withStatusCode(500)
+                    .withBody("{\"success\":false,\"message\":\"Internal server error\"}")
+                    .withHeaders(Map.of("Content-Type", "application/json")));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Stand-in for the API Gateway authorizer: the caller's user id, or null when unauthorized
+    private String authenticate(APIGatewayProxyRequestEvent request, Context context) {
+        Map<String, String> headers = request.getHeaders();
+        if (authorizer == null) {
+            String userId = headers.get(USER_ID_HEADER);
+            return userId == null || userId.trim().isEmpty() ? null : userId;
+        }
+
+        String token = headers.get("Authorization");
+        if (token == null) {
+            return null;
+        }
+        CachedAuthorization cached = authorizations.get(token);
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt > now) {
+            return cached.userId;
+        }
+
+        APIGatewayProxyResponseEvent result = authorizer.handleRequest(request, context);
+        if (result.getStatusCode() == null || result.getStatusCode() != 200) {
+            return null;
+        }
+        try {
+            Map<?, ?> policy = Codecs.fromJson(result.getBody(), Map.class);
+            Object policyContext = policy.get("context");
+            Object userId = policyContext instanceof Map ? ((Map<?, ?>) policyContext).get("userId") : null;
+            if (userId == null) {
+                return null;
+            }
+            if (authorizations.size() >= MAX_CACHED_AUTHORIZATIONS) {
+                authorizations.clear();
+            }
+            authorizations.put(token, new CachedAuthorization(userId.toString(), now + AUTHORIZATION_TTL_MS));
+            return userId.toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static APIGatewayProxyRequestEvent toRequestEvent(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+
+        // API Gateway passes the last value as the single-value header and all of them as multi-value
+        Map<String, String> headers = new HashMap<>();
+        Map<String, List<String>> multiValueHeaders = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            List<String> values = header.getValue();
+            if (!values.isEmpty()) {
+                headers.put(canonicalHeaderName(header.getKey()), values.get(values.size() - 1));
+                multiValueHeaders.put(canonicalHeaderName(header.getKey()), new ArrayList<>(values));
+            }
+        }
+
+        String body;
+        try (InputStream input = exchange.getRequestBody()) {
+            byte[] bytes = input.readAllBytes();
+            body = bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setRequestId(UUID.randomUUID().toString());
+        requestContext.setHttpMethod(exchange.getRequestMethod());
+        requestContext.setPath(uri.getRawPath());
+
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        request.setHttpMethod(exchange.getRequestMethod());
+        request.setPath(uri.getRawPath());
+        request.setHeaders(headers);
+        request.setMultiValueHeaders(multiValueHeaders);
+        request.setQueryStringParameters(parseQuery(uri.getRawQuery()));
+        request.setBody(body);
+        request.setIsBase64Encoded(false);
+        request.setRequestContext(requestContext);
+        return request;
+    }
+
+    // The JDK server folds header names to "Content-type"; restore the usual "Content-Type" form
+    private static String canonicalHeaderName(String name) {
+        StringBuilder canonical = new StringBuilder(name.length());
+        boolean upper = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            canonical.append(upper ? Character.toUpperCase(c) : c);
+            upper = c == '-';
+        }
+        return canonical.toString();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return null;
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void send(HttpExchange exchange, APIGatewayProxyResponseEvent response) throws IOException {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        if (response.getHeaders() != null) {
+            for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+                responseHeaders.set(header.getKey(), header.getValue());
+            }
+        }
+
+        int statusCode = response.getStatusCode() != null ? response.getStatusCode() : 200;
+        if (response.getBody() == null) {
+            exchange.sendResponseHeaders(statusCode, -1);
+            return;
+        }
+        byte[] body = response.getBody().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static final class CachedAuthorization {
+        private final String userId;
+        private final long expiresAt;
+
+        private CachedAuthorization(String userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Minimal Lambda context for handlers running outside Lambda
+    private static final class LocalContext implements Context {
+        private static final LambdaLogger LOGGER = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+                System.err.println(message);
+            }
+
+            public void log(byte[] message) {
+                System.err.println(new String(message, StandardCharsets.UTF_8));
+            }
+        };
+
+        private final String requestId = UUID.randomUUID().toString();
+
+        @Override
+        public String getAwsRequestId() {
+            return requestId;
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return null;
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return null;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "LocalServer";
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return "$LATEST";
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return null;
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return (int) (Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return LOGGER;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mindthekid.geo.cqrs.tools;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.mindthekid.utils.TimeKeys;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One-time migration that rewrites user location range keys to canonical time keys.
+ *
+ * Items whose {@code date_time} is not already canonical are copied under the canonical
+ * key (conditionally, so an existing canonical copy is never overwritten) and the old item
+ * is deleted once the copy is written. When a canonical copy already exists the original
+ * is left in place and reported, since the two points may differ. The migration is
+ * idempotent and can be re-run after an interruption.
+ *
+ * Usage: {@code TimeKeyMigration [--dry-run] [--table <name>]}; the table defaults to
+ * {@code DYNAMODB_TABLE_NAME}.
+ */
+public final class TimeKeyMigration {
+    
+    private final AmazonDynamoDB dynamoDBClient;
+    private final String tableName;
+    private final boolean dryRun;
+    
+    private long scanned;
+    private long migrated;
+    private long conflicts;
+    private long invalid;
+    
+    public TimeKeyMigration(AmazonDynamoDB dynamoDBClient, String tableName, boolean dryRun) {
+        this.dynamoDBClient = dynamoDBClient;
+        this.tableName = tableName;
+        this.dryRun = dryRun;
+    }
+    
+    public static void main(String[] args) {
+        boolean dryRun = false;
+        String tableName = System.getenv("DYNAMODB_TABLE_NAME");
+        
+        for (int i = 0; i < args.length; i++) {
+            if ("--dry-run".equals(args[i])) {
+                dryRun = true;
+            } else if ("--table".equals(args[i]) && i + 1 < args.length) {
+                tableName = args[++i];
+            } else {
+                System.err.println("Usage: TimeKeyMigration [--dry-run] [--table <name>]");
+                System.exit(2);
+            }
+        }
+        
+        if (tableName == null || tableName.trim().isEmpty()) {
+            System.err.println("DYNAMODB_TABLE_NAME environment variable or --table is required");
+            System.exit(2);
+        }
+        
+        AmazonDynamoDB client = AmazonDynamoDBClientBuilder.standard().build();
+        try {
+            new TimeKeyMigration(client, tableName, dryRun).run();
+        } finally {
+            client.shutdown();
+        }
+    }
+    
+    public void run() {
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        
+        do {
+            ScanResult page = dynamoDBClient.scan(new ScanRequest()
+                    .withTableName(tableName)
+                    .withExclusiveStartKey(exclusiveStartKey));
+            
+            for (Map<String, AttributeValue> item : page.getItems()) {
+                scanned++;
+                migrateItem(item);
+            }
+            
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+        
+        System.out.printf("%sScanned %d items: %d migrated, %d left in place beside a canonical copy, %d unparseable%n",
+                dryRun ? "[dry run] " : "", scanned, migrated, conflicts, invalid);
+    }
+    
+    private void migrateItem(Map<String, AttributeValue> item) {
+        String userId = item.get("user_id").getS();
+        String dateTime = item.get("date_time").getS();
+        
+        if (TimeKeys.isCanonical(dateTime)) {
+            return;
+        }
+        
+        String canonical;
+        try {
+            canonical = TimeKeys.normalize(dateTime);
+        } catch (IllegalArgumentException e) {
+            invalid++;
+            System.err.println("Skipping " + userId + "/" + dateTime + ": " + e.getMessage());
+            return;
+        }
+        
+        if (dryRun) {
+            migrated++;
+            return;
+        }
+        
+        Map<String, AttributeValue> rewritten = new HashMap<>(item);
+        rewritten.put("date_time", new AttributeValue().withS(canonical));
+        
+        try {
+            dynamoDBClient.putItem(new PutItemRequest()
+                    .withTableName(tableName)
+                    .withItem(rewritten)
+                    .withConditionExpression("attribute_not_exists(user_id)"));
+        } catch (ConditionalCheckFailedException e) {
+            // The canonical point already exists (e.g. uploaded twice in different formats);
+            // keep the original rather than drop data the copy may not hold
+            conflicts++;
+            System.err.println("Keeping " + userId + "/" + dateTime + ": " + canonical + " already exists");
+            return;
+        }
+        
+        Map<String, AttributeValue> oldKey = new HashMap<>();
+        oldKey.put("user_id", item.get("user_id"));
+        oldKey.put("date_time", item.get("date_time"));
+        dynamoDBClient.deleteItem(new DeleteItemRequest()
+                .withTableName(tableName)
+                .withKey(oldKey));
+        migrated++;
+    }
+}
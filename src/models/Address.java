@@ -246,8 +246,7 @@ public class Address {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Address to JSON", e);
         }
@@ -261,8 +260,7 @@ public class Address {
      */
     public static Address fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, Address.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, Address.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to Address", e);
         }
@@ -275,13 +273,7 @@ public class Address {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Address.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Address to XML", e);
         }
@@ -295,11 +287,7 @@ public class Address {
      */
     public static Address fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Address.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (Address) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, Address.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to Address", e);
         }
@@ -153,8 +153,7 @@ public class AddressType {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting AddressType to JSON", e);
         }
@@ -168,8 +167,7 @@ public class AddressType {
      */
     public static AddressType fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, AddressType.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, AddressType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to AddressType", e);
         }
@@ -182,13 +180,7 @@ public class AddressType {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(AddressType.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting AddressType to XML", e);
         }
@@ -202,11 +194,7 @@ public class AddressType {
      */
     public static AddressType fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(AddressType.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (AddressType) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, AddressType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to AddressType", e);
         }
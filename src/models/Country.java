@@ -183,8 +183,7 @@ public class Country {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Country to JSON", e);
         }
@@ -198,8 +197,7 @@ public class Country {
      */
     public static Country fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, Country.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, Country.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to Country", e);
         }
@@ -212,13 +210,7 @@ public class Country {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Country.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Country to XML", e);
         }
@@ -232,11 +224,7 @@ public class Country {
      */
     public static Country fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Country.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (Country) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, Country.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to Country", e);
         }
@@ -163,8 +163,7 @@ public class CountryState {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting CountryState to JSON", e);
         }
@@ -178,8 +177,7 @@ public class CountryState {
      */
     public static CountryState fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, CountryState.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, CountryState.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to CountryState", e);
         }
@@ -192,13 +190,7 @@ public class CountryState {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(CountryState.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting CountryState to XML", e);
         }
@@ -212,11 +204,7 @@ public class CountryState {
      */
     public static CountryState fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(CountryState.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (CountryState) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, CountryState.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to CountryState", e);
         }
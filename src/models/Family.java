@@ -20,6 +20,7 @@ public class Family {
     private String familyName;
     private LocalDate dateStarted;
     private Optional<LocalDate> dateEnded;
+    private Long version;
     
     // Relationships
     private List<FamilyMembership> memberships;
@@ -78,6 +79,15 @@ public class Family {
     public List<FamilyMembership> getMemberships() { return memberships; }
     public void setMemberships(List<FamilyMembership> memberships) { this.memberships = memberships; }
 
+    /**
+     * Optimistic locking version, incremented by the persistence provider on every update.
+     * Updates carrying a stale version fail instead of overwriting a concurrent change.
+     * 
+     * @return Current version, null for entities that have not been persisted
+     */
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     /**
      * Check if this family is currently active
      * 
@@ -250,9 +260,7 @@ public class Family {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Family to JSON", e);
         }
@@ -266,9 +274,7 @@ public class Family {
      */
     public static Family fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.readValue(json, Family.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, Family.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to Family", e);
         }
@@ -281,13 +287,7 @@ public class Family {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Family.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Family to XML", e);
         }
@@ -301,11 +301,7 @@ public class Family {
      */
     public static Family fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Family.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (Family) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, Family.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to Family", e);
         }
@@ -173,8 +173,7 @@ public class FamilyMemberType {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting FamilyMemberType to JSON", e);
         }
@@ -188,8 +187,7 @@ public class FamilyMemberType {
      */
     public static FamilyMemberType fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, FamilyMemberType.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, FamilyMemberType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to FamilyMemberType", e);
         }
@@ -202,13 +200,7 @@ public class FamilyMemberType {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(FamilyMemberType.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting FamilyMemberType to XML", e);
         }
@@ -222,11 +214,7 @@ public class FamilyMemberType {
      */
     public static FamilyMemberType fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(FamilyMemberType.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (FamilyMemberType) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, FamilyMemberType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to FamilyMemberType", e);
         }
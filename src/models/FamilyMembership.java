@@ -308,9 +308,7 @@ public class FamilyMembership {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting FamilyMembership to JSON", e);
         }
@@ -324,9 +322,7 @@ public class FamilyMembership {
      */
     public static FamilyMembership fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.readValue(json, FamilyMembership.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, FamilyMembership.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to FamilyMembership", e);
         }
@@ -339,13 +335,7 @@ public class FamilyMembership {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(FamilyMembership.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting FamilyMembership to XML", e);
         }
@@ -359,11 +349,7 @@ public class FamilyMembership {
      */
     public static FamilyMembership fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(FamilyMembership.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (FamilyMembership) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, FamilyMembership.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to FamilyMembership", e);
         }
@@ -228,8 +228,7 @@ public class Frequency {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Frequency to JSON", e);
         }
@@ -243,8 +242,7 @@ public class Frequency {
      */
     public static Frequency fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, Frequency.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, Frequency.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to Frequency", e);
         }
@@ -257,13 +255,7 @@ public class Frequency {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Frequency.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting Frequency to XML", e);
         }
@@ -277,11 +269,7 @@ public class Frequency {
      */
     public static Frequency fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(Frequency.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (Frequency) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, Frequency.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to Frequency", e);
         }
@@ -219,8 +219,7 @@ public class ShareType {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting ShareType to JSON", e);
         }
@@ -234,8 +233,7 @@ public class ShareType {
      */
     public static ShareType fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, ShareType.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, ShareType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to ShareType", e);
         }
@@ -248,13 +246,7 @@ public class ShareType {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(ShareType.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting ShareType to XML", e);
         }
@@ -268,11 +260,7 @@ public class ShareType {
      */
     public static ShareType fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(ShareType.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (ShareType) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, ShareType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to ShareType", e);
         }
@@ -308,9 +308,7 @@ public class SubscriptionType {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting SubscriptionType to JSON", e);
         }
@@ -324,9 +322,7 @@ public class SubscriptionType {
      */
     public static SubscriptionType fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.readValue(json, SubscriptionType.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, SubscriptionType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to SubscriptionType", e);
         }
@@ -339,13 +335,7 @@ public class SubscriptionType {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(SubscriptionType.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting SubscriptionType to XML", e);
         }
@@ -359,11 +349,7 @@ public class SubscriptionType {
      */
     public static SubscriptionType fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(SubscriptionType.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (SubscriptionType) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, SubscriptionType.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to SubscriptionType", e);
         }
@@ -266,8 +266,7 @@ public class UserAddress {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting UserAddress to JSON", e);
         }
@@ -281,8 +280,7 @@ public class UserAddress {
      */
     public static UserAddress fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            return mapper.readValue(json, UserAddress.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, UserAddress.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to UserAddress", e);
         }
@@ -295,13 +293,7 @@ public class UserAddress {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(UserAddress.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting UserAddress to XML", e);
         }
@@ -315,11 +307,7 @@ public class UserAddress {
      */
     public static UserAddress fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(UserAddress.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (UserAddress) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, UserAddress.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to UserAddress", e);
         }
@@ -17,6 +17,7 @@ public class UserLocation {
     private Instant updatedAt;
     
     @DynamoDBHashKey(attributeName = "user_id")
+    @DynamoDBIndexHashKey(attributeName = "user_id", globalSecondaryIndexName = "user_track_index")
     public String getUserId() {
         return userId;
     }
@@ -26,6 +27,7 @@ public class UserLocation {
     }
     
     @DynamoDBRangeKey(attributeName = "date_time")
+    @DynamoDBIndexRangeKey(attributeName = "date_time", globalSecondaryIndexName = "user_track_index")
     public String getDateTime() {
         return dateTime;
     }
@@ -81,6 +83,7 @@ public class UserLocation {
     }
     
     @DynamoDBAttribute(attributeName = "created_at")
+    @DynamoDBTypeConverted(converter = InstantConverter.class)
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -90,6 +93,7 @@ public class UserLocation {
     }
     
     @DynamoDBAttribute(attributeName = "updated_at")
+    @DynamoDBTypeConverted(converter = InstantConverter.class)
     public Instant getUpdatedAt() {
         return updatedAt;
     }
@@ -112,4 +116,17 @@ public class UserLocation {
                 ", updatedAt=" + updatedAt +
                 '}';
     }
+    
+    // ISO-8601 strings, the form the columnar write path stores
+    public static class InstantConverter implements DynamoDBTypeConverter<String, Instant> {
+        @Override
+        public String convert(Instant instant) {
+            return instant.toString();
+        }
+        
+        @Override
+        public Instant unconvert(String value) {
+            return Instant.parse(value);
+        }
+    }
 } 
\ No newline at end of file
@@ -16,6 +16,7 @@ public class UserShare {
     private User sharedWith;
     private ShareType shareType;
     private LocalDateTime whenShared;
+    private Long version;
 
     /**
      * Default constructor
@@ -50,6 +51,14 @@ public class UserShare {
     public LocalDateTime getWhenShared() { return whenShared; }
     public void setWhenShared(LocalDateTime whenShared) { this.whenShared = whenShared; }
 
+    /**
+     * Optimistic locking version used to detect concurrent changes to this share
+     * 
+     * @return Current version, null before the share is persisted
+     */
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     /**
      * Get the ID of the user who is sharing
      * 
@@ -332,9 +341,7 @@ public class UserShare {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting UserShare to JSON", e);
         }
@@ -348,9 +355,7 @@ public class UserShare {
      */
     public static UserShare fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.readValue(json, UserShare.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, UserShare.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to UserShare", e);
         }
@@ -363,13 +368,7 @@ public class UserShare {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(UserShare.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting UserShare to XML", e);
         }
@@ -383,11 +382,7 @@ public class UserShare {
      */
     public static UserShare fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(UserShare.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (UserShare) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, UserShare.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to UserShare", e);
         }
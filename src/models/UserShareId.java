@@ -0,0 +1,55 @@
+package com.mindthekid.models;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link UserShare}: the ids of the sharing user and of the user shared with.
+ *
+ * @author MTK Backend Team
+ * @version 1.0.0
+ */
+public class UserShareId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String sharedBy;
+    private String sharedWith;
+
+    /**
+     * Default constructor
+     */
+    public UserShareId() {}
+
+    /**
+     * Constructor with all fields
+     *
+     * @param sharedBy Id of the user who is sharing
+     * @param sharedWith Id of the user who is being shared with
+     */
+    public UserShareId(String sharedBy, String sharedWith) {
+        this.sharedBy = sharedBy;
+        this.sharedWith = sharedWith;
+    }
+
+    public String getSharedBy() { return sharedBy; }
+    public String getSharedWith() { return sharedWith; }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        UserShareId other = (UserShareId) obj;
+        return Objects.equals(sharedBy, other.sharedBy) && Objects.equals(sharedWith, other.sharedWith);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sharedBy, sharedWith);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UserShareId{sharedBy='%s', sharedWith='%s'}", sharedBy, sharedWith);
+    }
+}
@@ -19,6 +19,7 @@ public class UserSubscription {
     private SubscriptionType subscriptionType;
     private LocalDate startDate;
     private Optional<LocalDate> endDate;
+    private Long version;
 
     /**
      * Default constructor
@@ -72,6 +73,14 @@ public class UserSubscription {
     public Optional<LocalDate> getEndDate() { return endDate; }
     public void setEndDate(Optional<LocalDate> endDate) { this.endDate = endDate; }
 
+    /**
+     * Optimistic locking version; a renewal or cancellation based on a stale copy is rejected
+     * 
+     * @return Current version, null before the subscription is persisted
+     */
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     /**
      * Check if this user subscription is currently active
      * 
@@ -346,9 +355,7 @@ public class UserSubscription {
      */
     public String toJson() {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(this);
+            return com.mindthekid.utils.Codecs.toJson(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting UserSubscription to JSON", e);
         }
@@ -362,9 +369,7 @@ public class UserSubscription {
      */
     public static UserSubscription fromJson(String json) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.readValue(json, UserSubscription.class);
+            return com.mindthekid.utils.Codecs.fromJson(json, UserSubscription.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting JSON to UserSubscription", e);
         }
@@ -377,13 +382,7 @@ public class UserSubscription {
      */
     public String toXml() {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(UserSubscription.class);
-            javax.xml.bind.Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty(javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT, true);
-            
-            java.io.StringWriter writer = new java.io.StringWriter();
-            marshaller.marshal(this, writer);
-            return writer.toString();
+            return com.mindthekid.utils.Codecs.toXml(this);
         } catch (Exception e) {
             throw new RuntimeException("Error converting UserSubscription to XML", e);
         }
@@ -397,11 +396,7 @@ public class UserSubscription {
      */
     public static UserSubscription fromXml(String xml) {
         try {
-            javax.xml.bind.JAXBContext context = javax.xml.bind.JAXBContext.newInstance(UserSubscription.class);
-            javax.xml.bind.Unmarshaller unmarshaller = context.createUnmarshaller();
-            
-            java.io.StringReader reader = new java.io.StringReader(xml);
-            return (UserSubscription) unmarshaller.unmarshal(reader);
+            return com.mindthekid.utils.Codecs.fromXml(xml, UserSubscription.class);
         } catch (Exception e) {
             throw new RuntimeException("Error converting XML to UserSubscription", e);
         }
@@ -1,6 +1,7 @@
 package com.mindthekid.services.data;
 
 import com.mindthekid.models.Address;
+import com.mindthekid.models.UserAddress;
 import javax.persistence.EntityManager;
 
 public class AddressService extends BaseService<Address, Long> {
@@ -16,4 +17,9 @@ public class AddressService extends BaseService<Address, Long> {
           .executeUpdate();
         // Add more as needed for other dependencies
     }
-} 
\ No newline at end of file
+
+    @Override
+    protected boolean isDeepDeleteDependent(Class<?> dependentClass, String attributeName) {
+        return dependentClass == UserAddress.class;
+    }
+}
\ No newline at end of file
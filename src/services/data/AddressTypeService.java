@@ -3,9 +3,9 @@ package com.mindthekid.services.data;
 import com.mindthekid.models.AddressType;
 import javax.persistence.EntityManager;
 
-public class AddressTypeService extends BaseService<AddressType, Long> {
+public class AddressTypeService extends CachedReferenceService<AddressType, Long> {
     public AddressTypeService() {
-        super(AddressType.class);
+        super(AddressType.class, "reference.address_type", AddressType::getId, AddressType::getAddressTypeCode);
     }
 
     @Override
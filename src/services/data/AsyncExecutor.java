@@ -0,0 +1,63 @@
+package com.mindthekid.services.data;
+
+import com.mindthekid.utils.ThreadPools;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Runs blocking service calls off the caller's thread. At most `limit` calls run at once, matching the
+// connection pool so extra calls wait here instead of timing out on a connection checkout.
+public final class AsyncExecutor {
+    private static volatile AsyncExecutor shared;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int limit;
+
+    public AsyncExecutor(int limit) {
+        this.limit = limit;
+        this.executor = ThreadPools.newVirtualOrBounded("mtk-db-async", limit);
+        this.permits = new Semaphore(limit);
+    }
+
+    public static AsyncExecutor shared() {
+        AsyncExecutor instance = shared;
+        if (instance == null) {
+            synchronized (AsyncExecutor.class) {
+                instance = shared;
+                if (instance == null) {
+                    instance = new AsyncExecutor(Database.getAsyncConcurrency(System.getenv()));
+                    shared = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    public <R> CompletableFuture<R> submit(Supplier<R> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return work.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
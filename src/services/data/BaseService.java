@@ -1,27 +1,135 @@
 package com.mindthekid.services.data;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public abstract class BaseService<T, ID> {
+    protected static final int DEFAULT_BATCH_SIZE = 50;
+    // Keeps IN lists well below the PostgreSQL bind parameter limit
+    protected static final int DELETE_CHUNK_SIZE = 1000;
+
     protected final Class<T> entityClass;
+    private volatile String idAttributeName;
+    private volatile DeletePlan shallowDeletePlan;
+    private volatile DeletePlan deepDeletePlan;
+    private final Map<String, FetchPlan<T>> fetchPlans = new ConcurrentHashMap<>();
 
     protected BaseService(Class<T> entityClass) {
         this.entityClass = entityClass;
     }
 
     public T create(T entity) {
-        return executeInTransaction(em -> em.persist(entity), entity);
+        return executeInTransaction(em -> {
+            em.persist(entity);
+            return entity;
+        });
     }
 
     public T update(T entity) {
-        return executeInTransaction(em -> em.merge(entity), entity);
+        // The managed copy carries the incremented version; the caller's instance is still stale
+        return executeInTransaction(em -> em.merge(entity));
+    }
+
+    // Like update, but a stale version comes back as CONFLICT with the current row instead of an exception
+    public UpdateResult<T> tryUpdate(T entity) {
+        try {
+            EntityManager em = Database.getEntityManagerFactory().createEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            try {
+                tx.begin();
+                T merged = em.merge(entity);
+                onWrite(em);
+                tx.commit();
+                return UpdateResult.updated(merged, 1);
+            } catch (RuntimeException e) {
+                if (tx.isActive()) tx.rollback();
+                throw e;
+            } finally {
+                em.close();
+            }
+        } catch (RuntimeException e) {
+            if (!isOptimisticLockFailure(e)) {
+                throw e;
+            }
+            return UpdateResult.conflict(findCurrent(entity), 1);
+        }
+    }
+
+    // Re-reads the entity and re-applies the mutation until it commits without a version conflict
+    public UpdateResult<T> updateWithRetry(ID id, Consumer<T> mutation, int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        for (int attempt = 1; ; attempt++) {
+            EntityManager em = Database.getEntityManagerFactory().createEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            try {
+                tx.begin();
+                T current = em.find(entityClass, id);
+                if (current == null) {
+                    tx.rollback();
+                    return UpdateResult.notFound(attempt);
+                }
+                mutation.accept(current);
+                onWrite(em);
+                tx.commit();
+                return UpdateResult.updated(current, attempt);
+            } catch (RuntimeException e) {
+                if (tx.isActive()) tx.rollback();
+                if (!isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    return UpdateResult.conflict(findOnWriter(id), attempt);
+                }
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    public List<T> createAll(Collection<T> entities) {
+        return executeInBatches(entities, (em, entity) -> {
+            em.persist(entity);
+            return entity;
+        });
+    }
+
+    public List<T> updateAll(Collection<T> entities) {
+        return executeInBatches(entities, (em, entity) -> em.merge(entity));
+    }
+
+    public List<T> upsertAll(Collection<T> entities) {
+        return executeInBatches(entities, (em, entity) -> {
+            // Entities without an identifier are new; everything else is merged
+            if (em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity) == null) {
+                em.persist(entity);
+                return entity;
+            }
+            return em.merge(entity);
+        });
     }
 
     public T findById(ID id) {
-        EntityManager em = Database.getEntityManagerFactory().createEntityManager();
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
         try {
             return em.find(entityClass, id);
         } finally {
@@ -29,8 +137,60 @@ public abstract class BaseService<T, ID> {
         }
     }
 
+    public T findById(ID id, String fetchPlan) {
+        List<T> results = findAllById(Collections.singletonList(id), getFetchPlan(fetchPlan));
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    public List<T> findAllById(Collection<ID> ids, String fetchPlan) {
+        return findAllById(ids, getFetchPlan(fetchPlan));
+    }
+
+    // Loads the roots and every planned association in 1 + collections queries, whatever the row counts
+    public List<T> findAllById(Collection<ID> ids, FetchPlan<T> plan) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        try {
+            List<String> queries = plan.toQueries(entityClass.getSimpleName(), getIdAttributeName(em));
+            List<ID> idList = new ArrayList<>(ids);
+            List<T> roots = em.createQuery(queries.get(0), entityClass)
+                    .setParameter("ids", idList)
+                    .getResultList();
+            if (!roots.isEmpty()) {
+                for (String query : queries.subList(1, queries.size())) {
+                    // Results are the same managed roots; the point is initializing their collection
+                    em.createQuery(query, entityClass)
+                            .setParameter("ids", idList)
+                            .setHint("hibernate.query.passDistinctThrough", false)
+                            .getResultList();
+                }
+            }
+            return new ArrayList<>(roots);
+        } finally {
+            em.close();
+        }
+    }
+
+    public FetchPlan<T> getFetchPlan(String name) {
+        FetchPlan<T> plan = fetchPlans.get(name);
+        if (plan == null) {
+            throw new IllegalArgumentException("Unknown fetch plan for " + entityClass.getSimpleName() + ": " + name);
+        }
+        return plan;
+    }
+
+    public Collection<FetchPlan<T>> getFetchPlans() {
+        return Collections.unmodifiableCollection(fetchPlans.values());
+    }
+
+    protected void registerFetchPlan(FetchPlan<T> plan) {
+        fetchPlans.put(plan.getName(), plan);
+    }
+
     public List<T> findAll() {
-        EntityManager em = Database.getEntityManagerFactory().createEntityManager();
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
         try {
             return em.createQuery("SELECT e FROM " + entityClass.getSimpleName() + " e", entityClass).getResultList();
         } finally {
@@ -38,6 +198,136 @@ public abstract class BaseService<T, ID> {
         }
     }
 
+    // Caller must close the stream (try-with-resources); it holds a connection and a server-side cursor
+    public Stream<T> stream(int batchSize) {
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            // pgjdbc only streams with a cursor inside a transaction; otherwise it buffers the whole result
+            tx.begin();
+            TypedQuery<T> query = em.createQuery("SELECT e FROM " + entityClass.getSimpleName() + " e", entityClass);
+            applyStreamingHints(query, batchSize);
+            int[] count = {0};
+            return query.getResultStream()
+                    .map(entity -> {
+                        // Detach the previous batch so the persistence context stays bounded
+                        if (++count[0] % batchSize == 0) {
+                            em.clear();
+                        }
+                        return entity;
+                    })
+                    .onClose(() -> {
+                        try {
+                            if (tx.isActive()) tx.rollback();
+                        } finally {
+                            em.close();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            if (tx.isActive()) tx.rollback();
+            em.close();
+            throw e;
+        }
+    }
+
+    public void forEach(int batchSize, Consumer<? super T> action) {
+        try (Stream<T> entities = stream(batchSize)) {
+            entities.forEach(action);
+        }
+    }
+
+    public Page<T, ID> findPage(ID afterId, int limit, SortOrder sort) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        try {
+            String idName = getIdAttributeName(em);
+            boolean ascending = sort != SortOrder.DESC;
+            StringBuilder jpql = new StringBuilder("SELECT e FROM ").append(entityClass.getSimpleName()).append(" e");
+            if (afterId != null) {
+                jpql.append(" WHERE e.").append(idName).append(ascending ? " > " : " < ").append(":afterId");
+            }
+            jpql.append(" ORDER BY e.").append(idName).append(ascending ? " ASC" : " DESC");
+
+            TypedQuery<T> query = em.createQuery(jpql.toString(), entityClass)
+                    .setHint("org.hibernate.readOnly", true)
+                    // One extra row tells us whether another page exists without a COUNT
+                    .setMaxResults(limit + 1);
+            if (afterId != null) {
+                query.setParameter("afterId", afterId);
+            }
+
+            List<T> results = new ArrayList<>(query.getResultList());
+            if (results.size() <= limit) {
+                return new Page<>(results, null);
+            }
+            List<T> items = results.subList(0, limit);
+            return new Page<>(new ArrayList<>(items), getId(em, items.get(limit - 1)));
+        } finally {
+            em.close();
+        }
+    }
+
+    // DTO projections: results are plain objects, never managed, so there is no dirty checking or snapshot cost
+
+    // JPQL with a constructor expression, e.g. "SELECT new com.mindthekid.services.data.projections.UserSummary(u.id, ...) FROM User u"
+    public <R> List<R> project(String jpql, Class<R> resultType, Map<String, ?> params, int limit) {
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        try {
+            TypedQuery<R> query = em.createQuery(jpql, resultType);
+            bind(query, params, limit);
+            return query.getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    // JPQL selecting aliased columns, mapped per row, e.g. "SELECT u.id AS id, u.email AS email FROM User u"
+    public <R> List<R> projectTuples(String jpql, Map<String, ?> params, int limit, Function<Tuple, R> mapper) {
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        try {
+            TypedQuery<Tuple> query = em.createQuery(jpql, Tuple.class);
+            bind(query, params, limit);
+            List<Tuple> rows = query.getResultList();
+            List<R> results = new ArrayList<>(rows.size());
+            for (Tuple row : rows) {
+                results.add(mapper.apply(row));
+            }
+            return results;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Native SQL for queries JPQL can't express; each row arrives as Object[] in select order
+    public <R> List<R> projectNative(String sql, Map<String, ?> params, int limit, Function<Object[], R> mapper) {
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        try {
+            Query query = em.createNativeQuery(sql);
+            bind(query, params, limit);
+            List<?> rows = query.getResultList();
+            List<R> results = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                results.add(mapper.apply(row instanceof Object[] ? (Object[]) row : new Object[] {row}));
+            }
+            return results;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void bind(Query query, Map<String, ?> params, int limit) {
+        if (params != null) {
+            for (Map.Entry<String, ?> param : params.entrySet()) {
+                query.setParameter(param.getKey(), param.getValue());
+            }
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+    }
+
     public void delete(ID id, boolean deep) {
         EntityManager em = Database.getEntityManagerFactory().createEntityManager();
         EntityTransaction tx = em.getTransaction();
@@ -50,6 +340,7 @@ public abstract class BaseService<T, ID> {
                 }
                 em.remove(entity);
             }
+            onWrite(em);
             tx.commit();
         } catch (Exception e) {
             if (tx.isActive()) tx.rollback();
@@ -59,17 +350,218 @@ public abstract class BaseService<T, ID> {
         }
     }
 
+    // Set-based delete: one DELETE ... WHERE fk IN (...) per dependent table, all in one transaction
+    public int deleteAll(Collection<ID> ids, boolean deep) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        EntityManager em = Database.getEntityManagerFactory().createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            List<String> statements = getDeletePlan(em, deep).getStatements();
+            List<ID> idList = new ArrayList<>(ids);
+            int deleted = 0;
+            for (int from = 0; from < idList.size(); from += DELETE_CHUNK_SIZE) {
+                List<ID> chunk = idList.subList(from, Math.min(from + DELETE_CHUNK_SIZE, idList.size()));
+                int last = statements.size() - 1;
+                for (int i = 0; i <= last; i++) {
+                    int count = em.createQuery(statements.get(i))
+                            .setParameter(DeletePlan.IDS_PARAMETER, chunk)
+                            .executeUpdate();
+                    // The last statement deletes the entities themselves
+                    if (i == last) {
+                        deleted += count;
+                    }
+                }
+            }
+            onWrite(em);
+            tx.commit();
+            return deleted;
+        } catch (Exception e) {
+            if (tx.isActive()) tx.rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Async variants: each call runs on AsyncExecutor with its own EntityManager, so independent lookups overlap
+    public CompletableFuture<T> createAsync(T entity) {
+        return async(() -> create(entity));
+    }
+
+    public CompletableFuture<T> updateAsync(T entity) {
+        return async(() -> update(entity));
+    }
+
+    public CompletableFuture<T> findByIdAsync(ID id) {
+        return async(() -> findById(id));
+    }
+
+    public CompletableFuture<T> findByIdAsync(ID id, String fetchPlan) {
+        return async(() -> findById(id, fetchPlan));
+    }
+
+    public CompletableFuture<List<T>> findAllAsync() {
+        return async(this::findAll);
+    }
+
+    public CompletableFuture<Page<T, ID>> findPageAsync(ID afterId, int limit, SortOrder sort) {
+        return async(() -> findPage(afterId, limit, sort));
+    }
+
+    public CompletableFuture<Void> deleteAsync(ID id, boolean deep) {
+        return async(() -> {
+            delete(id, deep);
+            return null;
+        });
+    }
+
+    // Runs any service work asynchronously; a withWriter pin on the calling thread carries over
+    public <R> CompletableFuture<R> async(Supplier<R> work) {
+        if (Database.isWriterPinned()) {
+            return getAsyncExecutor().submit(() -> Database.withWriter(work));
+        }
+        return getAsyncExecutor().submit(work);
+    }
+
+    protected AsyncExecutor getAsyncExecutor() {
+        return AsyncExecutor.shared();
+    }
+
     // Override in subclasses for cascading delete logic
     protected void deepDelete(EntityManager em, T entity) {}
 
-    private T executeInTransaction(Consumer<EntityManager> action, T entity) {
+    // Runs inside every write transaction just before commit
+    protected void onWrite(EntityManager em) {}
+
+    // Opt-in: deleteAll(ids, true) only cascades to the referencing entities a service owns, so
+    // references from other aggregates (e.g. Address.country, User.gender) are never followed
+    protected boolean isDeepDeleteDependent(Class<?> dependentClass, String attributeName) {
+        return false;
+    }
+
+    private DeletePlan getDeletePlan(EntityManager em, boolean deep) {
+        DeletePlan plan = deep ? deepDeletePlan : shallowDeletePlan;
+        if (plan == null) {
+            plan = DeletePlan.build(em.getMetamodel(), entityClass, deep, this::isDeepDeleteDependent);
+            if (deep) {
+                deepDeletePlan = plan;
+            } else {
+                shallowDeletePlan = plan;
+            }
+        }
+        return plan;
+    }
+
+    // One transaction for the whole collection; flush/clear every JDBC batch so the persistence context stays small
+    private List<T> executeInBatches(Collection<T> entities, BiFunction<EntityManager, T, T> action) {
+        List<T> results = new ArrayList<>(entities.size());
+        if (entities.isEmpty()) {
+            return results;
+        }
+        EntityManagerFactory emf = Database.getEntityManagerFactory();
+        int batchSize = getBatchSize(emf);
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            int count = 0;
+            for (T entity : entities) {
+                results.add(action.apply(em, entity));
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            onWrite(em);
+            tx.commit();
+            return results;
+        } catch (Exception e) {
+            if (tx.isActive()) tx.rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Commit failures arrive wrapped (RollbackException, PersistenceException), so walk the cause chain
+    protected static boolean isOptimisticLockFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Conflicts are reported with the writer's copy; a replica could still hold the version we lost to
+    private T findCurrent(T entity) {
+        Object id = Database.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+        return id != null ? findOnWriter(id) : null;
+    }
+
+    private T findOnWriter(Object id) {
+        EntityManager em = Database.getEntityManagerFactory().createEntityManager();
+        try {
+            return em.find(entityClass, id);
+        } finally {
+            em.close();
+        }
+    }
+
+    private void applyStreamingHints(TypedQuery<T> query, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        query.setHint("org.hibernate.fetchSize", batchSize);
+        query.setHint("org.hibernate.readOnly", true);
+        query.setHint("org.hibernate.cacheable", false);
+    }
+
+    protected String getIdAttributeName(EntityManager em) {
+        String name = idAttributeName;
+        if (name == null) {
+            name = DeletePlan.idAttributeName(em.getMetamodel().entity(entityClass));
+            idAttributeName = name;
+        }
+        return name;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ID getId(EntityManager em, T entity) {
+        PersistenceUnitUtil unitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        return (ID) unitUtil.getIdentifier(entity);
+    }
+
+    protected int getBatchSize(EntityManagerFactory emf) {
+        Object configured = emf.getProperties().get(Database.JDBC_BATCH_SIZE_PROPERTY);
+        if (configured != null) {
+            try {
+                int batchSize = Integer.parseInt(configured.toString());
+                if (batchSize > 0) {
+                    return batchSize;
+                }
+            } catch (NumberFormatException ignored) {
+                // Fall back to the default below
+            }
+        }
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    private T executeInTransaction(Function<EntityManager, T> action) {
         EntityManager em = Database.getEntityManagerFactory().createEntityManager();
         EntityTransaction tx = em.getTransaction();
         try {
             tx.begin();
-            action.accept(em);
+            T result = action.apply(em);
+            onWrite(em);
             tx.commit();
-            return entity;
+            return result;
         } catch (Exception e) {
             if (tx.isActive()) tx.rollback();
             throw e;
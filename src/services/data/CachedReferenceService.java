@@ -0,0 +1,93 @@
+package com.mindthekid.services.data;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+// Read-mostly lookup tables: findById/findAll/findByCode are served from ReferenceDataCache.
+// Writes through this service bump version_info for the component in the same transaction, so
+// every container reloads on its next version check.
+public abstract class CachedReferenceService<T, ID> extends BaseService<T, ID> {
+    private final String component;
+    private final Function<T, ? extends Number> idExtractor;
+    private final Function<T, String> codeExtractor;
+
+    protected CachedReferenceService(Class<T> entityClass, String component,
+                                     Function<T, ? extends Number> idExtractor, Function<T, String> codeExtractor) {
+        super(entityClass);
+        this.component = component;
+        this.idExtractor = idExtractor;
+        this.codeExtractor = codeExtractor;
+    }
+
+    public String getComponent() {
+        return component;
+    }
+
+    public ReferenceSnapshot<T> snapshot() {
+        return ReferenceDataCache.get(this);
+    }
+
+    @Override
+    public T findById(ID id) {
+        return snapshot().getById(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return snapshot().getAll();
+    }
+
+    public T findByCode(String code) {
+        return snapshot().getByCode(code);
+    }
+
+    // Override to fetch associations the code or callers need, e.g. JOIN FETCH s.country
+    protected String loadQuery() {
+        return "SELECT e FROM " + entityClass.getSimpleName() + " e";
+    }
+
+    @Override
+    protected void onWrite(EntityManager em) {
+        em.createNativeQuery("INSERT INTO version_info (component, version_number) VALUES (:component, 1) "
+                        + "ON CONFLICT (component) DO UPDATE SET version_number = version_info.version_number + 0.001")
+                .setParameter("component", component)
+                .executeUpdate();
+        ReferenceDataCache.invalidate(entityClass);
+    }
+
+    ReferenceSnapshot<T> loadSnapshot() {
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        try {
+            // Read the version first: a concurrent change is then picked up by the next check
+            BigDecimal version = loadVersion(em);
+            List<T> entities = em.createQuery(loadQuery(), entityClass)
+                    .setHint("org.hibernate.readOnly", true)
+                    .getResultList();
+            return new ReferenceSnapshot<>(entities, idExtractor, codeExtractor, version);
+        } finally {
+            em.close();
+        }
+    }
+
+    BigDecimal loadVersion() {
+        EntityManager em = Database.getReaderEntityManagerFactory().createEntityManager();
+        try {
+            return loadVersion(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    private BigDecimal loadVersion(EntityManager em) {
+        List<?> rows = em.createNativeQuery("SELECT version_number FROM version_info WHERE component = :component")
+                .setParameter("component", component)
+                .getResultList();
+        if (rows.isEmpty() || rows.get(0) == null) {
+            return null;
+        }
+        Object value = rows.get(0);
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+}
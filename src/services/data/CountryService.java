@@ -1,11 +1,12 @@
 package com.mindthekid.services.data;
 
 import com.mindthekid.models.Country;
+import com.mindthekid.models.CountryState;
 import javax.persistence.EntityManager;
 
-public class CountryService extends BaseService<Country, Long> {
+public class CountryService extends CachedReferenceService<Country, Long> {
     public CountryService() {
-        super(Country.class);
+        super(Country.class, "reference.country", Country::getId, Country::getCountryCode);
     }
 
     @Override
@@ -16,4 +17,9 @@ public class CountryService extends BaseService<Country, Long> {
           .executeUpdate();
         // Add more as needed for other dependencies
     }
-} 
\ No newline at end of file
+
+    @Override
+    protected boolean isDeepDeleteDependent(Class<?> dependentClass, String attributeName) {
+        return dependentClass == CountryState.class;
+    }
+}
\ No newline at end of file
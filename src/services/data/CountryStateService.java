@@ -3,9 +3,19 @@ package com.mindthekid.services.data;
 import com.mindthekid.models.CountryState;
 import javax.persistence.EntityManager;
 
-public class CountryStateService extends BaseService<CountryState, Long> {
+public class CountryStateService extends CachedReferenceService<CountryState, Long> {
     public CountryStateService() {
-        super(CountryState.class);
+        super(CountryState.class, "reference.country_state", CountryState::getId, CountryState::getLocationCode);
+    }
+
+    // Location codes are StateCode-CountryCode, e.g. CA-US
+    public CountryState findByCode(String countryCode, String stateCode) {
+        return findByCode(stateCode + "-" + countryCode);
+    }
+
+    @Override
+    protected String loadQuery() {
+        return "SELECT s FROM CountryState s JOIN FETCH s.country";
     }
 
     @Override
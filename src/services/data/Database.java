@@ -4,23 +4,207 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public final class Database {
-    private static final EntityManagerFactory emf = buildEntityManagerFactory();
+    public static final String HIKARI_PROVIDER = "org.hibernate.hikaricp.internal.HikariCPConnectionProvider";
+    public static final String JDBC_BATCH_SIZE_PROPERTY = "hibernate.jdbc.batch_size";
 
-    private static EntityManagerFactory buildEntityManagerFactory() {
+    // A Lambda container serves one request at a time, so a couple of connections is enough
+    private static final int DEFAULT_POOL_MAX_SIZE = 2;
+    private static final int DEFAULT_RDS_PROXY_POOL_MAX_SIZE = 1;
+    private static final int DEFAULT_POOL_MIN_IDLE = 0;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 60_000L;
+    private static final long DEFAULT_MAX_LIFETIME_MS = 300_000L;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MS = 5_000L;
+    private static final long DEFAULT_VALIDATION_TIMEOUT_MS = 2_000L;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 256;
+    private static final int DEFAULT_JDBC_BATCH_SIZE = 50;
+    private static final int DEFAULT_BATCH_FETCH_SIZE = 16;
+
+    private static volatile EntityManagerFactory emf;
+    // The writer itself when DB_READER_URL is unset, so reads resolve without locking after the first
+    private static volatile EntityManagerFactory readerEmf;
+    // Depth of withWriter calls on this thread; reads stay on the writer while > 0
+    private static final ThreadLocal<Integer> WRITER_PINNED = new ThreadLocal<>();
+
+    private Database() {}
+
+    public static EntityManagerFactory getEntityManagerFactory() {
+        EntityManagerFactory factory = emf;
+        if (factory == null) {
+            synchronized (Database.class) {
+                factory = emf;
+                if (factory == null) {
+                    factory = Persistence.createEntityManagerFactory("mtkPU", buildProperties(System.getenv()));
+                    emf = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    // Replica factory for reads (DB_READER_URL, e.g. the Aurora reader endpoint); the writer when unset or pinned
+    public static EntityManagerFactory getReaderEntityManagerFactory() {
+        if (isWriterPinned()) {
+            return getEntityManagerFactory();
+        }
+        EntityManagerFactory factory = readerEmf;
+        if (factory == null) {
+            synchronized (Database.class) {
+                factory = readerEmf;
+                if (factory == null) {
+                    Map<String, String> env = System.getenv();
+                    factory = isBlank(env.get("DB_READER_URL"))
+                        ? getEntityManagerFactory()
+                        : Persistence.createEntityManagerFactory("mtkPU", buildReaderProperties(env));
+                    readerEmf = factory;
+                }
+            }
+        }
+        return factory;
+    }
+
+    // Read-your-writes: reads inside work go to the writer, e.g. right after creating an entity
+    public static <R> R withWriter(Supplier<R> work) {
+        Integer depth = WRITER_PINNED.get();
+        WRITER_PINNED.set(depth == null ? 1 : depth + 1);
+        try {
+            return work.get();
+        } finally {
+            if (depth == null) {
+                WRITER_PINNED.remove();
+            } else {
+                WRITER_PINNED.set(depth);
+            }
+        }
+    }
+
+    public static void withWriter(Runnable work) {
+        withWriter(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static boolean isWriterPinned() {
+        return WRITER_PINNED.get() != null;
+    }
+
+    public static boolean isInitialized() {
+        return emf != null;
+    }
+
+    public static synchronized void close() {
+        if (readerEmf != null) {
+            if (readerEmf != emf) {
+                readerEmf.close();
+            }
+            readerEmf = null;
+        }
+        if (emf != null) {
+            emf.close();
+            emf = null;
+        }
+    }
+
+    // Concurrent async service calls: the writer pool plus the reader pool when a replica is configured
+    public static int getAsyncConcurrency(Map<String, String> env) {
+        String configured = env.get("DB_ASYNC_CONCURRENCY");
+        if (!isBlank(configured)) {
+            return intEnv(env, "DB_ASYNC_CONCURRENCY", 1);
+        }
+        int defaultPoolSize = Boolean.parseBoolean(env.get("DB_RDS_PROXY")) ? DEFAULT_RDS_PROXY_POOL_MAX_SIZE : DEFAULT_POOL_MAX_SIZE;
+        int writerPool = intEnv(env, "DB_POOL_MAX_SIZE", defaultPoolSize);
+        if (isBlank(env.get("DB_READER_URL"))) {
+            return writerPool;
+        }
+        return writerPool + intEnv(env, "DB_READER_POOL_MAX_SIZE", writerPool);
+    }
+
+    public static Map<String, String> buildReaderProperties(Map<String, String> env) {
+        Map<String, String> props = buildProperties(env);
+        props.put("javax.persistence.jdbc.url", env.get("DB_READER_URL"));
+        props.put("hibernate.hikari.poolName", "mtk-reader-pool");
+        props.put("hibernate.hikari.readOnly", "true");
+        String readerPoolSize = env.get("DB_READER_POOL_MAX_SIZE");
+        if (!isBlank(readerPoolSize)) {
+            props.put("hibernate.hikari.maximumPoolSize", String.valueOf(intEnv(env, "DB_READER_POOL_MAX_SIZE", 0)));
+        }
+        // The writer validates the schema; replicas share it
+        props.put("hibernate.hbm2ddl.auto", "none");
+        return props;
+    }
+
+    public static Map<String, String> buildProperties(Map<String, String> env) {
         Map<String, String> props = new HashMap<>();
-        props.put("javax.persistence.jdbc.url", System.getenv("DB_URL"));
-        props.put("javax.persistence.jdbc.user", System.getenv("DB_USER"));
-        props.put("javax.persistence.jdbc.password", System.getenv("DB_PASSWORD"));
-        return Persistence.createEntityManagerFactory("mtkPU", props);
+        props.put("javax.persistence.jdbc.url", env.get("DB_URL"));
+        props.put("javax.persistence.jdbc.user", env.get("DB_USER"));
+        props.put("javax.persistence.jdbc.password", env.get("DB_PASSWORD"));
+
+        boolean rdsProxy = Boolean.parseBoolean(env.get("DB_RDS_PROXY"));
+        int defaultPoolSize = rdsProxy ? DEFAULT_RDS_PROXY_POOL_MAX_SIZE : DEFAULT_POOL_MAX_SIZE;
+
+        props.put("hibernate.connection.provider_class", HIKARI_PROVIDER);
+        props.put("hibernate.hikari.poolName", "mtk-pool");
+        props.put("hibernate.hikari.maximumPoolSize", String.valueOf(intEnv(env, "DB_POOL_MAX_SIZE", defaultPoolSize)));
+        props.put("hibernate.hikari.minimumIdle", String.valueOf(intEnv(env, "DB_POOL_MIN_IDLE", DEFAULT_POOL_MIN_IDLE)));
+        props.put("hibernate.hikari.idleTimeout", String.valueOf(longEnv(env, "DB_POOL_IDLE_TIMEOUT_MS", DEFAULT_IDLE_TIMEOUT_MS)));
+        props.put("hibernate.hikari.maxLifetime", String.valueOf(longEnv(env, "DB_POOL_MAX_LIFETIME_MS", DEFAULT_MAX_LIFETIME_MS)));
+        props.put("hibernate.hikari.connectionTimeout", String.valueOf(longEnv(env, "DB_CONNECTION_TIMEOUT_MS", DEFAULT_CONNECTION_TIMEOUT_MS)));
+        props.put("hibernate.hikari.validationTimeout", String.valueOf(longEnv(env, "DB_VALIDATION_TIMEOUT_MS", DEFAULT_VALIDATION_TIMEOUT_MS)));
+        // Don't open connections while the container is being created; the first query does
+        props.put("hibernate.hikari.initializationFailTimeout", "-1");
+
+        if (rdsProxy) {
+            // Server-side prepared statements pin the proxy's backend connection to this client
+            props.put("hibernate.hikari.dataSource.prepareThreshold", "0");
+            props.put("hibernate.hikari.dataSource.preparedStatementCacheQueries", "0");
+        } else {
+            props.put("hibernate.hikari.dataSource.preparedStatementCacheQueries",
+                    String.valueOf(intEnv(env, "DB_STATEMENT_CACHE_SIZE", DEFAULT_STATEMENT_CACHE_SIZE)));
+        }
+
+        // Group inserts/updates per table so the driver can send them as JDBC batches
+        props.put(JDBC_BATCH_SIZE_PROPERTY, String.valueOf(intEnv(env, "DB_JDBC_BATCH_SIZE", DEFAULT_JDBC_BATCH_SIZE)));
+        props.put("hibernate.order_inserts", "true");
+        props.put("hibernate.order_updates", "true");
+        props.put("hibernate.jdbc.batch_versioned_data", "true");
+        props.put("hibernate.hikari.dataSource.reWriteBatchedInserts", "true");
+
+        // Lazy associations outside a fetch plan load up to this many owners per query instead of one
+        props.put("hibernate.default_batch_fetch_size", String.valueOf(intEnv(env, "DB_BATCH_FETCH_SIZE", DEFAULT_BATCH_FETCH_SIZE)));
+
+        // Skip JDBC metadata lookups at boot; the dialect is fixed in persistence.xml
+        props.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        return props;
     }
 
-    public static EntityManagerFactory getEntityManagerFactory() {
-        return emf;
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static int intEnv(Map<String, String> env, String name, int defaultValue) {
+        String value = env.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(name + " must be an integer: " + value, e);
+        }
     }
 
-    public static void close() {
-        emf.close();
+    private static long longEnv(Map<String, String> env, String name, long defaultValue) {
+        String value = env.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException(name + " must be an integer: " + value, e);
+        }
     }
-} 
\ No newline at end of file
+}
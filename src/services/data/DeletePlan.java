@@ -0,0 +1,84 @@
+package com.mindthekid.services.data;
+
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+// Set-based cascade delete statements for one entity type, derived from the JPA metamodel.
+// Every entity with a MANY_TO_ONE/ONE_TO_ONE reference to the target is a dependent; dependents of
+// dependents are reached through nested id subqueries. Statements are ordered deepest first and all
+// take the root ids as the :ids parameter. Join tables of MANY_TO_MANY collections are not covered.
+final class DeletePlan {
+    static final String IDS_PARAMETER = "ids";
+
+    private final List<String> statements;
+
+    private DeletePlan(List<String> statements) {
+        this.statements = Collections.unmodifiableList(statements);
+    }
+
+    List<String> getStatements() {
+        return statements;
+    }
+
+    static DeletePlan build(Metamodel metamodel, Class<?> rootClass, boolean deep,
+                            BiPredicate<Class<?>, String> includeDependent) {
+        EntityType<?> root = metamodel.entity(rootClass);
+        List<String> statements = new ArrayList<>();
+        if (deep) {
+            Set<Class<?>> path = new HashSet<>();
+            path.add(rootClass);
+            collect(metamodel, root, ":" + IDS_PARAMETER, path, 0, includeDependent, statements);
+        }
+        statements.add("DELETE FROM " + root.getName() + " e WHERE e." + idAttributeName(root) + " IN :" + IDS_PARAMETER);
+        return new DeletePlan(statements);
+    }
+
+    static String idAttributeName(EntityType<?> entityType) {
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            if (attribute.isId()) {
+                return attribute.getName();
+            }
+        }
+        throw new IllegalStateException(entityType.getName() + " has no single id attribute");
+    }
+
+    private static void collect(Metamodel metamodel, EntityType<?> target, String targetIds, Set<Class<?>> path,
+                                int depth, BiPredicate<Class<?>, String> includeDependent, List<String> statements) {
+        String targetId = idAttributeName(target);
+        String alias = "d" + depth;
+        for (EntityType<?> dependent : metamodel.getEntities()) {
+            Class<?> dependentClass = dependent.getJavaType();
+            for (SingularAttribute<?, ?> attribute : dependent.getSingularAttributes()) {
+                if (!references(attribute, target.getJavaType())
+                        || path.contains(dependentClass)
+                        || !includeDependent.test(dependentClass, attribute.getName())) {
+                    continue;
+                }
+                String condition = alias + "." + attribute.getName() + "." + targetId + " IN " + targetIds;
+
+                // Children of this dependent go first, selected by the dependent rows being deleted
+                path.add(dependentClass);
+                String dependentIds = "(SELECT " + alias + "." + idAttributeName(dependent)
+                        + " FROM " + dependent.getName() + " " + alias + " WHERE " + condition + ")";
+                collect(metamodel, dependent, dependentIds, path, depth + 1, includeDependent, statements);
+                path.remove(dependentClass);
+
+                statements.add("DELETE FROM " + dependent.getName() + " " + alias + " WHERE " + condition);
+            }
+        }
+    }
+
+    private static boolean references(SingularAttribute<?, ?> attribute, Class<?> target) {
+        PersistentAttributeType type = attribute.getPersistentAttributeType();
+        return (type == PersistentAttributeType.MANY_TO_ONE || type == PersistentAttributeType.ONE_TO_ONE)
+                && attribute.getJavaType() == target;
+    }
+}
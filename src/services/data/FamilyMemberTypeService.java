@@ -3,9 +3,9 @@ package com.mindthekid.services.data;
 import com.mindthekid.models.FamilyMemberType;
 import javax.persistence.EntityManager;
 
-public class FamilyMemberTypeService extends BaseService<FamilyMemberType, Long> {
+public class FamilyMemberTypeService extends CachedReferenceService<FamilyMemberType, Long> {
     public FamilyMemberTypeService() {
-        super(FamilyMemberType.class);
+        super(FamilyMemberType.class, "reference.family_member_type", FamilyMemberType::getId, FamilyMemberType::getMemberTypeCode);
     }
 
     @Override
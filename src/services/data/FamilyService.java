@@ -1,11 +1,31 @@
 package com.mindthekid.services.data;
 
 import com.mindthekid.models.Family;
+import com.mindthekid.models.FamilyMembership;
+import com.mindthekid.services.data.projections.FamilyMemberRef;
 import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+public class FamilyService extends BaseService<Family, Integer> {
+    public static final FetchPlan<Family> OVERVIEW = FetchPlan.builder(Family.class, "overview")
+            .fetch("creator")
+            .collection("memberships", "user", "membershipType")
+            .build();
 
-public class FamilyService extends BaseService<Family, Long> {
     public FamilyService() {
         super(Family.class);
+        registerFetchPlan(OVERVIEW);
+    }
+
+    public Family findOverview(Integer id) {
+        return findById(id, OVERVIEW.getName());
+    }
+
+    public List<FamilyMemberRef> findMemberRefs(Integer familyId) {
+        return project("SELECT new com.mindthekid.services.data.projections.FamilyMemberRef(fm.family.id, fm.user.id, mt.memberTypeCode)"
+                        + " FROM FamilyMembership fm JOIN fm.membershipType mt WHERE fm.family.id = :familyId",
+                FamilyMemberRef.class, Map.of("familyId", familyId), 0);
     }
 
     @Override
@@ -16,4 +36,9 @@ public class FamilyService extends BaseService<Family, Long> {
           .executeUpdate();
         // Add more as needed for other dependencies
     }
-} 
\ No newline at end of file
+
+    @Override
+    protected boolean isDeepDeleteDependent(Class<?> dependentClass, String attributeName) {
+        return dependentClass == FamilyMembership.class;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.mindthekid.services.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Named JOIN FETCH profile for loading an aggregate in a fixed number of queries.
+// Singular associations are fetched with the root; each collection gets its own query (with its
+// singular children) in the same EntityManager, so Hibernate fills the already-managed roots.
+// That keeps the cost at 1 + collections queries and avoids bag cartesian products.
+public final class FetchPlan<T> {
+    private final String name;
+    private final Class<T> entityClass;
+    private final List<String> rootPaths;
+    private final Map<String, List<String>> collections;
+
+    private FetchPlan(Builder<T> builder) {
+        this.name = builder.name;
+        this.entityClass = builder.entityClass;
+        this.rootPaths = Collections.unmodifiableList(new ArrayList<>(builder.rootPaths));
+        this.collections = Collections.unmodifiableMap(new LinkedHashMap<>(builder.collections));
+    }
+
+    public static <T> Builder<T> builder(Class<T> entityClass, String name) {
+        return new Builder<>(entityClass, name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    // Root query first, then one query per collection; all take the root ids as :ids
+    public List<String> toQueries(String entityName, String idAttribute) {
+        List<String> queries = new ArrayList<>(1 + collections.size());
+        queries.add("SELECT e FROM " + entityName + " e" + joins("e", rootPaths, new int[] {0})
+                + " WHERE e." + idAttribute + " IN :ids");
+
+        for (Map.Entry<String, List<String>> collection : collections.entrySet()) {
+            int[] aliasCounter = {0};
+            String alias = "c" + aliasCounter[0]++;
+            StringBuilder query = new StringBuilder("SELECT DISTINCT e FROM ").append(entityName).append(" e")
+                    .append(" LEFT JOIN FETCH e.").append(collection.getKey()).append(' ').append(alias)
+                    .append(joins(alias, collection.getValue(), aliasCounter))
+                    .append(" WHERE e.").append(idAttribute).append(" IN :ids");
+            queries.add(query.toString());
+        }
+        return queries;
+    }
+
+    private static String joins(String rootAlias, List<String> paths, int[] aliasCounter) {
+        // Shared prefixes are joined once: address.country and address.state reuse the address alias
+        Map<String, String> aliases = new LinkedHashMap<>();
+        StringBuilder joins = new StringBuilder();
+        for (String path : paths) {
+            String parentAlias = rootAlias;
+            String prefix = "";
+            for (String segment : path.split("\\.")) {
+                prefix = prefix.isEmpty() ? segment : prefix + "." + segment;
+                String alias = aliases.get(prefix);
+                if (alias == null) {
+                    alias = rootAlias + "_" + aliasCounter[0]++;
+                    aliases.put(prefix, alias);
+                    joins.append(" LEFT JOIN FETCH ").append(parentAlias).append('.').append(segment)
+                            .append(' ').append(alias);
+                }
+                parentAlias = alias;
+            }
+        }
+        return joins.toString();
+    }
+
+    public static final class Builder<T> {
+        private final Class<T> entityClass;
+        private final String name;
+        private final List<String> rootPaths = new ArrayList<>();
+        private final Map<String, List<String>> collections = new LinkedHashMap<>();
+
+        private Builder(Class<T> entityClass, String name) {
+            this.entityClass = entityClass;
+            this.name = name;
+        }
+
+        // Singular association paths fetched with the root, e.g. "gender"
+        public Builder<T> fetch(String... paths) {
+            rootPaths.addAll(Arrays.asList(paths));
+            return this;
+        }
+
+        // A collection plus singular paths below each element, e.g. ("subscriptions", "subscriptionType.frequency")
+        public Builder<T> collection(String collection, String... elementPaths) {
+            collections.put(collection, Arrays.asList(elementPaths));
+            return this;
+        }
+
+        public FetchPlan<T> build() {
+            return new FetchPlan<>(this);
+        }
+    }
+}
@@ -3,9 +3,9 @@ package com.mindthekid.services.data;
 import com.mindthekid.models.Frequency;
 import javax.persistence.EntityManager;
 
-public class FrequencyService extends BaseService<Frequency, Long> {
+public class FrequencyService extends CachedReferenceService<Frequency, Long> {
     public FrequencyService() {
-        super(Frequency.class);
+        super(Frequency.class, "reference.frequency", Frequency::getId, Frequency::getFrequencyCode);
     }
 
     @Override
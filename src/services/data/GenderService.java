@@ -3,9 +3,9 @@ package com.mindthekid.services.data;
 import com.mindthekid.models.Gender;
 import javax.persistence.EntityManager;
 
-public class GenderService extends BaseService<Gender, Long> {
+public class GenderService extends CachedReferenceService<Gender, Long> {
     public GenderService() {
-        super(Gender.class);
+        super(Gender.class, "reference.gender", Gender::getId, Gender::getGenderCode);
     }
 
     @Override
@@ -0,0 +1,50 @@
+package com.mindthekid.services.data;
+
+import javax.persistence.AttributeConverter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Maps the models' {@code Optional} fields to nullable columns; registered in {@code META-INF/orm.xml}.
+ */
+public final class OptionalConverters {
+
+    private OptionalConverters() {}
+
+    public static class StringConverter implements AttributeConverter<Optional<String>, String> {
+        @Override
+        public String convertToDatabaseColumn(Optional<String> attribute) {
+            return attribute != null ? attribute.orElse(null) : null;
+        }
+
+        @Override
+        public Optional<String> convertToEntityAttribute(String column) {
+            return Optional.ofNullable(column);
+        }
+    }
+
+    public static class LocalDateConverter implements AttributeConverter<Optional<LocalDate>, LocalDate> {
+        @Override
+        public LocalDate convertToDatabaseColumn(Optional<LocalDate> attribute) {
+            return attribute != null ? attribute.orElse(null) : null;
+        }
+
+        @Override
+        public Optional<LocalDate> convertToEntityAttribute(LocalDate column) {
+            return Optional.ofNullable(column);
+        }
+    }
+
+    public static class LocalDateTimeConverter implements AttributeConverter<Optional<LocalDateTime>, LocalDateTime> {
+        @Override
+        public LocalDateTime convertToDatabaseColumn(Optional<LocalDateTime> attribute) {
+            return attribute != null ? attribute.orElse(null) : null;
+        }
+
+        @Override
+        public Optional<LocalDateTime> convertToEntityAttribute(LocalDateTime column) {
+            return Optional.ofNullable(column);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.mindthekid.services.data;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class Page<T, ID> {
+    private final List<T> items;
+    private final ID nextAfterId;
+
+    public Page(List<T> items, ID nextAfterId) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    // Pass back to findPage to continue; null on the last page
+    public ID getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public boolean hasMore() {
+        return nextAfterId != null;
+    }
+}
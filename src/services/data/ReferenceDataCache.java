@@ -0,0 +1,119 @@
+package com.mindthekid.services.data;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Process-wide snapshots of reference tables, shared by every CachedReferenceService instance.
+// A snapshot is served from memory until REFERENCE_CACHE_CHECK_INTERVAL_MS has passed; then one
+// caller compares version_info for the component and reloads only if it changed, while other
+// callers keep reading the current snapshot.
+public final class ReferenceDataCache {
+    private static final long DEFAULT_CHECK_INTERVAL_MS = 60_000L;
+    private static final long CHECK_INTERVAL_MS = checkInterval(System.getenv("REFERENCE_CACHE_CHECK_INTERVAL_MS"));
+
+    private static final Map<Class<?>, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private ReferenceDataCache() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> ReferenceSnapshot<T> get(CachedReferenceService<T, ?> service) {
+        Entry entry = ENTRIES.computeIfAbsent(service.entityClass, type -> new Entry());
+        ReferenceSnapshot<T> snapshot = (ReferenceSnapshot<T>) entry.snapshot;
+        long now = System.currentTimeMillis();
+
+        if (snapshot == null) {
+            entry.lock.lock();
+            try {
+                if (entry.snapshot == null) {
+                    entry.snapshot = service.loadSnapshot();
+                    entry.checkedAt = now;
+                }
+                return (ReferenceSnapshot<T>) entry.snapshot;
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+
+        if (now - entry.checkedAt >= CHECK_INTERVAL_MS && entry.lock.tryLock()) {
+            try {
+                if (now - entry.checkedAt >= CHECK_INTERVAL_MS && entry.snapshot != null) {
+                    BigDecimal current = service.loadVersion();
+                    ReferenceSnapshot<?> loaded = entry.snapshot;
+                    if (!versionsEqual(current, loaded.getVersion())) {
+                        entry.snapshot = service.loadSnapshot();
+                    }
+                    entry.checkedAt = now;
+                }
+                if (entry.snapshot != null) {
+                    snapshot = (ReferenceSnapshot<T>) entry.snapshot;
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    public static void invalidate(Class<?> entityClass) {
+        Entry entry = ENTRIES.get(entityClass);
+        if (entry != null) {
+            entry.snapshot = null;
+        }
+    }
+
+    public static void invalidateAll() {
+        ENTRIES.clear();
+    }
+
+    // Loads every reference table, e.g. from a Lambda init block or a SnapStart hook
+    public static void warmUp() {
+        warmUp(defaultServices());
+    }
+
+    public static void warmUp(List<? extends CachedReferenceService<?, ?>> services) {
+        for (CachedReferenceService<?, ?> service : services) {
+            service.snapshot();
+        }
+    }
+
+    static List<CachedReferenceService<?, ?>> defaultServices() {
+        return Arrays.asList(
+                new CountryService(),
+                new CountryStateService(),
+                new GenderService(),
+                new FrequencyService(),
+                new AddressTypeService(),
+                new ShareTypeService(),
+                new SubscriptionTypeService(),
+                new FamilyMemberTypeService());
+    }
+
+    static long checkInterval(String configured) {
+        if (configured == null || configured.trim().isEmpty()) {
+            return DEFAULT_CHECK_INTERVAL_MS;
+        }
+        try {
+            return Long.parseLong(configured.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("REFERENCE_CACHE_CHECK_INTERVAL_MS must be an integer: " + configured, e);
+        }
+    }
+
+    private static boolean versionsEqual(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return Objects.equals(a, b);
+        }
+        return a.compareTo(b) == 0;
+    }
+
+    private static final class Entry {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile ReferenceSnapshot<?> snapshot;
+        volatile long checkedAt;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mindthekid.services.data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Immutable view of one reference table. Entities are detached; treat them as read-only.
+public final class ReferenceSnapshot<T> {
+    private final List<T> all;
+    private final Map<Long, T> byId;
+    private final Map<String, T> byCode;
+    private final BigDecimal version;
+
+    ReferenceSnapshot(List<T> entities, Function<T, ? extends Number> idExtractor,
+                      Function<T, String> codeExtractor, BigDecimal version) {
+        Map<Long, T> ids = new HashMap<>(entities.size() * 2);
+        Map<String, T> codes = new HashMap<>(entities.size() * 2);
+        for (T entity : entities) {
+            Number id = idExtractor.apply(entity);
+            if (id != null) {
+                ids.put(id.longValue(), entity);
+            }
+            String code = codeExtractor.apply(entity);
+            if (code != null) {
+                codes.put(code, entity);
+            }
+        }
+        this.all = Collections.unmodifiableList(new ArrayList<>(entities));
+        this.byId = Collections.unmodifiableMap(ids);
+        this.byCode = Collections.unmodifiableMap(codes);
+        this.version = version;
+    }
+
+    public List<T> getAll() {
+        return all;
+    }
+
+    public T getById(Object id) {
+        return id instanceof Number ? byId.get(((Number) id).longValue()) : null;
+    }
+
+    public T getByCode(String code) {
+        return code != null ? byCode.get(code) : null;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    // version_info.version_number when loaded; null if the component has no row yet
+    public BigDecimal getVersion() {
+        return version;
+    }
+}
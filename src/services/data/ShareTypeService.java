@@ -3,9 +3,9 @@ package com.mindthekid.services.data;
 import com.mindthekid.models.ShareType;
 import javax.persistence.EntityManager;
 
-public class ShareTypeService extends BaseService<ShareType, Long> {
+public class ShareTypeService extends CachedReferenceService<ShareType, Long> {
     public ShareTypeService() {
-        super(ShareType.class);
+        super(ShareType.class, "reference.share_type", ShareType::getId, ShareType::getShareTypeCode);
     }
 
     @Override
@@ -0,0 +1,6 @@
+package com.mindthekid.services.data;
+
+public enum SortOrder {
+    ASC,
+    DESC
+}
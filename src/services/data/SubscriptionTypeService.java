@@ -3,9 +3,14 @@ package com.mindthekid.services.data;
 import com.mindthekid.models.SubscriptionType;
 import javax.persistence.EntityManager;
 
-public class SubscriptionTypeService extends BaseService<SubscriptionType, Long> {
+public class SubscriptionTypeService extends CachedReferenceService<SubscriptionType, Long> {
     public SubscriptionTypeService() {
-        super(SubscriptionType.class);
+        super(SubscriptionType.class, "reference.subscription_type", SubscriptionType::getId, SubscriptionType::getSubscriptionCode);
+    }
+
+    @Override
+    protected String loadQuery() {
+        return "SELECT s FROM SubscriptionType s LEFT JOIN FETCH s.frequency";
     }
 
     @Override
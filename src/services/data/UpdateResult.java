@@ -0,0 +1,53 @@
+package com.mindthekid.services.data;
+
+// Outcome of an optimistic update: either the saved entity or a version conflict with the row as it is now
+public final class UpdateResult<T> {
+    public enum Status {
+        UPDATED,
+        CONFLICT,
+        NOT_FOUND
+    }
+
+    private final Status status;
+    private final T entity;
+    private final int attempts;
+
+    private UpdateResult(Status status, T entity, int attempts) {
+        this.status = status;
+        this.entity = entity;
+        this.attempts = attempts;
+    }
+
+    public static <T> UpdateResult<T> updated(T entity, int attempts) {
+        return new UpdateResult<>(Status.UPDATED, entity, attempts);
+    }
+
+    public static <T> UpdateResult<T> conflict(T current, int attempts) {
+        return new UpdateResult<>(Status.CONFLICT, current, attempts);
+    }
+
+    public static <T> UpdateResult<T> notFound(int attempts) {
+        return new UpdateResult<>(Status.NOT_FOUND, null, attempts);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isUpdated() {
+        return status == Status.UPDATED;
+    }
+
+    public boolean isConflict() {
+        return status == Status.CONFLICT;
+    }
+
+    // The saved entity when UPDATED; the current database state when CONFLICT; null when NOT_FOUND
+    public T getEntity() {
+        return entity;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -1,11 +1,39 @@
 package com.mindthekid.services.data;
 
+import com.mindthekid.models.FamilyMembership;
 import com.mindthekid.models.User;
+import com.mindthekid.models.UserAddress;
+import com.mindthekid.models.UserShare;
+import com.mindthekid.models.UserSubscription;
+import com.mindthekid.services.data.projections.UserSummary;
 import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+
+public class UserService extends BaseService<User, String> {
+    public static final FetchPlan<User> PROFILE = FetchPlan.builder(User.class, "profile")
+            .fetch("gender")
+            // No addresses: UserAddress is not in this persistence unit (User.addresses is transient)
+            .collection("familyMemberships", "family", "membershipType")
+            .collection("subscriptions", "subscriptionType.frequency")
+            .collection("createdFamilies")
+            .collection("sharedBy", "sharedWith", "shareType")
+            .collection("sharedWith", "sharedBy", "shareType")
+            .build();
 
-public class UserService extends BaseService<User, Long> {
     public UserService() {
         super(User.class);
+        registerFetchPlan(PROFILE);
+    }
+
+    public User findProfile(String id) {
+        return findById(id, PROFILE.getName());
+    }
+
+    public List<UserSummary> findSummariesByFamilyName(String familyNamePrefix, int limit) {
+        return project("SELECT new com.mindthekid.services.data.projections.UserSummary(u.id, u.firstName, u.familyName, u.email)"
+                        + " FROM User u WHERE LOWER(u.familyName) LIKE :prefix ORDER BY u.familyName, u.firstName, u.id",
+                UserSummary.class, Map.of("prefix", familyNamePrefix.toLowerCase() + "%"), limit);
     }
 
     @Override
@@ -23,4 +51,13 @@ public class UserService extends BaseService<User, Long> {
           .executeUpdate();
         // Add more as needed for other dependencies
     }
-} 
\ No newline at end of file
+
+    @Override
+    protected boolean isDeepDeleteDependent(Class<?> dependentClass, String attributeName) {
+        // Rows that only exist for this user; families it created are left to FamilyService
+        return dependentClass == UserAddress.class
+            || dependentClass == UserSubscription.class
+            || dependentClass == UserShare.class
+            || dependentClass == FamilyMembership.class;
+    }
+}
\ No newline at end of file
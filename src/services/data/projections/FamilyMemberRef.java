@@ -0,0 +1,49 @@
+package com.mindthekid.services.data.projections;
+
+import java.util.Objects;
+
+// A family member's user id and membership type code, without loading User or Family
+public final class FamilyMemberRef {
+    private final Integer familyId;
+    private final String userId;
+    private final String memberTypeCode;
+
+    public FamilyMemberRef(Integer familyId, String userId, String memberTypeCode) {
+        this.familyId = familyId;
+        this.userId = userId;
+        this.memberTypeCode = memberTypeCode;
+    }
+
+    public Integer getFamilyId() {
+        return familyId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getMemberTypeCode() {
+        return memberTypeCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FamilyMemberRef)) return false;
+        FamilyMemberRef that = (FamilyMemberRef) o;
+        return Objects.equals(familyId, that.familyId)
+                && Objects.equals(userId, that.userId)
+                && Objects.equals(memberTypeCode, that.memberTypeCode);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(familyId, userId, memberTypeCode);
+    }
+
+    @Override
+    public String toString() {
+        return "FamilyMemberRef{familyId=" + familyId + ", userId='" + userId + "', memberTypeCode='"
+                + memberTypeCode + "'}";
+    }
+}
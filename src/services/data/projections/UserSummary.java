@@ -0,0 +1,56 @@
+package com.mindthekid.services.data.projections;
+
+import java.util.Objects;
+
+// Id, name and email of a user, selected with a JPQL constructor expression
+public final class UserSummary {
+    private final String id;
+    private final String firstName;
+    private final String familyName;
+    private final String email;
+
+    public UserSummary(String id, String firstName, String familyName, String email) {
+        this.id = id;
+        this.firstName = firstName;
+        this.familyName = familyName;
+        this.email = email;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserSummary)) return false;
+        UserSummary that = (UserSummary) o;
+        return Objects.equals(id, that.id)
+                && Objects.equals(firstName, that.firstName)
+                && Objects.equals(familyName, that.familyName)
+                && Objects.equals(email, that.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, firstName, familyName, email);
+    }
+
+    @Override
+    public String toString() {
+        return "UserSummary{id='" + id + "', firstName='" + firstName + "', familyName='" + familyName
+                + "', email='" + email + "'}";
+    }
+}
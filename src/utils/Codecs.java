@@ -0,0 +1,169 @@
+package com.mindthekid.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared JSON and XML codecs for the model classes.
+ *
+ * Building an {@code ObjectMapper} or a {@code JAXBContext} costs far more than the
+ * encode/decode it is used for, so both are created once per type and reused.
+ * Jackson readers and writers are immutable and thread-safe and are shared directly.
+ * JAXB marshallers are not thread-safe, so each type keeps a small pool that callers
+ * borrow from; when the pool is empty a new marshaller is created from the cached context.
+ *
+ * @author MTK Backend Team
+ * @version 1.0.0
+ */
+public final class Codecs {
+
+    private static final int MARSHALLER_POOL_SIZE = 8;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, XmlCodec> XML_CODECS = new ConcurrentHashMap<>();
+
+    private Codecs() {
+        throw new AssertionError("Cannot instantiate Codecs class");
+    }
+
+    /**
+     * Returns the shared reader for a type.
+     *
+     * @param type The class to read
+     * @return An immutable, thread-safe reader
+     */
+    public static ObjectReader reader(Class<?> type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    /**
+     * Returns the shared writer for a type.
+     *
+     * @param type The class to write
+     * @return An immutable, thread-safe writer
+     */
+    public static ObjectWriter writer(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * Serializes a value to JSON using the writer for its runtime class.
+     *
+     * @param value The value to serialize
+     * @return JSON representation of the value
+     * @throws JsonProcessingException If the value cannot be serialized
+     */
+    public static String toJson(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return "null";
+        }
+        return writer(value.getClass()).writeValueAsString(value);
+    }
+
+    /**
+     * Deserializes JSON into the given type.
+     *
+     * @param json JSON representation
+     * @param type Target class
+     * @return The decoded value
+     * @throws JsonProcessingException If the JSON is malformed or does not match the type
+     */
+    public static <T> T fromJson(String json, Class<T> type) throws JsonProcessingException {
+        return reader(type).readValue(json);
+    }
+
+    /**
+     * Returns the cached JAXB context for a type, creating it on first use.
+     *
+     * @param type The class bound by the context
+     * @return The shared, thread-safe context
+     * @throws JAXBException If the type cannot be bound
+     */
+    public static JAXBContext jaxbContext(Class<?> type) throws JAXBException {
+        return xmlCodec(type).context;
+    }
+
+    /**
+     * Marshals a value to formatted XML using a pooled marshaller.
+     *
+     * @param value The value to marshal
+     * @return XML representation of the value
+     * @throws JAXBException If the value cannot be marshalled
+     */
+    public static String toXml(Object value) throws JAXBException {
+        XmlCodec codec = xmlCodec(value.getClass());
+        Marshaller marshaller = codec.marshallers.poll();
+        if (marshaller == null) {
+            marshaller = codec.context.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        }
+        try {
+            StringWriter writer = new StringWriter();
+            marshaller.marshal(value, writer);
+            return writer.toString();
+        } finally {
+            codec.marshallers.offer(marshaller);
+        }
+    }
+
+    /**
+     * Unmarshals XML into the given type using a pooled unmarshaller.
+     *
+     * @param xml XML representation
+     * @param type Target class
+     * @return The decoded value
+     * @throws JAXBException If the XML cannot be unmarshalled
+     */
+    public static <T> T fromXml(String xml, Class<T> type) throws JAXBException {
+        XmlCodec codec = xmlCodec(type);
+        Unmarshaller unmarshaller = codec.unmarshallers.poll();
+        if (unmarshaller == null) {
+            unmarshaller = codec.context.createUnmarshaller();
+        }
+        try {
+            return type.cast(unmarshaller.unmarshal(new StringReader(xml)));
+        } finally {
+            codec.unmarshallers.offer(unmarshaller);
+        }
+    }
+
+    private static XmlCodec xmlCodec(Class<?> type) throws JAXBException {
+        XmlCodec codec = XML_CODECS.get(type);
+        if (codec == null) {
+            // Two threads may both build a context on first use; only one is kept
+            XmlCodec created = new XmlCodec(JAXBContext.newInstance(type));
+            codec = XML_CODECS.putIfAbsent(type, created);
+            if (codec == null) {
+                codec = created;
+            }
+        }
+        return codec;
+    }
+
+    private static final class XmlCodec {
+        private final JAXBContext context;
+        // Bounded so a burst of concurrent callers does not pin marshallers forever
+        private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(MARSHALLER_POOL_SIZE);
+        private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(MARSHALLER_POOL_SIZE);
+
+        private XmlCodec(JAXBContext context) {
+            this.context = context;
+        }
+    }
+}
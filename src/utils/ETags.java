@@ -0,0 +1,81 @@
+package com.mindthekid.utils;
+
+/**
+ * Weak entity tags for conditional GETs.
+ *
+ * Tags are derived from a small set of version components (for example the item count
+ * and newest {@code updated_at} of a user's location range), hashed with
+ * 64-bit FNV-1a so the header value stays short and does not leak the raw values.
+ * Matching follows RFC 7232 weak comparison for {@code If-None-Match}: a list of tags,
+ * each optionally prefixed with {@code W/}, or {@code *}.
+ *
+ * @author MTK Backend Team
+ * @version 1.0.0
+ */
+public final class ETags {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {
+        throw new AssertionError("Cannot instantiate ETags class");
+    }
+
+    /**
+     * Builds a weak tag from version components. Null components are hashed distinctly
+     * from empty strings, and component boundaries are preserved.
+     *
+     * @param components The values identifying the representation's version
+     * @return A tag such as {@code W/"9f1c0a7d3b2e4c11"}
+     */
+    public static String weak(String... components) {
+        long hash = FNV_OFFSET_BASIS;
+        for (String component : components) {
+            if (component == null) {
+                hash = mix(hash, 0);
+            } else {
+                for (int i = 0; i < component.length(); i++) {
+                    char c = component.charAt(i);
+                    hash = mix(hash, c & 0xff);
+                    hash = mix(hash, c >>> 8);
+                }
+                hash = mix(hash, 1);
+            }
+            hash = mix(hash, 0x1f);
+        }
+        return "W/\"" + toHex(hash) + "\"";
+    }
+
+    /**
+     * Returns true if an {@code If-None-Match} header value matches the tag.
+     *
+     * @param ifNoneMatch Raw header value, may be null
+     * @param etag The current tag of the representation
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String current = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    private static String toHex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+}
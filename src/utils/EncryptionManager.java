@@ -1,11 +1,21 @@
 package com.mindthekid.utils;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Encryption Manager Utility Class
@@ -14,14 +24,24 @@ import java.util.regex.Pattern;
  * This class contains static methods for secure key generation, hashing, and validation.
  * 
  * Features:
- * - SHA-256 hashing with salt
+ * - PBKDF2 key stretching with a configurable work factor
+ * - Versioned storage format: scheme$cost$salt:hash
+ * - Verification of legacy salt:hash values (single SHA-256) and rehash on verify
  * - Minimum 8 character input validation
- * - Secure random salt generation
+ * - Secure random salt generation from per-thread generators
  * - Base64 encoding for safe storage
  * - Input validation and sanitization
+ * - Batch hashing and verification across cores (fork-join)
+ * 
+ * The scheme and work factor for new hashes are read once from PASSWORD_HASH_SCHEME
+ * (default pbkdf2-sha256) and PASSWORD_HASH_ITERATIONS (default 600,000). Stored values
+ * carry their own parameters, so changing either only affects new hashes; use
+ * {@link #needsRehash(String)} or {@link #verifyAndRehash(String, String, Consumer)} to
+ * upgrade old ones as users sign in. jmh/PasswordHashBenchmark measures the cost of
+ * each setting.
  * 
  * @author MTK Backend Team
- * @version 1.0.0
+ * @version 1.2.0
  */
 public final class EncryptionManager {
     
@@ -30,13 +50,69 @@ public final class EncryptionManager {
     private static final int SALT_LENGTH = 32;
     private static final String HASH_ALGORITHM = "SHA-256";
     private static final String SEPARATOR = ":";
+    private static final String SCHEME_SEPARATOR = "$";
     
-    // Input validation patterns
-    private static final Pattern VALID_INPUT_PATTERN = Pattern.compile("^[\\w\\d\\s!@#$%^&*()_+\\-=\\[\\]{}|;':\",./<>?`~]+$");
-    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    // Work factor configuration
+    private static final String SCHEME_ENV = "PASSWORD_HASH_SCHEME";
+    private static final String ITERATIONS_ENV = "PASSWORD_HASH_ITERATIONS";
+    private static final String DEFAULT_SCHEME = "pbkdf2-sha256";
+    private static final int DEFAULT_ITERATIONS = 600_000;
+    private static final int MIN_ITERATIONS = 1_000;
     
-    // Secure random instance for salt generation
-    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    // Characters accepted in user keys: word characters, \s and common punctuation
+    private static final String VALID_PUNCTUATION = "!@#$%^&*()_+-=[]{}|;':\",./<>?`~";
+    private static final boolean[] VALID_CHARS = new boolean[128];
+    
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            VALID_CHARS[c] = true;
+            VALID_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            VALID_CHARS[c] = true;
+        }
+        for (char c = '\t'; c <= '\r'; c++) {
+            VALID_CHARS[c] = true;
+        }
+        VALID_CHARS[' '] = true;
+        for (int i = 0; i < VALID_PUNCTUATION.length(); i++) {
+            VALID_CHARS[VALID_PUNCTUATION.charAt(i)] = true;
+        }
+    }
+    
+    // Per-thread secure random instances for salt generation; the default NativePRNG
+    // serializes every caller on one lock
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM =
+        ThreadLocal.withInitial(EncryptionManager::newSecureRandom);
+    
+    // Per-thread SHA-256 digests for legacy hashes, created on first use
+    private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<>();
+    
+    // Registered hash schemes by id
+    private static final Map<String, HashScheme> SCHEMES = new ConcurrentHashMap<>();
+    
+    static {
+        registerScheme(new Pbkdf2Scheme("pbkdf2-sha256", "PBKDF2WithHmacSHA256", 256));
+        registerScheme(new Pbkdf2Scheme("pbkdf2-sha512", "PBKDF2WithHmacSHA512", 512));
+    }
+    
+    private static final String CURRENT_SCHEME = schemeFromEnvironment();
+    private static final int CURRENT_ITERATIONS = iterationsFromEnvironment();
+    
+    /**
+     * A key derivation function usable in stored hashes.
+     * 
+     * The id is written in front of every hash it produces and must not contain "$" or ":".
+     * The cost is the scheme's work factor (an iteration count for PBKDF2) and is stored
+     * alongside the hash, so it can change without invalidating existing values. Schemes are
+     * called concurrently by the batch methods and must be thread-safe.
+     */
+    public interface HashScheme {
+        
+        String getId();
+        
+        byte[] hash(String key, byte[] salt, int cost) throws GeneralSecurityException;
+    }
     
     /**
      * Private constructor to prevent instantiation
@@ -52,22 +128,41 @@ public final class EncryptionManager {
      * 1. Validates input length (minimum 8 characters)
      * 2. Sanitizes and normalizes the input
      * 3. Generates a cryptographically secure random salt
-     * 4. Combines the input with the salt
-     * 5. Applies SHA-256 hashing
-     * 6. Returns the salt and hash combined for storage
+     * 4. Derives the hash with the configured scheme and work factor
+     * 5. Returns the scheme, work factor, salt and hash combined for storage
      * 
      * @param userKey The user input key to hash (minimum 8 characters)
-     * @return A string containing the salt and hash separated by ":"
+     * @return A string in the format "scheme$cost$salt:hash"
      * @throws IllegalArgumentException if the input is null, empty, or less than 8 characters
      * @throws RuntimeException if there's an error during hashing
      * 
      * @example
      * String hash = EncryptionManager.generateHash("mySecretKey123");
-     * // Returns: "base64Salt:base64Hash"
+     * // Returns: "pbkdf2-sha256$600000$base64Salt:base64Hash"
      */
     public static String generateHash(String userKey) {
+        return generateHash(userKey, CURRENT_SCHEME, CURRENT_ITERATIONS);
+    }
+    
+    /**
+     * Generates a secure hash with an explicit scheme and work factor.
+     * 
+     * @param userKey The user input key to hash (minimum 8 characters)
+     * @param schemeId The id of a registered hash scheme
+     * @param cost The work factor (at least 1,000 iterations)
+     * @return A string in the format "scheme$cost$salt:hash"
+     * @throws IllegalArgumentException if the input is invalid, the scheme is unknown or the cost too low
+     * @throws RuntimeException if there's an error during hashing
+     */
+    public static String generateHash(String userKey, String schemeId, int cost) {
         // Input validation
         validateInput(userKey);
+        HashScheme scheme = getScheme(schemeId);
+        if (cost < MIN_ITERATIONS) {
+            throw new IllegalArgumentException(
+                String.format("Work factor must be at least %d. Provided: %d", MIN_ITERATIONS, cost)
+            );
+        }
         
         try {
             // Sanitize and normalize input
@@ -76,21 +171,19 @@ public final class EncryptionManager {
             // Generate secure random salt
             byte[] salt = generateSalt();
             
-            // Combine salt and key
-            byte[] saltedKey = combineSaltAndKey(salt, sanitizedKey);
-            
-            // Generate hash
-            byte[] hash = generateHashBytes(saltedKey);
+            // Derive hash
+            byte[] hash = scheme.hash(sanitizedKey, salt, cost);
             
             // Encode salt and hash for storage
             String encodedSalt = Base64.getEncoder().encodeToString(salt);
             String encodedHash = Base64.getEncoder().encodeToString(hash);
             
-            // Return salt:hash format
-            return encodedSalt + SEPARATOR + encodedHash;
+            // Return scheme$cost$salt:hash format
+            return scheme.getId() + SCHEME_SEPARATOR + cost + SCHEME_SEPARATOR
+                + encodedSalt + SEPARATOR + encodedHash;
             
         } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Hash algorithm not available: " + HASH_ALGORITHM, e);
+            throw new RuntimeException("Hash algorithm not available: " + scheme.getId(), e);
         } catch (Exception e) {
             throw new RuntimeException("Error generating hash", e);
         }
@@ -99,8 +192,11 @@ public final class EncryptionManager {
     /**
      * Verifies a user input key against a stored hash.
      * 
+     * Both the versioned format and legacy "salt:hash" values (a single salted SHA-256)
+     * are accepted.
+     * 
      * @param userKey The user input key to verify
-     * @param storedHash The stored hash in format "salt:hash"
+     * @param storedHash The stored hash in format "scheme$cost$salt:hash" or "salt:hash"
      * @return true if the key matches the hash, false otherwise
      * @throws IllegalArgumentException if inputs are invalid
      */
@@ -110,8 +206,14 @@ public final class EncryptionManager {
         validateStoredHash(storedHash);
         
         try {
+            // Split off scheme and cost; legacy values have neither
+            String[] header = storedHash.split("\\" + SCHEME_SEPARATOR);
+            if (header.length != 1 && header.length != 3) {
+                throw new IllegalArgumentException("Invalid stored hash format");
+            }
+            
             // Parse stored hash
-            String[] parts = storedHash.split(SEPARATOR);
+            String[] parts = header[header.length - 1].split(SEPARATOR);
             if (parts.length != 2) {
                 throw new IllegalArgumentException("Invalid stored hash format");
             }
@@ -126,11 +228,13 @@ public final class EncryptionManager {
             // Sanitize input key
             String sanitizedKey = sanitizeInput(userKey);
             
-            // Combine salt and key
-            byte[] saltedKey = combineSaltAndKey(salt, sanitizedKey);
-            
             // Generate hash for comparison
-            byte[] actualHash = generateHashBytes(saltedKey);
+            byte[] actualHash;
+            if (header.length == 1) {
+                actualHash = generateHashBytes(combineSaltAndKey(salt, sanitizedKey));
+            } else {
+                actualHash = getScheme(header[0]).hash(sanitizedKey, salt, Integer.parseInt(header[1]));
+            }
             
             // Compare hashes (constant-time comparison to prevent timing attacks)
             return MessageDigest.isEqual(expectedHash, actualHash);
@@ -140,6 +244,137 @@ public final class EncryptionManager {
         }
     }
     
+    /**
+     * Verifies a user input key and, when it matches a hash made with an older scheme or a
+     * lower work factor, hands a fresh hash of the key to {@code onRehash} for storage.
+     * 
+     * This is the only point where the plain key is available to upgrade a stored hash,
+     * so sign-in paths should prefer it over {@link #verifyHash(String, String)}.
+     * 
+     * @param userKey The user input key to verify
+     * @param storedHash The stored hash in format "scheme$cost$salt:hash" or "salt:hash"
+     * @param onRehash Receives the replacement hash; not called if the key doesn't match
+     * @return true if the key matches the hash, false otherwise
+     * @throws IllegalArgumentException if inputs are invalid
+     */
+    public static boolean verifyAndRehash(String userKey, String storedHash, Consumer<String> onRehash) {
+        if (!verifyHash(userKey, storedHash)) {
+            return false;
+        }
+        if (needsRehash(storedHash)) {
+            onRehash.accept(generateHash(userKey));
+        }
+        return true;
+    }
+    
+    /**
+     * Checks whether a stored hash was made with other than the current scheme, or with a
+     * lower work factor than the current one.
+     * 
+     * @param storedHash The stored hash in format "scheme$cost$salt:hash" or "salt:hash"
+     * @return true if the hash should be replaced on the next successful verification
+     * @throws IllegalArgumentException if the stored hash is invalid
+     */
+    public static boolean needsRehash(String storedHash) {
+        validateStoredHash(storedHash);
+        
+        String[] header = storedHash.split("\\" + SCHEME_SEPARATOR);
+        if (header.length != 3) {
+            return true;
+        }
+        try {
+            return !header[0].equals(CURRENT_SCHEME) || Integer.parseInt(header[1]) < CURRENT_ITERATIONS;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid stored hash format: bad work factor", e);
+        }
+    }
+    
+    /**
+     * Generates hashes for many user keys in parallel on the common fork-join pool.
+     * 
+     * Every key is validated before any hashing starts, so an invalid key fails the whole
+     * batch quickly. Intended for bulk provisioning; throughput scales with the CPU count.
+     * 
+     * @param userKeys The user input keys to hash (minimum 8 characters each)
+     * @return The hashes, in the order of the keys
+     * @throws IllegalArgumentException if the list or any key is invalid
+     * @throws RuntimeException if there's an error during hashing
+     */
+    public static List<String> generateHashes(List<String> userKeys) {
+        return generateHashes(userKeys, CURRENT_SCHEME, CURRENT_ITERATIONS);
+    }
+    
+    /**
+     * Generates hashes for many user keys in parallel with an explicit scheme and work factor.
+     * 
+     * @param userKeys The user input keys to hash (minimum 8 characters each)
+     * @param schemeId The id of a registered hash scheme
+     * @param cost The work factor (at least 1,000 iterations)
+     * @return The hashes, in the order of the keys
+     * @throws IllegalArgumentException if the list, any key, the scheme or the cost is invalid
+     * @throws RuntimeException if there's an error during hashing
+     */
+    public static List<String> generateHashes(List<String> userKeys, String schemeId, int cost) {
+        if (userKeys == null) {
+            throw new IllegalArgumentException("User keys cannot be null");
+        }
+        String[] keys = userKeys.toArray(new String[0]);
+        for (String key : keys) {
+            validateInput(key);
+        }
+        getScheme(schemeId);
+        
+        String[] hashes = new String[keys.length];
+        ForkJoinPool.commonPool().invoke(
+            new BatchTask(0, keys.length, i -> hashes[i] = generateHash(keys[i], schemeId, cost)));
+        return Arrays.asList(hashes);
+    }
+    
+    /**
+     * Verifies many user keys against their stored hashes in parallel on the common fork-join pool.
+     * 
+     * @param userKeys The user input keys to verify
+     * @param storedHashes The stored hashes, one per key in the same order
+     * @return For each key, whether it matches its hash
+     * @throws IllegalArgumentException if the lists are null or differ in size, or any input is invalid
+     */
+    public static List<Boolean> verifyHashes(List<String> userKeys, List<String> storedHashes) {
+        if (userKeys == null || storedHashes == null) {
+            throw new IllegalArgumentException("User keys and stored hashes cannot be null");
+        }
+        if (userKeys.size() != storedHashes.size()) {
+            throw new IllegalArgumentException(
+                String.format("Expected one stored hash per user key. Provided: %d keys, %d hashes",
+                    userKeys.size(), storedHashes.size())
+            );
+        }
+        String[] keys = userKeys.toArray(new String[0]);
+        String[] hashes = storedHashes.toArray(new String[0]);
+        for (int i = 0; i < keys.length; i++) {
+            validateInput(keys[i]);
+            validateStoredHash(hashes[i]);
+        }
+        
+        Boolean[] results = new Boolean[keys.length];
+        ForkJoinPool.commonPool().invoke(
+            new BatchTask(0, keys.length, i -> results[i] = verifyHash(keys[i], hashes[i])));
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Registers a hash scheme, replacing any scheme with the same id.
+     * 
+     * @param scheme The scheme to register
+     * @throws IllegalArgumentException if the scheme id is empty or contains "$" or ":"
+     */
+    public static void registerScheme(HashScheme scheme) {
+        String id = scheme.getId();
+        if (id == null || id.isEmpty() || id.contains(SCHEME_SEPARATOR) || id.contains(SEPARATOR)) {
+            throw new IllegalArgumentException("Invalid hash scheme id: " + id);
+        }
+        SCHEMES.put(id, scheme);
+    }
+    
     /**
      * Generates a secure random salt.
      * 
@@ -147,7 +382,7 @@ public final class EncryptionManager {
      */
     private static byte[] generateSalt() {
         byte[] salt = new byte[SALT_LENGTH];
-        SECURE_RANDOM.nextBytes(salt);
+        SECURE_RANDOM.get().nextBytes(salt);
         return salt;
     }
     
@@ -169,17 +404,35 @@ public final class EncryptionManager {
     }
     
     /**
-     * Generates hash bytes using SHA-256.
+     * Generates hash bytes using SHA-256, as legacy "salt:hash" values were made.
      * 
      * @param input The input bytes to hash
      * @return The hash bytes
      * @throws NoSuchAlgorithmException if SHA-256 is not available
      */
     private static byte[] generateHashBytes(byte[] input) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        MessageDigest digest = DIGEST.get();
+        if (digest == null) {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            DIGEST.set(digest);
+        }
         return digest.digest(input);
     }
     
+    /**
+     * Creates a salt generator for one thread. DRBG instances are independent of each other,
+     * unlike NativePRNG, which shares one locked source across all instances.
+     * 
+     * @return A new secure random instance
+     */
+    private static SecureRandom newSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+    
     /**
      * Validates user input key.
      * 
@@ -202,11 +455,27 @@ public final class EncryptionManager {
             );
         }
         
-        if (!VALID_INPUT_PATTERN.matcher(userKey).matches()) {
+        if (!hasValidCharacters(userKey)) {
             throw new IllegalArgumentException("User key contains invalid characters");
         }
     }
     
+    /**
+     * Checks every character against the accepted set with a table lookup.
+     * 
+     * @param userKey The key to check
+     * @return true if all characters are accepted
+     */
+    private static boolean hasValidCharacters(String userKey) {
+        for (int i = 0; i < userKey.length(); i++) {
+            char c = userKey.charAt(i);
+            if (c >= VALID_CHARS.length || !VALID_CHARS[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     /**
      * Validates stored hash format.
      * 
@@ -236,11 +505,78 @@ public final class EncryptionManager {
     private static String sanitizeInput(String input) {
         // Trim whitespace
         String trimmed = input.trim();
+        int length = trimmed.length();
         
-        // Normalize whitespace (replace multiple spaces with single space)
-        String normalized = WHITESPACE_PATTERN.matcher(trimmed).replaceAll(" ");
+        // Most keys have nothing to normalize, so only copy from the first whitespace run that isn't a single space
+        int i = 0;
+        while (i < length && !startsWhitespaceToNormalize(trimmed, i)) {
+            i++;
+        }
+        if (i == length) {
+            return trimmed;
+        }
         
-        return normalized;
+        // Normalize whitespace (replace each run with a single space)
+        StringBuilder normalized = new StringBuilder(length).append(trimmed, 0, i);
+        while (i < length) {
+            char c = trimmed.charAt(i);
+            if (isWhitespace(c)) {
+                normalized.append(' ');
+                while (i < length && isWhitespace(trimmed.charAt(i))) {
+                    i++;
+                }
+            } else {
+                normalized.append(c);
+                i++;
+            }
+        }
+        return normalized.toString();
+    }
+    
+    private static boolean startsWhitespaceToNormalize(String input, int index) {
+        char c = input.charAt(index);
+        if (!isWhitespace(c)) {
+            return false;
+        }
+        return c != ' ' || (index + 1 < input.length() && isWhitespace(input.charAt(index + 1)));
+    }
+    
+    // The characters matched by \s: space, tab, newline, vertical tab, form feed and carriage return
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+    
+    /**
+     * Looks up a registered hash scheme.
+     * 
+     * @param schemeId The scheme id
+     * @return The scheme
+     * @throws IllegalArgumentException if no scheme has that id
+     */
+    private static HashScheme getScheme(String schemeId) {
+        HashScheme scheme = schemeId != null ? SCHEMES.get(schemeId) : null;
+        if (scheme == null) {
+            throw new IllegalArgumentException("Unknown hash scheme: " + schemeId);
+        }
+        return scheme;
+    }
+    
+    private static String schemeFromEnvironment() {
+        String schemeId = System.getenv(SCHEME_ENV);
+        return schemeId != null && SCHEMES.containsKey(schemeId.trim()) ? schemeId.trim() : DEFAULT_SCHEME;
+    }
+    
+    // Values below the minimum are raised to it rather than rejected
+    private static int iterationsFromEnvironment() {
+        String value = System.getenv(ITERATIONS_ENV);
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_ITERATIONS;
+        }
+        try {
+            return Math.max(MIN_ITERATIONS, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_ITERATIONS;
+        }
     }
     
     /**
@@ -258,7 +594,7 @@ public final class EncryptionManager {
         }
         
         byte[] keyBytes = new byte[length];
-        SECURE_RANDOM.nextBytes(keyBytes);
+        SECURE_RANDOM.get().nextBytes(keyBytes);
         
         // Convert to base64 and truncate to desired length
         String base64Key = Base64.getEncoder().encodeToString(keyBytes);
@@ -275,7 +611,7 @@ public final class EncryptionManager {
     }
     
     /**
-     * Gets the hash algorithm used.
+     * Gets the digest algorithm used by legacy "salt:hash" values.
      * 
      * @return The hash algorithm name
      */
@@ -291,4 +627,91 @@ public final class EncryptionManager {
     public static int getSaltLength() {
         return SALT_LENGTH;
     }
+    
+    /**
+     * Gets the id of the scheme used for new hashes.
+     * 
+     * @return The hash scheme id
+     */
+    public static String getHashScheme() {
+        return CURRENT_SCHEME;
+    }
+    
+    /**
+     * Gets the work factor used for new hashes.
+     * 
+     * @return The iteration count
+     */
+    public static int getWorkFactor() {
+        return CURRENT_ITERATIONS;
+    }
+    
+    /**
+     * Runs an action for each index of a range, splitting the range across the fork-join pool.
+     * Every hash takes long enough to be worth its own task.
+     */
+    private static final class BatchTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+        
+        BatchTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    action.accept(from);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(from, middle, action), new BatchTask(middle, to, action));
+        }
+    }
+    
+    /**
+     * PBKDF2 over an HMAC, with the cost as its iteration count.
+     */
+    private static final class Pbkdf2Scheme implements HashScheme {
+        
+        private final String id;
+        private final String algorithm;
+        private final int keyLengthBits;
+        // SecretKeyFactory instances aren't thread-safe, so each thread keeps its own
+        private final ThreadLocal<SecretKeyFactory> factories = new ThreadLocal<>();
+        
+        Pbkdf2Scheme(String id, String algorithm, int keyLengthBits) {
+            this.id = id;
+            this.algorithm = algorithm;
+            this.keyLengthBits = keyLengthBits;
+        }
+        
+        @Override
+        public String getId() {
+            return id;
+        }
+        
+        @Override
+        public byte[] hash(String key, byte[] salt, int cost) throws GeneralSecurityException {
+            PBEKeySpec spec = new PBEKeySpec(key.toCharArray(), salt, cost, keyLengthBits);
+            try {
+                SecretKeyFactory factory = factories.get();
+                if (factory == null) {
+                    factory = SecretKeyFactory.getInstance(algorithm);
+                    factories.set(factory);
+                }
+                return factory.generateSecret(spec).getEncoded();
+            } finally {
+                spec.clearPassword();
+            }
+        }
+    }
 } 
\ No newline at end of file
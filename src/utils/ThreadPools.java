@@ -0,0 +1,76 @@
+package com.mindthekid.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor factory that prefers virtual threads.
+ *
+ * The code is compiled for Java 11, so virtual threads (Java 21+) are looked up reflectively.
+ * On older runtimes a bounded pool of daemon platform threads is used instead, which gives
+ * the same concurrency limit at a higher per-thread cost.
+ *
+ * @author MTK Backend Team
+ * @version 1.0.0
+ */
+public final class ThreadPools {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private ThreadPools() {
+        throw new AssertionError("Cannot instantiate ThreadPools class");
+    }
+
+    /**
+     * Returns true if the running JVM supports virtual threads.
+     */
+    public static boolean virtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Creates a thread-per-task virtual thread executor when available, otherwise a fixed pool.
+     *
+     * @param name Thread name prefix for the platform fallback
+     * @param maxThreads Size of the platform fallback pool
+     * @return A new executor; the caller owns its shutdown
+     */
+    public static ExecutorService newVirtualOrBounded(String name, int maxThreads) {
+        if (maxThreads <= 0) {
+            throw new IllegalArgumentException("maxThreads must be positive");
+        }
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to platform threads
+            }
+        }
+        return Executors.newFixedThreadPool(maxThreads, daemonThreadFactory(name));
+    }
+
+    /**
+     * Creates a factory for named daemon threads, so pools never keep the JVM alive.
+     *
+     * @param name Thread name prefix
+     */
+    public static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.mindthekid.utils;
+
+/**
+ * Canonical, sortable time keys for location data.
+ *
+ * The canonical form is a fixed-width UTC ISO-8601 timestamp with millisecond precision,
+ * e.g. {@code 2024-01-01T12:00:00.000Z}. Because every key has the same width and zone,
+ * lexicographic order equals chronological order, which is what DynamoDB range conditions
+ * such as {@code date_time BETWEEN :startTime AND :endTime} rely on.
+ *
+ * The parser accepts the formats clients send and does not allocate:
+ * <ul>
+ *   <li>{@code yyyy-MM-ddTHH:mm[:ss[.fraction]]} with {@code Z}, {@code +/-HH:mm}, {@code +/-HHmm},
+ *       {@code +/-HH} or no zone (treated as UTC); a space may replace the {@code T}</li>
+ *   <li>Epoch milliseconds as a plain integer</li>
+ * </ul>
+ * Fractions beyond milliseconds are truncated.
+ *
+ * @author MTK Backend Team
+ * @version 1.0.0
+ */
+public final class TimeKeys {
+
+    /** Length of a canonical key: {@code yyyy-MM-ddTHH:mm:ss.SSSZ} */
+    public static final int CANONICAL_LENGTH = 24;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MIN_EPOCH_MILLIS = -62_167_219_200_000L; // 0000-01-01T00:00:00.000Z
+    private static final long MAX_EPOCH_MILLIS = 253_402_300_799_999L; // 9999-12-31T23:59:59.999Z
+
+    private TimeKeys() {
+        throw new AssertionError("Cannot instantiate TimeKeys class");
+    }
+
+    /**
+     * Parses a client timestamp to epoch milliseconds.
+     *
+     * @param text ISO-8601 timestamp or epoch milliseconds
+     * @return Milliseconds since the epoch, UTC
+     * @throws IllegalArgumentException if the text is not a supported timestamp
+     */
+    public static long parseEpochMillis(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Timestamp cannot be null");
+        }
+        int length = text.length();
+        if (length == 0) {
+            throw invalid(text);
+        }
+        if (length >= 5 && text.charAt(4) == '-') {
+            return parseIso(text, length);
+        }
+        return parseEpochDigits(text, length);
+    }
+
+    /**
+     * Returns true if the text is already in canonical form.
+     */
+    public static boolean isCanonical(CharSequence text) {
+        if (text == null || text.length() != CANONICAL_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < CANONICAL_LENGTH; i++) {
+            char c = text.charAt(i);
+            switch (i) {
+                case 4: case 7: if (c != '-') return false; break;
+                case 10: if (c != 'T') return false; break;
+                case 13: case 16: if (c != ':') return false; break;
+                case 19: if (c != '.') return false; break;
+                case 23: if (c != 'Z') return false; break;
+                default: if (c < '0' || c > '9') return false;
+            }
+        }
+        // Structure is right; make sure the field values are in range too
+        try {
+            parseIso(text, CANONICAL_LENGTH);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts a client timestamp to its canonical key. Canonical input is returned as-is.
+     *
+     * @throws IllegalArgumentException if the text is not a supported timestamp
+     */
+    public static String normalize(String text) {
+        if (isCanonical(text)) {
+            return text;
+        }
+        return format(parseEpochMillis(text));
+    }
+
+    /**
+     * Formats epoch milliseconds as a canonical key.
+     */
+    public static String format(long epochMillis) {
+        char[] buffer = new char[CANONICAL_LENGTH];
+        formatTo(epochMillis, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * Formats epoch milliseconds as a canonical key into the buffer without allocating.
+     *
+     * @param epochMillis Milliseconds since the epoch
+     * @param buffer Destination with at least {@link #CANONICAL_LENGTH} chars from {@code offset}
+     * @param offset Start position in the buffer
+     */
+    public static void formatTo(long epochMillis, char[] buffer, int offset) {
+        if (epochMillis < MIN_EPOCH_MILLIS || epochMillis > MAX_EPOCH_MILLIS) {
+            throw new IllegalArgumentException("Epoch millis out of supported range: " + epochMillis);
+        }
+        long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+
+        // Civil-from-days (proleptic Gregorian), after Howard Hinnant
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        int hour = millisOfDay / 3_600_000;
+        int minute = millisOfDay / 60_000 % 60;
+        int second = millisOfDay / 1000 % 60;
+        int millis = millisOfDay % 1000;
+
+        writeDigits(buffer, offset, year, 4);
+        buffer[offset + 4] = '-';
+        writeDigits(buffer, offset + 5, month, 2);
+        buffer[offset + 7] = '-';
+        writeDigits(buffer, offset + 8, day, 2);
+        buffer[offset + 10] = 'T';
+        writeDigits(buffer, offset + 11, hour, 2);
+        buffer[offset + 13] = ':';
+        writeDigits(buffer, offset + 14, minute, 2);
+        buffer[offset + 16] = ':';
+        writeDigits(buffer, offset + 17, second, 2);
+        buffer[offset + 19] = '.';
+        writeDigits(buffer, offset + 20, millis, 3);
+        buffer[offset + 23] = 'Z';
+    }
+
+    private static long parseIso(CharSequence text, int length) {
+        if (length < 16) {
+            throw invalid(text);
+        }
+        int year = digits(text, 0, 4);
+        expect(text, 4, '-');
+        int month = digits(text, 5, 2);
+        expect(text, 7, '-');
+        int day = digits(text, 8, 2);
+        char separator = text.charAt(10);
+        if (separator != 'T' && separator != 't' && separator != ' ') {
+            throw invalid(text);
+        }
+        int hour = digits(text, 11, 2);
+        expect(text, 13, ':');
+        int minute = digits(text, 14, 2);
+
+        int pos = 16;
+        int second = 0;
+        int millis = 0;
+        if (pos < length && text.charAt(pos) == ':') {
+            second = digits(text, pos + 1, 2);
+            pos += 3;
+            if (pos < length && (text.charAt(pos) == '.' || text.charAt(pos) == ',')) {
+                pos++;
+                int fractionStart = pos;
+                while (pos < length && isDigit(text.charAt(pos))) {
+                    if (pos - fractionStart < 3) {
+                        millis = millis * 10 + (text.charAt(pos) - '0');
+                    }
+                    pos++;
+                }
+                int fractionDigits = pos - fractionStart;
+                if (fractionDigits == 0 || fractionDigits > 9) {
+                    throw invalid(text);
+                }
+                for (int i = fractionDigits; i < 3; i++) {
+                    millis *= 10;
+                }
+            }
+        }
+
+        int offsetSeconds = 0;
+        if (pos < length) {
+            char zone = text.charAt(pos);
+            if ((zone == 'Z' || zone == 'z') && pos + 1 == length) {
+                pos++;
+            } else if (zone == '+' || zone == '-') {
+                int remaining = length - pos - 1;
+                int offsetHours;
+                int offsetMinutes = 0;
+                if (remaining == 2) {
+                    offsetHours = digits(text, pos + 1, 2);
+                } else if (remaining == 4) {
+                    offsetHours = digits(text, pos + 1, 2);
+                    offsetMinutes = digits(text, pos + 3, 2);
+                } else if (remaining == 5) {
+                    offsetHours = digits(text, pos + 1, 2);
+                    expect(text, pos + 3, ':');
+                    offsetMinutes = digits(text, pos + 4, 2);
+                } else {
+                    throw invalid(text);
+                }
+                if (offsetHours > 18 || offsetMinutes > 59) {
+                    throw invalid(text);
+                }
+                offsetSeconds = (offsetHours * 3600 + offsetMinutes * 60) * (zone == '-' ? -1 : 1);
+                pos = length;
+            } else {
+                throw invalid(text);
+            }
+        }
+        if (pos != length) {
+            throw invalid(text);
+        }
+
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            throw invalid(text);
+        }
+
+        long epochDay = epochDay(year, month, day);
+        long secondOfDay = hour * 3600L + minute * 60L + second - offsetSeconds;
+        long epochMillis = epochDay * MILLIS_PER_DAY + secondOfDay * MILLIS_PER_SECOND + millis;
+        if (epochMillis < MIN_EPOCH_MILLIS || epochMillis > MAX_EPOCH_MILLIS) {
+            throw invalid(text);
+        }
+        return epochMillis;
+    }
+
+    private static long parseEpochDigits(CharSequence text, int length) {
+        int pos = 0;
+        boolean negative = text.charAt(0) == '-';
+        if (negative) {
+            pos++;
+        }
+        // 15 digits comfortably covers year 9999 in millis without overflow
+        if (pos == length || length - pos > 15) {
+            throw invalid(text);
+        }
+        long value = 0;
+        for (; pos < length; pos++) {
+            char c = text.charAt(pos);
+            if (!isDigit(c)) {
+                throw invalid(text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        value = negative ? -value : value;
+        if (value < MIN_EPOCH_MILLIS || value > MAX_EPOCH_MILLIS) {
+            throw invalid(text);
+        }
+        return value;
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        // Days-from-civil (proleptic Gregorian), after Howard Hinnant
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        if (start + count > text.length()) {
+            throw invalid(text);
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                throw invalid(text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void expect(CharSequence text, int index, char expected) {
+        if (index >= text.length() || text.charAt(index) != expected) {
+            throw invalid(text);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static IllegalArgumentException invalid(CharSequence text) {
+        return new IllegalArgumentException("Unsupported timestamp format: " + text);
+    }
+}